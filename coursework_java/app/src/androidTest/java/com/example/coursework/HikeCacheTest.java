@@ -0,0 +1,85 @@
+package com.example.coursework;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cache của HikeDbHelper: đọc lần 2 không vào DB, ghi thì cache không bao giờ trả bản cũ.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HikeCacheTest {
+
+    private HikeDbHelper helper;
+    private HikeCache cache;
+
+    @Before
+    public void setUp() {
+        Context ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new HikeDbHelper(ctx, null);
+        cache = helper.getCache();
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void secondReadIsAHit() {
+        long id = helper.insertHike(hike("Lake Trail"));
+        int hits = cache.hikeHitCount();
+        int misses = cache.hikeMissCount();
+
+        Hike first = helper.getHike(id);
+        Hike second = helper.getHike(id);
+
+        assertEquals(hits + 2, cache.hikeHitCount());
+        assertEquals(misses, cache.hikeMissCount());
+        assertSame(first, second);
+        assertNull(helper.getHike(id + 1));
+        assertEquals(misses + 1, cache.hikeMissCount());
+    }
+
+    @Test
+    public void updateAndDeleteNeverServeStaleHike() {
+        long id = helper.insertHike(hike("Before"));
+        helper.getHike(id);
+
+        Hike edited = new Hike(id, "After", "Loc", HikeDates.dateOf(2025, 1, 1), "Easy",
+                1, 1, 1, false, 1, null, null);
+        helper.updateHike(edited);
+        assertEquals("After", helper.getHike(id).getName());
+
+        helper.deleteHike(id);
+        assertNull(helper.getHike(id));
+    }
+
+    @Test
+    public void deletingHikeEvictsItsObservations() {
+        long hikeId = helper.insertHike(hike("With obs"));
+        long obsId = helper.insertObservation(new Observation(hikeId, "Heron",
+                HikeDates.parseTime("2025-01-05 08:30"), null));
+        assertNotNull(helper.getObservation(obsId));
+
+        helper.updateObservation(new Observation(obsId, hikeId, "Egret",
+                HikeDates.parseTime("2025-01-05 08:30"), null));
+        assertEquals("Egret", helper.getObservation(obsId).getTitle());
+
+        helper.deleteHike(hikeId);
+        assertNull(helper.getObservation(obsId));
+    }
+
+    private static Hike hike(String name) {
+        return new Hike(name, "Loc", HikeDates.dateOf(2025, 1, 1), "Easy",
+                1, 1, 1, false, 1, null, null);
+    }
+}
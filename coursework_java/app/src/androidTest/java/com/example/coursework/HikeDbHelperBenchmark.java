@@ -0,0 +1,275 @@
+package com.example.coursework;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * So sánh latency giữa cách cũ (mở/đóng DB + ContentValues mỗi lần gọi)
+ * và HikeDbHelper hiện tại (1 connection + statement đã compile).
+ * Kết quả in ra logcat với tag "HikeDbBenchmark".
+ */
+@RunWith(AndroidJUnit4.class)
+public class HikeDbHelperBenchmark {
+
+    private static final String TAG = "HikeDbBenchmark";
+    private static final String BENCH_DB = "bench_hikes.db";
+    private static final int N = 10_000;
+
+    private Context ctx;
+    private HikeDbHelper helper;
+
+    @Before
+    public void setUp() {
+        ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ctx.deleteDatabase(BENCH_DB);
+        helper = new HikeDbHelper(ctx, BENCH_DB);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        ctx.deleteDatabase(BENCH_DB);
+    }
+
+    @Test
+    public void insertAndLookup_10k() {
+        // tạo schema trước để không tính thời gian onCreate
+        helper.getWritableDatabase();
+        File dbFile = ctx.getDatabasePath(BENCH_DB);
+
+        long t0 = SystemClock.elapsedRealtimeNanos();
+        long[] legacyIds = new long[N];
+        for (int i = 0; i < N; i++) {
+            legacyIds[i] = legacyInsert(dbFile, sampleHike(i));
+        }
+        long legacyInsertNs = SystemClock.elapsedRealtimeNanos() - t0;
+
+        t0 = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < N; i++) {
+            assertNotNull(legacyGet(dbFile, legacyIds[i]));
+        }
+        long legacyLookupNs = SystemClock.elapsedRealtimeNanos() - t0;
+
+        helper.deleteAllHikes();
+
+        t0 = SystemClock.elapsedRealtimeNanos();
+        long[] ids = new long[N];
+        for (int i = 0; i < N; i++) {
+            ids[i] = helper.insertHike(sampleHike(i));
+        }
+        long insertNs = SystemClock.elapsedRealtimeNanos() - t0;
+
+        t0 = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < N; i++) {
+            assertNotNull(helper.getHike(ids[i]));
+        }
+        long lookupNs = SystemClock.elapsedRealtimeNanos() - t0;
+
+        report("insert", legacyInsertNs, insertNs);
+        report("lookup", legacyLookupNs, lookupNs);
+        assertEquals(N, helper.getAllHikes().size());
+    }
+
+    @Test
+    public void bulkInsert_50k() {
+        helper.getWritableDatabase();
+        List<Hike> hikes = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            hikes.add(sampleHike(i));
+        }
+
+        long t0 = SystemClock.elapsedRealtimeNanos();
+        ImportResult result = helper.insertHikes(hikes);
+        long ns = SystemClock.elapsedRealtimeNanos() - t0;
+
+        Log.i(TAG, String.format("bulk insert x%d: %.1f ms", hikes.size(), ns / 1e6));
+        assertEquals(hikes.size(), result.getImportedCount());
+        assertEquals(0, result.getFailedCount());
+    }
+
+    @Test
+    public void findHikesWithin_100k() {
+        helper.getWritableDatabase();
+        // 100k hike rải đều trong khung ~ Việt Nam, cố định theo seed
+        Random r = new Random(42);
+        List<Hike> hikes = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            hikes.add(sampleHike(i).withCoordinates(8 + r.nextDouble() * 15,
+                    102 + r.nextDouble() * 8));
+        }
+        assertEquals(hikes.size(), helper.insertHikes(hikes).getImportedCount());
+
+        double lat = 16.05, lon = 108.2;   // Đà Nẵng
+        helper.findHikesWithin(lat, lon, 10);   // warm-up
+        for (double radius : new double[]{1, 10, 50}) {
+            long t0 = SystemClock.elapsedRealtimeNanos();
+            List<NearbyHike> found = helper.findHikesWithin(lat, lon, radius);
+            long ns = SystemClock.elapsedRealtimeNanos() - t0;
+            Log.i(TAG, String.format("findHikesWithin %.0f km over 100k: %d hikes, %.2f ms",
+                    radius, found.size(), ns / 1e6));
+
+            // đối chiếu với quét toàn bộ
+            int expected = 0;
+            for (Hike h : hikes) {
+                if (GeoBounds.distanceKm(lat, lon, h.getLatitude(), h.getLongitude()) <= radius) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, found.size());
+            for (int i = 1; i < found.size(); i++) {
+                assertTrue(found.get(i - 1).getDistanceKm() <= found.get(i).getDistanceKm());
+            }
+        }
+    }
+
+    // Nhập observation liên tục: mỗi dòng 1 commit (rollback journal như trước, rồi WAL) so với
+    // ObservationWriteQueue gom vào transaction chung
+    @Test
+    public void observationCapture_perRowVsGroupCommit() throws Exception {
+        int n = 2_000;
+        String journalDb = "bench_journal.db";
+        ctx.deleteDatabase(journalDb);
+        HikeDbHelper journal = new HikeDbHelper(ctx, journalDb);
+        journal.setWriteAheadLoggingEnabled(false);
+        try {
+            long journalNs = timePerRowInserts(journal, n);
+            long walNs = timePerRowInserts(helper, n);
+
+            long hikeId = helper.insertHike(sampleHike(0));
+            ObservationWriteQueue queue = helper.getObservationWriteQueue();
+            List<CompletableFuture<Long>> results = new ArrayList<>();
+            long t0 = SystemClock.elapsedRealtimeNanos();
+            for (int i = 0; i < n; i++) {
+                results.add(queue.insert(sampleObservation(hikeId, i)));
+            }
+            queue.flush();
+            long groupNs = SystemClock.elapsedRealtimeNanos() - t0;
+            for (CompletableFuture<Long> f : results) assertTrue(f.get() > 0);
+            assertEquals(n, helper.getObservationsForHike(hikeId).size());
+
+            Log.i(TAG, String.format("observation capture x%d: per-row journal %.0f rows/s, " +
+                            "per-row WAL %.0f rows/s, group commit WAL %.0f rows/s",
+                    n, n / (journalNs / 1e9), n / (walNs / 1e9), n / (groupNs / 1e9)));
+        } finally {
+            journal.close();
+            ctx.deleteDatabase(journalDb);
+        }
+    }
+
+    // Dữ liệu cho màn hình đầu lúc mở app: mở DB + đếm + page đầu (như loadHikes trước đây)
+    // so với đọc HikeListSnapshotFile (đọc file + decode)
+    @Test
+    public void firstScreen_liveQueryVsSnapshot() {
+        List<Hike> hikes = new ArrayList<>();
+        for (int i = 0; i < N; i++) hikes.add(sampleHike(i));
+        helper.insertHikes(hikes);
+        helper.close();
+        File snapshot = new File(ctx.getFilesDir(), HikeListSnapshotFile.FILE);
+        try {
+            long t0 = SystemClock.elapsedRealtimeNanos();
+            helper = new HikeDbHelper(ctx, BENCH_DB);
+            assertEquals(N, helper.countHikes(null, null));
+            List<HikeSummary> rows = helper.queryHikeSummaries(null, null, HikePager.ORDER,
+                    String.valueOf(HikeListSnapshotFile.ROWS));
+            long liveNs = SystemClock.elapsedRealtimeNanos() - t0;
+
+            HikeListSnapshotFile.write(ctx, rows, HikeListSnapshotFile.nextGeneration());
+            t0 = SystemClock.elapsedRealtimeNanos();
+            List<HikeSummary> cached = HikeListSnapshotFile.read(ctx);
+            long snapshotNs = SystemClock.elapsedRealtimeNanos() - t0;
+
+            assertEquals(rows, cached);
+            Log.i(TAG, String.format("first screen (%d of %d rows): live query %.2f ms, " +
+                            "snapshot %.3f ms (%d bytes)", rows.size(), N, liveNs / 1e6,
+                    snapshotNs / 1e6, snapshot.length()));
+        } finally {
+            snapshot.delete();
+        }
+    }
+
+    private static long timePerRowInserts(HikeDbHelper h, int n) {
+        long hikeId = h.insertHike(sampleHike(0));
+        long t0 = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < n; i++) {
+            assertTrue(h.insertObservation(sampleObservation(hikeId, i)) > 0);
+        }
+        return SystemClock.elapsedRealtimeNanos() - t0;
+    }
+
+    private static Observation sampleObservation(long hikeId, int i) {
+        return new Observation(hikeId, "Bird " + i, 1_700_000_000_000L + i * 60_000L,
+                "Seen near marker " + (i % 40));
+    }
+
+    private static void report(String op, long beforeNs, long afterNs) {
+        Log.i(TAG, String.format("%s x%d: before %.1f ms (%.1f us/op), after %.1f ms (%.1f us/op), %.1fx",
+                op, N,
+                beforeNs / 1e6, beforeNs / 1e3 / N,
+                afterNs / 1e6, afterNs / 1e3 / N,
+                (double) beforeNs / Math.max(1, afterNs)));
+    }
+
+    private static Hike sampleHike(int i) {
+        return new Hike("Hike " + i, "Location " + (i % 50),
+                HikeDates.dateOf(2025, 11, 22), "Moderate",
+                5 + i % 20, 1 + i % 6, 100 + i % 900, i % 2 == 0,
+                1 + i % 10, "Forest", "Benchmark row " + i);
+    }
+
+    // ----- đường đi cũ: mỗi thao tác mở file DB, dùng ContentValues rồi đóng -----
+
+    private static long legacyInsert(File dbFile, Hike hike) {
+        SQLiteDatabase db = SQLiteDatabase.openDatabase(dbFile.getPath(), null,
+                SQLiteDatabase.OPEN_READWRITE);
+        ContentValues cv = new ContentValues();
+        cv.put(HikeDbHelper.COL_NAME, hike.getName());
+        cv.put(HikeDbHelper.COL_LOCATION, hike.getLocation());
+        cv.put(HikeDbHelper.COL_DATE, hike.getDateEpochDay());
+        cv.put(HikeDbHelper.COL_DIFFICULTY, hike.getDifficulty());
+        cv.put(HikeDbHelper.COL_DISTANCE, hike.getDistanceKm());
+        cv.put(HikeDbHelper.COL_DURATION, hike.getDurationHours());
+        cv.put(HikeDbHelper.COL_ELEVATION, hike.getElevationM());
+        cv.put(HikeDbHelper.COL_PARKING, hike.hasParking() ? 1 : 0);
+        cv.put(HikeDbHelper.COL_GROUP_SIZE, hike.getGroupSize());
+        cv.put(HikeDbHelper.COL_TERRAIN, hike.getTerrain());
+        cv.put(HikeDbHelper.COL_DESC, hike.getDescription());
+        long id = db.insert(HikeDbHelper.TABLE_HIKES, null, cv);
+        db.close();
+        return id;
+    }
+
+    private static String legacyGet(File dbFile, long id) {
+        SQLiteDatabase db = SQLiteDatabase.openDatabase(dbFile.getPath(), null,
+                SQLiteDatabase.OPEN_READONLY);
+        Cursor c = db.query(HikeDbHelper.TABLE_HIKES, null,
+                HikeDbHelper.COL_ID + "=?", new String[]{String.valueOf(id)},
+                null, null, null);
+        String name = null;
+        if (c.moveToFirst()) {
+            name = c.getString(c.getColumnIndexOrThrow(HikeDbHelper.COL_NAME));
+        }
+        c.close();
+        db.close();
+        return name;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.coursework;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Metrics của HikeDbHelper: mỗi thao tác chạm DB được đếm đúng op và số dòng, đọc trúng cache
+ * không tính, JSON dump có đủ các op.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HikeDbMetricsTest {
+
+    private HikeDbHelper helper;
+    private QueryMetrics<HikeDbHelper.DbOp> metrics;
+
+    @Before
+    public void setUp() {
+        Context ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new HikeDbHelper(ctx, null);
+        metrics = helper.getMetrics();
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void recordsDatabaseCallsOnly() throws Exception {
+        long id = helper.insertHike(new Hike("Metrics", "Loc", HikeDates.dateOf(2025, 1, 1), "Easy",
+                1, 1, 1, false, 1, null, null));
+        helper.getCache().onAllHikesDeleted();
+        helper.getHike(id);     // DB
+        helper.getHike(id);     // cache
+        helper.getAllHikes();
+
+        QueryMetrics.Snapshot s = metrics.snapshot();
+        assertEquals(1, stats(s, HikeDbHelper.DbOp.INSERT_HIKE).count);
+        assertEquals(1, stats(s, HikeDbHelper.DbOp.GET_HIKE).count);
+        assertEquals(1, stats(s, HikeDbHelper.DbOp.GET_HIKE).rows);
+        assertEquals(1, stats(s, HikeDbHelper.DbOp.QUERY_HIKES).rows);
+
+        JSONObject json = s.toJson();
+        assertEquals(s.ops.size(), json.getJSONArray("ops").length());
+
+        metrics.reset();
+        assertTrue(metrics.snapshot().ops.isEmpty());
+    }
+
+    private static QueryMetrics.OpStats stats(QueryMetrics.Snapshot s, HikeDbHelper.DbOp op) {
+        for (QueryMetrics.OpStats o : s.ops) {
+            if (o.op.equals(op.name())) return o;
+        }
+        fail("no metrics for " + op);
+        return null;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.coursework;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Nâng cấp 1 file DB v3 có dữ liệu (schema cũ, date/time dạng text) lên version mới nhất
+ * bằng HikeDbHelper thật, rồi kiểm tra dữ liệu còn đủ và đã được chuyển đổi đúng.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HikeMigrationsTest {
+
+    private static final String OLD_DB = "migration_old.db";
+    private static final String FRESH_DB = "migration_fresh.db";
+
+    private Context ctx;
+    private HikeDbHelper helper;
+
+    @Before
+    public void setUp() {
+        ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ctx.deleteDatabase(OLD_DB);
+        ctx.deleteDatabase(FRESH_DB);
+    }
+
+    @After
+    public void tearDown() {
+        if (helper != null) helper.close();
+        ctx.deleteDatabase(OLD_DB);
+        ctx.deleteDatabase(FRESH_DB);
+    }
+
+    @Test
+    public void upgradeFromV3_keepsRowsAndConvertsDates() {
+        SQLiteDatabase old = createV3(OLD_DB);
+        long lake = insertV3Hike(old, "Lake Trail", "Sa Pa", "1/5/2025", "Lakeside loop");
+        long nui = insertV3Hike(old, "Núi Bà Đen", "Tây Ninh", "11/22/2025", null);
+        long deleted = insertV3Hike(old, "Removed", "Nowhere", "02/03/2024", null);
+        old.delete(HikeDbHelper.TABLE_HIKES, HikeDbHelper.COL_ID + "=" + deleted, null);
+        long obs = insertV3Obs(old, lake, "Heron", "2025-01-05 08:30", "Near the lake shore");
+        insertV3Obs(old, nui, "Summit", "2025-11-22 14:05", null);
+        old.close();
+
+        helper = new HikeDbHelper(ctx, OLD_DB);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        assertEquals(HikeMigrations.LATEST_VERSION, db.getVersion());
+
+        Hike h = helper.getHike(lake);
+        assertNotNull(h);
+        assertEquals("Lake Trail", h.getName());
+        assertEquals(HikeDates.dateOf(2025, 1, 5), h.getDateEpochDay());
+        assertEquals(HikeDates.dateOf(2025, 11, 22), helper.getHike(nui).getDateEpochDay());
+
+        Observation o = helper.getObservation(obs);
+        assertNotNull(o);
+        assertEquals(lake, o.getHikeId());
+        assertEquals((long) HikeDates.parseTime("2025-01-05 08:30"), o.getTimeMillis());
+        assertFalse(o.hasPhoto());
+
+        // cột chuẩn hoá đã được backfill
+        HikeQuery q = new HikeQuery().nameContains("nui ba den");
+        assertEquals(1, helper.countHikes(q.getSelection(), q.getSelectionArgs()));
+
+        // FTS đã được dựng lại, kể cả observation
+        List<HikeSearchResult> found = helper.searchHikes("shore", 10);
+        assertEquals(1, found.size());
+        assertEquals(lake, found.get(0).getHike().getId());
+
+        // bảng thống kê được tính từ dữ liệu cũ
+        List<HikeStatsBucket> byDifficulty = helper.getHikeStats(HikeStats.DIM_DIFFICULTY);
+        assertEquals(1, byDifficulty.size());
+        assertEquals(2, byDifficulty.get(0).getHikeCount());
+        assertEquals(11.0, byDifficulty.get(0).getTotalDistanceKm(), 1e-9);
+
+        // AUTOINCREMENT không cấp lại id đã xoá
+        Hike added = new Hike("New", "Here", HikeDates.dateOf(2026, 1, 1), "Easy",
+                1, 1, 1, false, 1, null, null);
+        assertTrue(helper.insertHike(added) > deleted);
+
+        // FK vẫn hoạt động sau khi dựng lại bảng
+        helper.deleteHike(lake);
+        assertNull(helper.getObservation(obs));
+    }
+
+    @Test
+    public void upgradeFromV3_convertsEveryChunk() {
+        int n = HikeDbHelper.BULK_COMMIT_EVERY * 2 + 7;
+        SQLiteDatabase old = createV3(OLD_DB);
+        old.beginTransaction();
+        for (int i = 0; i < n; i++) {
+            insertV3Hike(old, "Hike " + i, "Loc", (1 + i % 12) + "/" + (1 + i % 28) + "/2024", null);
+        }
+        old.setTransactionSuccessful();
+        old.endTransaction();
+        old.close();
+
+        helper = new HikeDbHelper(ctx, OLD_DB);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        assertEquals(n, helper.countHikes(null, null));
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, HikeDbHelper.TABLE_HIKES,
+                HikeDbHelper.COL_DATE + " = 0 OR " + HikeDbHelper.COL_NAME_NORM + " = ''", null));
+    }
+
+    @Test
+    public void upgradeFromV3_schemaMatchesFreshInstall() {
+        createV3(OLD_DB).close();
+        helper = new HikeDbHelper(ctx, OLD_DB);
+        Set<String> upgraded = describeSchema(helper.getWritableDatabase());
+
+        HikeDbHelper fresh = new HikeDbHelper(ctx, FRESH_DB);
+        Set<String> created = describeSchema(fresh.getWritableDatabase());
+        fresh.close();
+
+        assertEquals(created, upgraded);
+    }
+
+    @Test
+    public void upgradeFromV2_addsMissingColumnsWithoutDroppingData() {
+        SQLiteDatabase old = ctx.openOrCreateDatabase(OLD_DB, Context.MODE_PRIVATE, null);
+        old.execSQL("CREATE TABLE hikes (_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "name TEXT NOT NULL, location TEXT NOT NULL, date TEXT NOT NULL, " +
+                "difficulty TEXT NOT NULL, distance_km REAL NOT NULL, duration_h REAL NOT NULL, " +
+                "elevation_m INTEGER NOT NULL, parking INTEGER NOT NULL, description TEXT)");
+        old.execSQL("INSERT INTO hikes (name, location, date, difficulty, distance_km, " +
+                "duration_h, elevation_m, parking) VALUES ('Old', 'Hue', '3/4/2023', 'Easy', 2, 1, 10, 0)");
+        old.setVersion(2);
+        old.close();
+
+        helper = new HikeDbHelper(ctx, OLD_DB);
+        List<Hike> hikes = helper.getAllHikes();
+        assertEquals(1, hikes.size());
+        assertEquals("Old", hikes.get(0).getName());
+        assertEquals(1, hikes.get(0).getGroupSize());
+        assertEquals(HikeDates.dateOf(2023, 3, 4), hikes.get(0).getDateEpochDay());
+    }
+
+    // ----- fixture: schema v3 như bản đã phát hành -----
+
+    private SQLiteDatabase createV3(String name) {
+        SQLiteDatabase db = ctx.openOrCreateDatabase(name, Context.MODE_PRIVATE, null);
+        db.execSQL("CREATE TABLE hikes (_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "name TEXT NOT NULL, location TEXT NOT NULL, date TEXT NOT NULL, " +
+                "difficulty TEXT NOT NULL, distance_km REAL NOT NULL, duration_h REAL NOT NULL, " +
+                "elevation_m INTEGER NOT NULL, parking INTEGER NOT NULL, " +
+                "group_size INTEGER NOT NULL, terrain TEXT, description TEXT)");
+        db.execSQL("CREATE TABLE observations (_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "hike_id INTEGER NOT NULL, title TEXT NOT NULL, time TEXT NOT NULL, comment TEXT, " +
+                "FOREIGN KEY(hike_id) REFERENCES hikes(_id) ON DELETE CASCADE)");
+        db.setVersion(3);
+        return db;
+    }
+
+    private static long insertV3Hike(SQLiteDatabase db, String name, String location,
+                                     String date, String description) {
+        ContentValues cv = new ContentValues();
+        cv.put("name", name);
+        cv.put("location", location);
+        cv.put("date", date);
+        cv.put("difficulty", "Moderate");
+        cv.put("distance_km", 5.5);
+        cv.put("duration_h", 2.0);
+        cv.put("elevation_m", 300);
+        cv.put("parking", 1);
+        cv.put("group_size", 4);
+        cv.put("terrain", "Forest");
+        cv.put("description", description);
+        return db.insertOrThrow("hikes", null, cv);
+    }
+
+    private static long insertV3Obs(SQLiteDatabase db, long hikeId, String title,
+                                    String time, String comment) {
+        ContentValues cv = new ContentValues();
+        cv.put("hike_id", hikeId);
+        cv.put("title", title);
+        cv.put("time", time);
+        cv.put("comment", comment);
+        return db.insertOrThrow("observations", null, cv);
+    }
+
+    // Mỗi bảng/index/trigger và từng cột (tên, kiểu, not null) -> so sánh được giữa 2 DB
+    private static Set<String> describeSchema(SQLiteDatabase db) {
+        Set<String> out = new TreeSet<>();
+        Set<String> tables = new TreeSet<>();
+        Cursor c = db.rawQuery("SELECT type, name FROM sqlite_master " +
+                "WHERE name NOT LIKE 'sqlite_%' AND name != 'android_metadata'", null);
+        while (c.moveToNext()) {
+            out.add(c.getString(0) + " " + c.getString(1));
+            if ("table".equals(c.getString(0))) tables.add(c.getString(1));
+        }
+        c.close();
+        for (String table : tables) {
+            Cursor info = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+            while (info.moveToNext()) {
+                out.add(table + "." + info.getString(info.getColumnIndexOrThrow("name")) + " " +
+                        info.getString(info.getColumnIndexOrThrow("type")) + " notnull=" +
+                        info.getInt(info.getColumnIndexOrThrow("notnull")));
+            }
+            info.close();
+        }
+        return out;
+    }
+}
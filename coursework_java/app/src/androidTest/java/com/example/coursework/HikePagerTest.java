@@ -0,0 +1,68 @@
+package com.example.coursework;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * HikePager với filter SQL: page preload bằng OFFSET rồi keyset trên (date, _id) ra đúng các dòng
+ * như đọc cả danh sách theo thứ tự, kể cả khi nhiều hike trùng ngày.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HikePagerTest {
+
+    private static final int N = 500;
+
+    private HikeDbHelper helper;
+
+    @Before
+    public void setUp() {
+        Context ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new HikeDbHelper(ctx, null);
+        Random r = new Random(5);
+        List<Hike> hikes = new ArrayList<>();
+        for (int i = 0; i < N; i++) {
+            // ít ngày khác nhau -> nhiều dòng cùng date, thứ tự phải theo _id
+            hikes.add(new Hike("Hike " + i, "Loc", HikeDates.dateOf(2025, 1, 1) + r.nextInt(20),
+                    "Easy", r.nextInt(30), 1, 1, false, 1, null, null));
+        }
+        helper.insertHikes(hikes);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void keysetPagesMatchFullOrder() {
+        check(null, null);
+        HikeQuery q = new HikeQuery().maxDistanceKm(10.0);
+        check(q.getSelection(), q.getSelectionArgs());
+    }
+
+    private void check(String where, String[] args) {
+        List<HikeSummary> all = helper.queryHikeSummaries(where, args, HikePager.ORDER, null);
+        assertEquals(helper.countHikes(where, args), all.size());
+        for (int anchor : new int[]{0, 49, 120, all.size() - 1, all.size() + 100}) {
+            HikePager pager = new HikePager(null, where, args, all.size());
+            pager.preloadAround(helper, anchor);
+            int first = pager.anchorPage() * HikePager.PAGE_SIZE;
+            List<HikeSummary> run = pager.loadedRun(pager.anchorPage());
+            assertFalse(run.isEmpty());
+            assertEquals("anchor " + anchor, all.subList(first, first + run.size()), run);
+        }
+    }
+}
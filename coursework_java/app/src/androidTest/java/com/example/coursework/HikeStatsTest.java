@@ -0,0 +1,170 @@
+package com.example.coursework;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Trigger của hike_stats: sau chuỗi insert / update / delete / bulk insert ngẫu nhiên, bảng thống kê
+ * phải khớp với GROUP BY tính lại từ bảng hikes (nhóm rỗng bị xoá, không còn dòng thừa).
+ */
+@RunWith(AndroidJUnit4.class)
+public class HikeStatsTest {
+
+    private static final String[] TERRAINS = {null, "Forest", "Rock", "Mud"};
+
+    private HikeDbHelper helper;
+
+    @Before
+    public void setUp() {
+        Context ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new HikeDbHelper(ctx, null);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void triggersMatchGroupByAfterRandomChanges() {
+        Random r = new Random(11);
+        List<Long> ids = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            int op = r.nextInt(10);
+            if (op < 4 || ids.isEmpty()) {
+                ids.add(helper.insertHike(randomHike(r, -1)));
+            } else if (op < 7) {
+                long id = ids.get(r.nextInt(ids.size()));
+                assertEquals(1, helper.updateHike(randomHike(r, id)));
+            } else if (op < 9) {
+                long id = ids.remove(r.nextInt(ids.size()));
+                assertEquals(1, helper.deleteHike(id));
+            } else {
+                List<Hike> batch = new ArrayList<>();
+                for (int i = 0; i < 20; i++) batch.add(randomHike(r, -1));
+                helper.insertHikes(batch);
+                for (Hike h : batch) ids.add(h.getId());
+            }
+            if (step % 250 == 0) assertStatsMatch();
+        }
+        assertStatsMatch();
+
+        // xoá hết: không còn nhóm nào
+        helper.deleteAllHikes();
+        assertStatsMatch();
+        assertTrue(read(HikeStats.DIM_DIFFICULTY, false).isEmpty());
+    }
+
+    // Sửa hike kiểu form (UPDATE ghi lại mọi cột) mà chỉ đổi tên / mô tả: trigger không ghi gì
+    // vào hike_stats. Đếm bằng trigger TEMP trên chính hike_stats.
+    @Test
+    public void renameDoesNoStatsWork() {
+        Hike hike = new Hike("Before", "Loc", HikeDates.dateOf(2025, 3, 1), "Hard", 12, 5, 800,
+                true, 4, "Rock", "old");
+        long id = helper.insertHike(hike);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.execSQL("CREATE TEMP TABLE stats_writes (n INTEGER)");
+        for (String op : new String[]{"INSERT", "UPDATE", "DELETE"}) {
+            db.execSQL("CREATE TEMP TRIGGER stats_" + op.toLowerCase(Locale.ROOT) + " AFTER " +
+                    op + " ON main." + HikeStats.TABLE_STATS +
+                    " BEGIN INSERT INTO stats_writes VALUES (1); END");
+        }
+        try {
+            assertEquals(1, helper.updateHike(new Hike(id, "After", "Loc", hike.getDateEpochDay(),
+                    "Hard", 12, 5, 800, true, 4, "Rock", "new description")));
+            assertEquals(0, DatabaseUtils.queryNumEntries(db, "stats_writes"));
+
+            // đổi cột thống kê thì trigger vẫn chạy (probe hoạt động)
+            assertEquals(1, helper.updateHike(new Hike(id, "After", "Loc", hike.getDateEpochDay(),
+                    "Hard", 13, 5, 800, true, 4, "Rock", "new description")));
+            assertTrue(DatabaseUtils.queryNumEntries(db, "stats_writes") > 0);
+        } finally {
+            for (String op : new String[]{"insert", "update", "delete"}) {
+                db.execSQL("DROP TRIGGER temp.stats_" + op);
+            }
+            db.execSQL("DROP TABLE temp.stats_writes");
+        }
+        assertStatsMatch();
+    }
+
+    private static Hike randomHike(Random r, long id) {
+        return new Hike(id, "Stats " + r.nextInt(1000), "Loc",
+                HikeDates.dateOf(2024 + r.nextInt(2), 1 + r.nextInt(12), 1 + r.nextInt(28)),
+                HikeValidator.DIFFICULTIES[r.nextInt(HikeValidator.DIFFICULTIES.length)],
+                Math.round(r.nextDouble() * 300) / 10.0, Math.round(r.nextDouble() * 100) / 10.0,
+                r.nextInt(3000), r.nextBoolean(), 1 + r.nextInt(8),
+                TERRAINS[r.nextInt(TERRAINS.length)], null);
+    }
+
+    private void assertStatsMatch() {
+        for (String dim : new String[]{HikeStats.DIM_DIFFICULTY, HikeStats.DIM_TERRAIN,
+                HikeStats.DIM_MONTH}) {
+            TreeMap<String, double[]> stats = read(dim, false);
+            TreeMap<String, double[]> expected = read(dim, true);
+            assertEquals(dim, expected.keySet(), stats.keySet());
+            for (String bucket : expected.keySet()) {
+                double[] e = expected.get(bucket), s = stats.get(bucket);
+                String where = dim + "/" + bucket;
+                assertEquals(where, (long) e[0], (long) s[0]);
+                // tổng REAL cộng/trừ dần có thể trôi ở bit cuối
+                assertEquals(where, e[1], s[1], 1e-6);
+                assertEquals(where, e[2], s[2], 1e-6);
+                assertEquals(where, (long) e[3], (long) s[3]);
+            }
+        }
+    }
+
+    // bucket -> {count, distance, duration, elevation}; recompute = GROUP BY trực tiếp trên hikes
+    private TreeMap<String, double[]> read(String dim, boolean recompute) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        String sql;
+        if (recompute) {
+            String bucket;
+            switch (dim) {
+                case HikeStats.DIM_DIFFICULTY:
+                    bucket = HikeDbHelper.COL_DIFFICULTY;
+                    break;
+                case HikeStats.DIM_TERRAIN:
+                    bucket = "IFNULL(" + HikeDbHelper.COL_TERRAIN + ", '')";
+                    break;
+                default:
+                    bucket = "strftime('%Y-%m', " + HikeDbHelper.COL_DATE + " * 86400, 'unixepoch')";
+            }
+            sql = "SELECT " + bucket + ", COUNT(*), TOTAL(" + HikeDbHelper.COL_DISTANCE +
+                    "), TOTAL(" + HikeDbHelper.COL_DURATION + "), TOTAL(" +
+                    HikeDbHelper.COL_ELEVATION + ") FROM " + HikeDbHelper.TABLE_HIKES +
+                    " GROUP BY 1";
+        } else {
+            sql = "SELECT " + HikeStats.COL_BUCKET + ", " + HikeStats.COL_COUNT + ", " +
+                    HikeStats.COL_DISTANCE + ", " + HikeStats.COL_DURATION + ", " +
+                    HikeStats.COL_ELEVATION + " FROM " + HikeStats.TABLE_STATS + " WHERE " +
+                    HikeStats.COL_DIMENSION + " = '" + dim + "'";
+        }
+        TreeMap<String, double[]> out = new TreeMap<>();
+        try (Cursor c = db.rawQuery(sql, null)) {
+            while (c.moveToNext()) {
+                out.put(c.getString(0), new double[]{c.getLong(1), c.getDouble(2),
+                        c.getDouble(3), c.getLong(4)});
+            }
+        }
+        return out;
+    }
+}
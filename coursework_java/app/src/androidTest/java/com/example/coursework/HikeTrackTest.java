@@ -0,0 +1,99 @@
+package com.example.coursework;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+/**
+ * Track GPS: ghi qua TrackWriter (nhiều chunk, ghi tiếp lần 2), đọc lại đủ điểm theo thứ tự,
+ * distance/elevation của hike lấy theo track, ghi tiếp giữa đoạn leo dở dang không mất độ cao leo.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HikeTrackTest {
+
+    private HikeDbHelper helper;
+
+    @Before
+    public void setUp() {
+        Context ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new HikeDbHelper(ctx, null);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void writeAppendAndReadBack() throws Exception {
+        long id = helper.insertHike(new Hike("Track", "Loc", HikeDates.dateOf(2025, 1, 1), "Easy",
+                1, 1, 1, false, 1, null, null));
+        int n = TrackWriter.DEFAULT_POINTS_PER_CHUNK * 2 + 10;
+        long t0 = 1_700_000_000_000L;
+
+        // 2 lần ghi: lần 2 nối tiếp track đã có
+        try (TrackWriter w = helper.openTrackWriter(id)) {
+            for (int i = 0; i < n; i++) w.append(16.0 + i * 1e-4, 108.0, 100 + i * 0.5, t0 + i * 1000);
+        }
+        try (TrackWriter w = helper.openTrackWriter(id)) {
+            for (int i = n; i < 2 * n; i++) w.append(16.0 + i * 1e-4, 108.0, 100 + i * 0.5, t0 + i * 1000);
+        }
+
+        Iterator<TrackPoint> it = helper.readTrack(id);
+        TrackStats stats = new TrackStats();
+        int count = 0;
+        while (it.hasNext()) {
+            TrackPoint p = it.next();
+            assertEquals(t0 + count * 1000L, p.getTimeMillis());
+            stats.add(p);
+            count++;
+        }
+        assertEquals(2 * n, count);
+
+        Hike h = helper.getHike(id);
+        assertEquals(stats.getDistanceKm(), h.getDistanceKm(), 0.01);
+        assertEquals(Math.round(stats.getElevationGainM()), h.getElevationM());
+        // ~0.0111 km mỗi bước lat 1e-4 độ
+        assertEquals((2 * n - 1) * 0.0111, h.getDistanceKm(), 0.1);
+
+        helper.deleteHike(id);
+        assertFalse(helper.readTrack(id).hasNext());
+    }
+
+    // Lần ghi đầu dừng giữa 1 đoạn leo chưa tới GAIN_THRESHOLD_M (100 -> 102 m), lần sau leo tiếp
+    // lên 104 m: độ cao leo phải là 4 m như khi ghi liền 1 lần, không mất 2 m đầu.
+    @Test
+    public void resumeInsidePartialClimbKeepsGain() throws Exception {
+        long id = helper.insertHike(new Hike("Climb", "Loc", HikeDates.dateOf(2025, 1, 1), "Easy",
+                1, 1, 1, false, 1, null, null));
+        double[] elevations = {100, 101, 102, 104};
+        int split = 3;
+        long t0 = 1_700_000_000_000L;
+
+        TrackStats single = new TrackStats();
+        for (int i = 0; i < elevations.length; i++) single.add(16.0 + i * 1e-4, 108.0, elevations[i]);
+        assertEquals(4.0, single.getElevationGainM(), 1e-9);
+
+        try (TrackWriter w = helper.openTrackWriter(id)) {
+            for (int i = 0; i < split; i++) w.append(16.0 + i * 1e-4, 108.0, elevations[i], t0 + i * 1000);
+            assertEquals(0.0, w.getStats().getElevationGainM(), 1e-9);
+        }
+        try (TrackWriter w = helper.openTrackWriter(id)) {
+            for (int i = split; i < elevations.length; i++) {
+                w.append(16.0 + i * 1e-4, 108.0, elevations[i], t0 + i * 1000);
+            }
+            assertEquals(4.0, w.getStats().getElevationGainM(), 1e-9);
+        }
+        assertEquals(Math.round(single.getElevationGainM()), helper.getHike(id).getElevationM());
+    }
+}
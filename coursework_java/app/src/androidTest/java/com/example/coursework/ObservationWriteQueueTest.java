@@ -0,0 +1,71 @@
+package com.example.coursework;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * ObservationWriteQueue: flushAsync() ghi phần đang chờ mà không chặn caller, và lệnh gửi vào
+ * hàng đợi đã đóng thì Future lỗi ngay chứ không treo mãi.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ObservationWriteQueueTest {
+
+    private HikeDbHelper helper;
+    private long hikeId;
+
+    @Before
+    public void setUp() {
+        Context ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new HikeDbHelper(ctx, null);
+        hikeId = helper.insertHike(new Hike("Queue", "Loc", HikeDates.dateOf(2025, 1, 1), "Easy",
+                1, 1, 1, false, 1, null, null));
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void flushAsyncCommitsWithoutWaiting() throws Exception {
+        ObservationWriteQueue queue = helper.getObservationWriteQueue();
+        CompletableFuture<Long> id = queue.insert(observation("Heron"));
+        queue.flushAsync();
+        assertTrue(id.get(5, TimeUnit.SECONDS) > 0);
+        assertEquals(1, helper.getObservationsForHike(hikeId).size());
+    }
+
+    @Test
+    public void writesAfterCloseFailInsteadOfHanging() throws Exception {
+        ObservationWriteQueue queue = helper.getObservationWriteQueue();
+        helper.close();
+
+        CompletableFuture<Long> id = queue.insert(observation("Late"));
+        try {
+            id.get(1, TimeUnit.SECONDS);
+            fail("write after close should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // flush sau khi đóng không ném lỗi, không treo
+        queue.flush();
+        queue.flushAsync();
+    }
+
+    private Observation observation(String name) {
+        return new Observation(hikeId, name, 1_700_000_000_000L, null);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.coursework;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Thumbnail: cache đĩa không vượt giới hạn và giữ lại ảnh mới nhất, đọc ra cùng config 565 và
+ * tự tạo lại thư mục bị xoá, inSampleSize không làm ảnh nhỏ hơn kích thước thumbnail.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ThumbnailCacheTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() {
+        Context ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dir = new File(ctx.getCacheDir(), "thumbnail-test");
+        new ThumbnailDiskCache(dir, 1).clear();
+    }
+
+    @After
+    public void tearDown() {
+        new ThumbnailDiskCache(dir, 1).clear();
+        dir.delete();
+    }
+
+    @Test
+    public void diskCacheStaysBounded() {
+        long max = 64 * 1024;
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(dir, max);
+        Bitmap bmp = Bitmap.createBitmap(144, 144, Bitmap.Config.RGB_565);
+        for (int i = 0; i < 200; i++) {
+            bmp.eraseColor(Color.rgb(i, 255 - i, i / 2));
+            cache.put("photo" + i + "_144", bmp);
+            assertTrue(cache.size() <= max);
+        }
+        assertNotNull(cache.get("photo199_144"));
+        assertNull(cache.get("photo0_144"));
+
+        // mở lại: dung lượng quét từ thư mục khớp với lúc đang chạy
+        assertEquals(cache.size(), new ThumbnailDiskCache(dir, max).size());
+    }
+
+    @Test
+    public void diskHitsDecodeAs565AndSurviveClearedDirectory() {
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(dir, 1024 * 1024);
+        Bitmap bmp = Bitmap.createBitmap(144, 144, Bitmap.Config.RGB_565);
+        cache.put("a_144", bmp);
+        assertEquals(ThumbnailLoader.BITMAP_CONFIG, cache.get("a_144").getConfig());
+
+        // hệ thống xoá cacheDir khi process vẫn chạy
+        cache.clear();
+        assertTrue(dir.delete());
+        cache.put("b_144", bmp);
+        assertNotNull(cache.get("b_144"));
+        assertEquals(new File(dir, "b_144").length(), cache.size());
+    }
+
+    @Test
+    public void sampleSizeKeepsShortSideAboveTarget() {
+        assertEquals(1, ThumbnailLoader.sampleSize(200, 200, 144));
+        assertEquals(16, ThumbnailLoader.sampleSize(4000, 3000, 144));
+        assertEquals(2, ThumbnailLoader.sampleSize(4000, 300, 144));
+    }
+}
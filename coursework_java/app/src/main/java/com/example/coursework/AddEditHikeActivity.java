@@ -5,7 +5,6 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import android.app.DatePickerDialog;
 import android.os.Bundle;
-import android.text.TextUtils;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
@@ -19,13 +18,13 @@ import java.util.Calendar;
 public class AddEditHikeActivity extends AppCompatActivity {
 
     private EditText etName, etLocation, etDate, etDistance, etDuration,
-            etElevation, etGroupSize, etTerrain, etDescription;
+            etElevation, etGroupSize, etTerrain, etDescription, etLatitude, etLongitude;
     private Spinner spDifficulty;
     private Switch swParking;
     private Button btnSave, btnCancel;
     private TextView tvFormTitle;
 
-    private HikeDbHelper dbHelper;
+    private HikeRepository repository;
     private long editingId = -1;
     private boolean isEditMode = false;
 
@@ -34,7 +33,7 @@ public class AddEditHikeActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add_edit_hike);
 
-        dbHelper = new HikeDbHelper(this);
+        repository = new HikeRepository(this, this);
 
         tvFormTitle = findViewById(R.id.tvFormTitle);
         etName = findViewById(R.id.etName);
@@ -46,14 +45,15 @@ public class AddEditHikeActivity extends AppCompatActivity {
         etGroupSize = findViewById(R.id.etGroupSize);
         etTerrain = findViewById(R.id.etTerrain);
         etDescription = findViewById(R.id.etDescription);
+        etLatitude = findViewById(R.id.etLatitude);
+        etLongitude = findViewById(R.id.etLongitude);
         spDifficulty = findViewById(R.id.spDifficulty);
         swParking = findViewById(R.id.swParking);
         btnSave = findViewById(R.id.btnSave);
         btnCancel = findViewById(R.id.btnCancel);
 
-        String[] diffs = {"Easy", "Moderate", "Hard", "Expert"};
         ArrayAdapter<String> diffAdapter = new ArrayAdapter<>(
-                this, android.R.layout.simple_spinner_item, diffs);
+                this, android.R.layout.simple_spinner_item, HikeValidator.DIFFICULTIES);
         diffAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         spDifficulty.setAdapter(diffAdapter);
 
@@ -82,25 +82,34 @@ public class AddEditHikeActivity extends AppCompatActivity {
         int d = c.get(Calendar.DAY_OF_MONTH);
 
         new DatePickerDialog(this, (view, year, month, dayOfMonth) -> {
-            String text = (month + 1) + "/" + dayOfMonth + "/" + year;
-            etDate.setText(text);
+            etDate.setText(HikeDates.formatDate(HikeDates.dateOf(year, month + 1, dayOfMonth)));
         }, y, m, d).show();
     }
 
     private void loadExistingHike() {
         if (editingId == -1) return;
-        Hike h = dbHelper.getHike(editingId);
-        if (h == null) return;
+        // chưa load xong thì chưa cho lưu, tránh ghi đè bằng form trống
+        btnSave.setEnabled(false);
+        repository.getHike(editingId, h -> {
+            btnSave.setEnabled(true);
+            if (h != null) fillForm(h);
+        });
+    }
 
+    private void fillForm(Hike h) {
         etName.setText(h.getName());
         etLocation.setText(h.getLocation());
-        etDate.setText(h.getDate());
+        etDate.setText(HikeDates.formatDate(h.getDateEpochDay()));
         etDistance.setText(String.valueOf(h.getDistanceKm()));
         etDuration.setText(String.valueOf(h.getDurationHours()));
         etElevation.setText(String.valueOf(h.getElevationM()));
         etGroupSize.setText(String.valueOf(h.getGroupSize()));
         etTerrain.setText(h.getTerrain());
         etDescription.setText(h.getDescription());
+        if (h.hasCoordinates()) {
+            etLatitude.setText(String.valueOf(h.getLatitude()));
+            etLongitude.setText(String.valueOf(h.getLongitude()));
+        }
 
         String diff = h.getDifficulty();
         ArrayAdapter adapter = (ArrayAdapter) spDifficulty.getAdapter();
@@ -112,97 +121,74 @@ public class AddEditHikeActivity extends AppCompatActivity {
 
     // validate & show confirm dialog
     private void validateAndConfirm() {
-        String name = etName.getText().toString().trim();
-        String location = etLocation.getText().toString().trim();
-        String date = etDate.getText().toString().trim();
-        String distanceStr = etDistance.getText().toString().trim();
-        String durationStr = etDuration.getText().toString().trim();
-        String elevationStr = etElevation.getText().toString().trim();
-        String groupStr = etGroupSize.getText().toString().trim();
-        String terrain = etTerrain.getText().toString().trim();
-        String difficulty = (String) spDifficulty.getSelectedItem();
-        boolean parking = swParking.isChecked();
-        String description = etDescription.getText().toString().trim();
-
-        if (TextUtils.isEmpty(name) ||
-                TextUtils.isEmpty(location) ||
-                TextUtils.isEmpty(date) ||
-                TextUtils.isEmpty(distanceStr) ||
-                TextUtils.isEmpty(durationStr) ||
-                TextUtils.isEmpty(elevationStr) ||
-                TextUtils.isEmpty(groupStr)) {
-
-            Toast.makeText(this, "Please fill all required fields (*)", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        double distance, duration;
-        int elevation, groupSize;
+        Hike hike;
         try {
-            distance = Double.parseDouble(distanceStr);
-            duration = Double.parseDouble(durationStr);
-            elevation = Integer.parseInt(elevationStr);
-            groupSize = Integer.parseInt(groupStr);
-        } catch (NumberFormatException ex) {
-            Toast.makeText(this,
-                    "Distance, duration, elevation and group size must be numbers",
-                    Toast.LENGTH_SHORT).show();
+            hike = HikeValidator.validate(editingId,
+                    etName.getText().toString(),
+                    etLocation.getText().toString(),
+                    etDate.getText().toString(),
+                    (String) spDifficulty.getSelectedItem(),
+                    etDistance.getText().toString(),
+                    etDuration.getText().toString(),
+                    etElevation.getText().toString(),
+                    etGroupSize.getText().toString(),
+                    swParking.isChecked(),
+                    etTerrain.getText().toString(),
+                    etDescription.getText().toString());
+            hike = HikeValidator.withCoordinates(hike,
+                    etLatitude.getText().toString(),
+                    etLongitude.getText().toString());
+        } catch (HikeValidator.ValidationException ex) {
+            Toast.makeText(this, ex.getMessage(), Toast.LENGTH_SHORT).show();
             return;
         }
 
         // build summary
-        String summary = "Name: " + name +
-                "\nLocation: " + location +
-                "\nDate: " + date +
-                "\nDistance: " + distance + " km" +
-                "\nDuration: " + duration + " h" +
-                "\nElevation: " + elevation + " m" +
-                "\nDifficulty: " + difficulty +
-                "\nParking: " + (parking ? "Yes" : "No") +
-                "\nGroup size: " + groupSize +
-                "\nTerrain: " + terrain;
+        String summary = "Name: " + hike.getName() +
+                "\nLocation: " + hike.getLocation() +
+                "\nDate: " + HikeDates.formatDate(hike.getDateEpochDay()) +
+                "\nDistance: " + hike.getDistanceKm() + " km" +
+                "\nDuration: " + hike.getDurationHours() + " h" +
+                "\nElevation: " + hike.getElevationM() + " m" +
+                "\nDifficulty: " + hike.getDifficulty() +
+                "\nParking: " + (hike.hasParking() ? "Yes" : "No") +
+                "\nGroup size: " + hike.getGroupSize() +
+                "\nTerrain: " + hike.getTerrain();
 
         new AlertDialog.Builder(this)
                 .setTitle(isEditMode ? "Confirm changes" : "Confirm new hike")
                 .setMessage(summary)
                 .setPositiveButton("Confirm", (d, w) -> {
-                    saveToDatabase(name, location, date, difficulty,
-                            distance, duration, elevation,
-                            parking, groupSize, terrain, description);
+                    saveToDatabase(hike);
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
 
-    private void saveToDatabase(String name, String location, String date,
-                                String difficulty, double distance, double duration,
-                                int elevation, boolean parking, int groupSize,
-                                String terrain, String description) {
-
+    private void saveToDatabase(Hike hike) {
+        btnSave.setEnabled(false);
         if (!isEditMode) {
-            Hike hike = new Hike(name, location, date, difficulty,
-                    distance, duration, elevation, parking,
-                    groupSize, terrain, description);
-            long id = dbHelper.insertHike(hike);
-            if (id > 0) {
-                Toast.makeText(this, "Hike saved", Toast.LENGTH_SHORT).show();
-                setResult(RESULT_OK);
-                finish();
-            } else {
-                Toast.makeText(this, "Error saving hike", Toast.LENGTH_SHORT).show();
-            }
+            repository.insertHike(hike, id -> {
+                btnSave.setEnabled(true);
+                if (id != null && id > 0) {
+                    Toast.makeText(this, "Hike saved", Toast.LENGTH_SHORT).show();
+                    setResult(RESULT_OK);
+                    finish();
+                } else {
+                    Toast.makeText(this, "Error saving hike", Toast.LENGTH_SHORT).show();
+                }
+            });
         } else {
-            Hike hike = new Hike(editingId, name, location, date, difficulty,
-                    distance, duration, elevation, parking,
-                    groupSize, terrain, description);
-            int rows = dbHelper.updateHike(hike);
-            if (rows > 0) {
-                Toast.makeText(this, "Hike updated", Toast.LENGTH_SHORT).show();
-                setResult(RESULT_OK);
-                finish();
-            } else {
-                Toast.makeText(this, "Error updating hike", Toast.LENGTH_SHORT).show();
-            }
+            repository.updateHike(hike, rows -> {
+                btnSave.setEnabled(true);
+                if (rows != null && rows > 0) {
+                    Toast.makeText(this, "Hike updated", Toast.LENGTH_SHORT).show();
+                    setResult(RESULT_OK);
+                    finish();
+                } else {
+                    Toast.makeText(this, "Error updating hike", Toast.LENGTH_SHORT).show();
+                }
+            });
         }
     }
 }
@@ -1,45 +1,53 @@
 package com.example.coursework;
 
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import android.app.DatePickerDialog;
 import android.app.TimePickerDialog;
+import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
 import android.text.InputType;
 import android.text.TextUtils;
+import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.Locale;
+import java.util.concurrent.Future;
 
 public class AddEditObservationActivity extends AppCompatActivity {
 
+    private static final int REQ_PICK_PHOTO = 400;
+    private static final String STATE_PHOTO = "photoPath";
+
     private EditText etObsTitle, etObsTime, etObsComment;
-    private Button btnSaveObs, btnCancelObs;
+    private Button btnSaveObs, btnCancelObs, btnPickPhoto, btnRemovePhoto;
     private TextView tvObsFormTitle;
+    private ImageView ivPhoto;
 
-    private HikeDbHelper dbHelper;
+    private HikeRepository repository;
     private boolean isEditMode = false;
     private long hikeId = -1;
     private long obsId = -1;
 
-    // Calendar lưu thời điểm đang chọn
+    // Calendar lưu thời điểm đang chọn, đây là giá trị được lưu (ô text chỉ để hiển thị)
     private Calendar obsCalendar;
-    private final SimpleDateFormat sdf =
-            new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
+    // tên file ảnh trong ObservationPhotos, null = không có ảnh
+    private String photoPath;
+    private boolean photoRestored;
+    private Future<?> photoTask;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add_edit_observation);
 
-        dbHelper = new HikeDbHelper(this);
+        repository = new HikeRepository(this, this);
 
         etObsTitle = findViewById(R.id.etObsTitleInput);
         etObsTime = findViewById(R.id.etObsTimeInput);
@@ -47,8 +55,19 @@ public class AddEditObservationActivity extends AppCompatActivity {
         btnSaveObs = findViewById(R.id.btnSaveObs);
         btnCancelObs = findViewById(R.id.btnCancelObs);
         tvObsFormTitle = findViewById(R.id.tvObsFormTitle);
+        ivPhoto = findViewById(R.id.ivObsPhotoPreview);
+        btnPickPhoto = findViewById(R.id.btnObsPickPhoto);
+        btnRemovePhoto = findViewById(R.id.btnObsRemovePhoto);
+
+        // ảnh đã chọn nhưng chưa Save không có trong DB, giữ qua lần xoay màn hình
+        if (savedInstanceState != null) {
+            photoPath = savedInstanceState.getString(STATE_PHOTO);
+            photoRestored = true;
+        }
 
         obsCalendar = Calendar.getInstance();
+        obsCalendar.set(Calendar.SECOND, 0);
+        obsCalendar.set(Calendar.MILLISECOND, 0);
 
         String mode = getIntent().getStringExtra("mode");
         isEditMode = "edit".equals(mode);
@@ -63,39 +82,99 @@ public class AddEditObservationActivity extends AppCompatActivity {
             tvObsFormTitle.setText("Add Observation");
             btnSaveObs.setText("Add");
             // default time = now
-            etObsTime.setText(getNowString());
+            showTime();
         }
 
         // Không cho gõ bàn phím, chỉ bấm để chọn ngày giờ
         etObsTime.setInputType(InputType.TYPE_NULL);
         etObsTime.setOnClickListener(v -> showDateTimePicker());
 
+        btnPickPhoto.setOnClickListener(v -> {
+            Intent i = new Intent(Intent.ACTION_GET_CONTENT);
+            i.addCategory(Intent.CATEGORY_OPENABLE);
+            i.setType("image/*");
+            startActivityForResult(Intent.createChooser(i, "Choose photo"), REQ_PICK_PHOTO);
+        });
+        btnRemovePhoto.setOnClickListener(v -> {
+            photoPath = null;
+            showPhoto();
+        });
+        showPhoto();
+
         btnSaveObs.setOnClickListener(v -> saveObservation());
         btnCancelObs.setOnClickListener(v -> finish());
     }
 
-    private String getNowString() {
-        return sdf.format(new Date());
+    // Lần lưu vừa gửi có thể còn nằm trong cửa sổ gom của ObservationWriteQueue: ghi luôn, không
+    // chờ commit trên main thread
+    @Override
+    protected void onPause() {
+        super.onPause();
+        repository.flushObservationWritesAsync();
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(STATE_PHOTO, photoPath);
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode != REQ_PICK_PHOTO || resultCode != RESULT_OK || data == null) return;
+        Uri uri = data.getData();
+        if (uri == null) return;
+        btnSaveObs.setEnabled(false);
+        repository.importObservationPhoto(uri, name -> {
+            btnSaveObs.setEnabled(true);
+            if (name != null) {
+                photoPath = name;
+                showPhoto();
+            } else {
+                Toast.makeText(this, "Could not load photo", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showPhoto() {
+        ThumbnailLoader.clear(ivPhoto, photoTask);
+        photoTask = null;
+        boolean has = photoPath != null;
+        ivPhoto.setVisibility(has ? View.VISIBLE : View.GONE);
+        btnRemovePhoto.setVisibility(has ? View.VISIBLE : View.INVISIBLE);
+        btnPickPhoto.setText(has ? "Change photo" : "Add photo");
+        if (has) {
+            photoTask = ThumbnailLoader.getInstance(this)
+                    .load(photoPath, ivPhoto.getLayoutParams().width, ivPhoto);
+        }
+    }
+
+    private void showTime() {
+        etObsTime.setText(HikeDates.formatTime(obsCalendar.getTimeInMillis()));
     }
 
     private void loadExistingObservation() {
         if (obsId == -1) return;
-        Observation o = dbHelper.getObservation(obsId);
-        if (o == null) return;
+        btnSaveObs.setEnabled(false);
+        repository.getObservation(obsId, o -> {
+            btnSaveObs.setEnabled(true);
+            if (o != null) fillForm(o);
+        });
+    }
 
+    private void fillForm(Observation o) {
         hikeId = o.getHikeId();
         etObsTitle.setText(o.getTitle());
-        etObsTime.setText(o.getTime());
         etObsComment.setText(o.getComment());
-
-        // cố gắng parse time hiện có vào Calendar để DatePicker/TimePicker mở đúng
-        try {
-            Date parsed = sdf.parse(o.getTime());
-            if (parsed != null) {
-                obsCalendar.setTime(parsed);
-            }
-        } catch (ParseException ignored) {
+        if (!photoRestored) {
+            photoPath = o.getPhotoPath();
+            showPhoto();
         }
+
+        // DatePicker/TimePicker mở đúng thời điểm đã lưu
+        obsCalendar.setTimeInMillis(o.getTimeMillis());
+        showTime();
     }
 
     private void showDateTimePicker() {
@@ -116,7 +195,7 @@ public class AddEditObservationActivity extends AppCompatActivity {
             new TimePickerDialog(this, (timeView, hourOfDay, minute) -> {
                 obsCalendar.set(Calendar.HOUR_OF_DAY, hourOfDay);
                 obsCalendar.set(Calendar.MINUTE, minute);
-                etObsTime.setText(sdf.format(obsCalendar.getTime()));
+                showTime();
             }, h, min, true).show();
 
         }, y, m, d).show();
@@ -124,37 +203,39 @@ public class AddEditObservationActivity extends AppCompatActivity {
 
     private void saveObservation() {
         String title = etObsTitle.getText().toString().trim();
-        String time = etObsTime.getText().toString().trim();
+        long time = obsCalendar.getTimeInMillis();
         String comment = etObsComment.getText().toString().trim();
 
         if (TextUtils.isEmpty(title)) {
             Toast.makeText(this, "Observation title is required", Toast.LENGTH_SHORT).show();
             return;
         }
-        if (TextUtils.isEmpty(time)) {
-            time = getNowString();
-        }
 
+        btnSaveObs.setEnabled(false);
         if (!isEditMode) {
-            Observation obs = new Observation(hikeId, title, time, comment);
-            long id = dbHelper.insertObservation(obs);
-            if (id > 0) {
-                Toast.makeText(this, "Observation added", Toast.LENGTH_SHORT).show();
-                setResult(RESULT_OK);
-                finish();
-            } else {
-                Toast.makeText(this, "Error saving observation", Toast.LENGTH_SHORT).show();
-            }
+            Observation obs = new Observation(-1, hikeId, title, time, comment, photoPath);
+            repository.insertObservation(obs, id -> {
+                btnSaveObs.setEnabled(true);
+                if (id != null && id > 0) {
+                    Toast.makeText(this, "Observation added", Toast.LENGTH_SHORT).show();
+                    setResult(RESULT_OK);
+                    finish();
+                } else {
+                    Toast.makeText(this, "Error saving observation", Toast.LENGTH_SHORT).show();
+                }
+            });
         } else {
-            Observation obs = new Observation(obsId, hikeId, title, time, comment);
-            int rows = dbHelper.updateObservation(obs);
-            if (rows > 0) {
-                Toast.makeText(this, "Observation updated", Toast.LENGTH_SHORT).show();
-                setResult(RESULT_OK);
-                finish();
-            } else {
-                Toast.makeText(this, "Error updating observation", Toast.LENGTH_SHORT).show();
-            }
+            Observation obs = new Observation(obsId, hikeId, title, time, comment, photoPath);
+            repository.updateObservation(obs, rows -> {
+                btnSaveObs.setEnabled(true);
+                if (rows != null && rows > 0) {
+                    Toast.makeText(this, "Observation updated", Toast.LENGTH_SHORT).show();
+                    setResult(RESULT_OK);
+                    finish();
+                } else {
+                    Toast.makeText(this, "Error updating observation", Toast.LENGTH_SHORT).show();
+                }
+            });
         }
     }
 }
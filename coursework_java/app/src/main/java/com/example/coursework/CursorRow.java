@@ -0,0 +1,20 @@
+package com.example.coursework;
+
+import android.database.Cursor;
+
+// Cursor nhìn như HikeRow để dùng các row mapper của hike-core. Không giữ dữ liệu, chỉ chuyển lời gọi.
+final class CursorRow implements HikeRow {
+
+    private final Cursor cursor;
+
+    CursorRow(Cursor cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override public int getColumnIndex(String column) { return cursor.getColumnIndex(column); }
+    @Override public boolean isNull(int column) { return cursor.isNull(column); }
+    @Override public long getLong(int column) { return cursor.getLong(column); }
+    @Override public int getInt(int column) { return cursor.getInt(column); }
+    @Override public double getDouble(int column) { return cursor.getDouble(column); }
+    @Override public String getString(int column) { return cursor.getString(column); }
+}
@@ -0,0 +1,50 @@
+package com.example.coursework;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+// Màn hình debug: latency theo thao tác DB và các lần chạy chậm gần nhất (HikeDbHelper.getMetrics()).
+// Mở bằng cách nhấn giữ tiêu đề "My Hikes" ở màn hình chính.
+public class DbMetricsActivity extends AppCompatActivity {
+
+    private HikeRepository repository;
+    private QueryMetrics<HikeDbHelper.DbOp> metrics;
+    private TextView tvMetrics;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_db_metrics);
+
+        repository = new HikeRepository(this, this);
+        metrics = repository.getDbHelper().getMetrics();
+        tvMetrics = findViewById(R.id.tvMetrics);
+        Button btnRefresh = findViewById(R.id.btnMetricsRefresh);
+        Button btnSave = findViewById(R.id.btnMetricsSave);
+        Button btnReset = findViewById(R.id.btnMetricsReset);
+
+        btnRefresh.setOnClickListener(v -> show());
+        btnReset.setOnClickListener(v -> {
+            metrics.reset();
+            show();
+        });
+        btnSave.setOnClickListener(v -> {
+            btnSave.setEnabled(false);
+            repository.saveDbMetrics(file -> {
+                btnSave.setEnabled(true);
+                Toast.makeText(this, file != null ? "Saved to " + file.getPath()
+                        : "Could not save metrics", Toast.LENGTH_LONG).show();
+            });
+        });
+        show();
+    }
+
+    // snapshot chỉ chép vài mảng nhỏ, làm luôn trên main thread
+    private void show() {
+        tvMetrics.setText(DbMetricsReport.format(metrics.snapshot()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.coursework;
+
+import android.content.Context;
+
+import org.json.JSONException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+// Xuất QueryMetrics của HikeDbHelper: bảng text cho DbMetricsActivity và file JSON để đính kèm
+// báo lỗi. File nằm trong thư mục riêng của app trên bộ nhớ ngoài (không cần quyền), lấy qua
+// adb hoặc app quản lý file.
+final class DbMetricsReport {
+
+    static final String DIR = "db-metrics";
+
+    private DbMetricsReport() {}
+
+    static String format(QueryMetrics.Snapshot s) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%-26s %7s %7s %7s %7s %7s %8s%n",
+                "op (us)", "count", "mean", "p50", "p95", "p99", "max"));
+        for (QueryMetrics.OpStats o : s.ops) {
+            sb.append(String.format(Locale.US, "%-26s %7d %7d %7d %7d %7d %8d%n",
+                    o.op, o.count, Math.round(o.meanMicros()), o.percentileMicros(0.50),
+                    o.percentileMicros(0.95), o.percentileMicros(0.99), o.maxNs / 1000));
+        }
+        if (s.ops.isEmpty()) sb.append("(no database calls yet)\n");
+
+        sb.append(String.format(Locale.US, "%nSlow (>= %d ms): %d total, latest %d%n",
+                s.slowThresholdNs / 1_000_000, s.slowCount, s.slowSamples.size()));
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss", Locale.US);
+        for (QueryMetrics.SlowSample x : s.slowSamples) {
+            sb.append(String.format(Locale.US, "%s %s %.1f ms, %d rows%n  %s%n",
+                    time.format(new Date(x.wallTimeMillis)), x.op, x.durationNs / 1e6, x.rows,
+                    x.sql));
+        }
+        return sb.toString();
+    }
+
+    // Ghi snapshot ra file JSON mới (tên theo thời điểm), trả về file đã ghi
+    static File write(Context ctx, QueryMetrics.Snapshot s) throws IOException, JSONException {
+        File base = ctx.getExternalFilesDir(null);
+        if (base == null) base = ctx.getFilesDir();   // không có bộ nhớ ngoài
+        File dir = new File(base, DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US)
+                .format(new Date(s.takenAtMillis));
+        File file = new File(dir, "db-metrics-" + stamp + ".json");
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            w.write(s.toJson().toString(2));
+        }
+        return file;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.coursework;
 
 import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,29 +10,157 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HikeAdapter extends RecyclerView.Adapter<HikeAdapter.HikeViewHolder> {
 
     public interface Listener {
-        void onEdit(Hike hike);
-        void onDelete(Hike hike);
-        void onObservations(Hike hike);
+        void onEdit(HikeSummary hike);
+        void onDelete(HikeSummary hike);
+        void onObservations(HikeSummary hike);
     }
 
-    private List<Hike> hikes;
+    // diff chạy nền, chỉ 1 thread nên các lần diff nối tiếp nhau
+    private static final ExecutorService DIFF_EXECUTOR =
+            Executors.newSingleThreadExecutor(HikeRepository.namedThreads("hike-list-diff"));
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    // Dữ liệu lấy theo page từ HikePager, adapter không giữ cả danh sách
+    private HikePager pager;
     private Listener listener;
+    // tăng mỗi lần setPager, kết quả diff của pager cũ hơn bị bỏ
+    private int generation;
 
-    public HikeAdapter(List<Hike> hikes, Listener listener) {
-        this.hikes = hikes;
+    public HikeAdapter(HikePager pager, Listener listener) {
         this.listener = listener;
+        attach(pager);
+    }
+
+    // Thay pager (filter mới, sau khi thêm/sửa/xoá) mà giữ vị trí cuộn và animation, dòng không đổi
+    // không bind lại. Pager không biết các dòng chưa load nên chỉ diff trong cửa sổ đã load quanh
+    // dòng đang hiển thị: các page liền nhau từ anchorPage() của pager mới (preloadAround), so với
+    // các page cùng vị trí của pager cũ. Diff chạy trên background thread, chi phí theo cỡ cửa sổ
+    // (vài trăm dòng) chứ không theo cả danh sách.
+    // Ngoài cửa sổ không có gì để so: dòng ở đó coi như đổi tại chỗ (chỉ dòng đang bind mới bị bind
+    // lại, mà dòng đang hiển thị đều nằm trong cửa sổ), phần chênh số dòng thêm / bớt ở cuối.
+    public void setPager(HikePager newPager) {
+        int gen = ++generation;
+        HikePager oldPager = this.pager;
+        if (oldPager == null || newPager == null) {
+            attach(newPager);
+            notifyDataSetChanged();
+            return;
+        }
+        int firstPage = newPager.anchorPage();
+        List<HikeSummary> oldRun = oldPager.loadedRun(firstPage);
+        List<HikeSummary> newRun = newPager.loadedRun(firstPage);
+        if (oldRun.isEmpty() || newRun.isEmpty()) {
+            attach(newPager);
+            notifyDataSetChanged();
+            return;
+        }
+        int start = firstPage * HikePager.PAGE_SIZE;
+        int oldTail = oldPager.size() - start - oldRun.size();
+        int newTail = newPager.size() - start - newRun.size();
+
+        DIFF_EXECUTOR.execute(() -> {
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new WindowDiff(oldRun, newRun), false);
+            MAIN.post(() -> {
+                if (gen != generation) return;
+                attach(newPager);
+                // từ cuối lên đầu để vị trí phía trước chưa bị dịch
+                int tailStart = start + oldRun.size();
+                int common = Math.min(oldTail, newTail);
+                if (oldTail > newTail) {
+                    notifyItemRangeRemoved(tailStart + common, oldTail - common);
+                } else if (newTail > oldTail) {
+                    notifyItemRangeInserted(tailStart + common, newTail - common);
+                }
+                if (common > 0) notifyItemRangeChanged(tailStart, common);
+                diff.dispatchUpdatesTo(new OffsetUpdateCallback(this, start));
+                if (start > 0) notifyItemRangeChanged(0, start);
+            });
+        });
     }
 
-    public void setHikes(List<Hike> newList) {
-        this.hikes = newList;
-        notifyDataSetChanged();
+    private void attach(HikePager pager) {
+        this.pager = pager;
+        if (pager != null) {
+            pager.setListener((start, count) -> {
+                // bỏ qua page của pager cũ trả về muộn
+                if (this.pager == pager) notifyItemRangeChanged(start, count);
+            });
+        }
+    }
+
+    // Dòng null (page ngắn hơn do DB vừa đổi) không khớp với gì
+    private static class WindowDiff extends DiffUtil.Callback {
+        private final List<HikeSummary> oldRows;
+        private final List<HikeSummary> newRows;
+
+        WindowDiff(List<HikeSummary> oldRows, List<HikeSummary> newRows) {
+            this.oldRows = oldRows;
+            this.newRows = newRows;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldRows.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newRows.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPos, int newPos) {
+            HikeSummary before = oldRows.get(oldPos);
+            HikeSummary after = newRows.get(newPos);
+            return before != null && after != null && before.getId() == after.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPos, int newPos) {
+            return oldRows.get(oldPos).equals(newRows.get(newPos));
+        }
+    }
+
+    // Vị trí trong cửa sổ -> vị trí trong adapter
+    private static class OffsetUpdateCallback implements ListUpdateCallback {
+        private final RecyclerView.Adapter<?> adapter;
+        private final int offset;
+
+        OffsetUpdateCallback(RecyclerView.Adapter<?> adapter, int offset) {
+            this.adapter = adapter;
+            this.offset = offset;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            adapter.notifyItemRangeInserted(offset + position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            adapter.notifyItemRangeRemoved(offset + position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            adapter.notifyItemMoved(offset + fromPosition, offset + toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            adapter.notifyItemRangeChanged(offset + position, count, payload);
+        }
     }
 
     @NonNull
@@ -44,14 +174,20 @@ public class HikeAdapter extends RecyclerView.Adapter<HikeAdapter.HikeViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull HikeViewHolder holder, int position) {
-        Hike h = hikes.get(position);
+        HikeSummary h = pager.get(position);
+        if (h == null) {
+            // page đang load (hoặc dòng vừa bị xoá) -> placeholder trống
+            holder.clear();
+            return;
+        }
         holder.tvName.setText(h.getName());
         holder.tvLocation.setText(h.getLocation());
-        holder.tvDate.setText(h.getDate());
+        holder.tvDate.setText(HikeDates.formatDate(h.getDateEpochDay()));
         holder.tvDifficulty.setText(h.getDifficulty());
         holder.tvDistance.setText(String.format("%.1f km", h.getDistanceKm()));
         holder.tvDuration.setText(String.format("%.1f h", h.getDurationHours()));
         holder.tvElevation.setText(h.getElevationM() + " m");
+        holder.tvObservations.setText(observationsText(h));
 
         holder.btnEdit.setOnClickListener(v -> {
             if (listener != null) listener.onEdit(h);
@@ -71,14 +207,21 @@ public class HikeAdapter extends RecyclerView.Adapter<HikeAdapter.HikeViewHolder
         });
     }
 
+    private static String observationsText(HikeSummary h) {
+        int n = h.getObservationCount();
+        if (n == 0 || h.getLastObservationTime() == null) return "No observations";
+        return (n == 1 ? "1 observation" : n + " observations") + ", last " +
+                HikeDates.formatTime(h.getLastObservationTime());
+    }
+
     @Override
     public int getItemCount() {
-        return hikes == null ? 0 : hikes.size();
+        return pager == null ? 0 : pager.size();
     }
 
     static class HikeViewHolder extends RecyclerView.ViewHolder {
         TextView tvName, tvLocation, tvDate, tvDifficulty,
-                tvDistance, tvDuration, tvElevation;
+                tvDistance, tvDuration, tvElevation, tvObservations;
         Button btnEdit, btnDelete, btnObs;
 
         HikeViewHolder(@NonNull View itemView) {
@@ -90,9 +233,25 @@ public class HikeAdapter extends RecyclerView.Adapter<HikeAdapter.HikeViewHolder
             tvDistance = itemView.findViewById(R.id.tvDistance);
             tvDuration = itemView.findViewById(R.id.tvDuration);
             tvElevation = itemView.findViewById(R.id.tvElevation);
+            tvObservations = itemView.findViewById(R.id.tvObservations);
             btnEdit = itemView.findViewById(R.id.btnEdit);
             btnDelete = itemView.findViewById(R.id.btnDelete);
             btnObs = itemView.findViewById(R.id.btnObs);
         }
+
+        void clear() {
+            tvName.setText("");
+            tvLocation.setText("");
+            tvDate.setText("");
+            tvDifficulty.setText("");
+            tvDistance.setText("");
+            tvDuration.setText("");
+            tvElevation.setText("");
+            tvObservations.setText("");
+            btnEdit.setOnClickListener(null);
+            btnDelete.setOnClickListener(null);
+            btnObs.setOnClickListener(null);
+            itemView.setOnClickListener(null);
+        }
     }
 }
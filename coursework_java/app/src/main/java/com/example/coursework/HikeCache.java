@@ -0,0 +1,103 @@
+package com.example.coursework;
+
+import android.util.LruCache;
+
+import java.util.Map;
+
+// Cache LRU theo _id cho Hike và Observation, thuộc HikeDbHelper nên dùng chung cho mọi activity.
+// - Đọc: getHike/getObservation của helper xem cache trước; getHikesByIds và list observation
+//   cũng được đưa vào. Page của danh sách chỉ là HikeSummary nên không vào cache.
+// - Ghi: helper ghi xuyên (insert/update) hoặc bỏ (delete) ngay sau khi ghi DB thành công.
+// Hike/Observation không đổi sau khi tạo (trừ setId) nên giữ thẳng object, không copy.
+public class HikeCache implements HikeDbHelper.HikeChangeListener {
+
+    static final int MAX_HIKES = 256;
+    static final int MAX_OBSERVATIONS = 256;
+
+    private final LruCache<Long, Hike> hikes;
+    private final LruCache<Long, Observation> observations;
+
+    // Tăng mỗi lần ghi. Dòng đọc từ DB chỉ được đưa vào cache nếu không có lần ghi nào xen giữa
+    // lúc bắt đầu đọc và lúc put, để không đè bản mới bằng bản cũ.
+    private long writeCount;
+
+    HikeCache() {
+        this(MAX_HIKES, MAX_OBSERVATIONS);
+    }
+
+    HikeCache(int maxHikes, int maxObservations) {
+        hikes = new LruCache<>(maxHikes);
+        observations = new LruCache<>(maxObservations);
+    }
+
+    // Lấy trước khi đọc DB, truyền lại cho put*(..., stamp)
+    synchronized long stamp() {
+        return writeCount;
+    }
+
+    // null = miss (được đếm vào missCount)
+    Hike getHike(long id) {
+        return hikes.get(id);
+    }
+
+    Observation getObservation(long id) {
+        return observations.get(id);
+    }
+
+    synchronized void putHike(Hike hike, long stamp) {
+        if (stamp == writeCount) hikes.put(hike.getId(), hike);
+    }
+
+    synchronized void putObservation(Observation obs, long stamp) {
+        if (stamp == writeCount) observations.put(obs.getId(), obs);
+    }
+
+    // ===== Ghi hike: qua HikeChangeListener =====
+
+    @Override
+    public synchronized void onHikeSaved(Hike hike) {
+        writeCount++;
+        hikes.put(hike.getId(), hike);
+    }
+
+    @Override
+    public synchronized void onHikeDeleted(long id) {
+        writeCount++;
+        hikes.remove(id);
+        // observations của hike bị xoá theo (ON DELETE CASCADE)
+        for (Map.Entry<Long, Observation> e : observations.snapshot().entrySet()) {
+            if (e.getValue().getHikeId() == id) observations.remove(e.getKey());
+        }
+    }
+
+    @Override
+    public synchronized void onAllHikesDeleted() {
+        writeCount++;
+        hikes.evictAll();
+        observations.evictAll();
+    }
+
+    // ===== Ghi observation: helper gọi trực tiếp =====
+
+    synchronized void onObservationSaved(Observation obs) {
+        writeCount++;
+        observations.put(obs.getId(), obs);
+    }
+
+    synchronized void onObservationDeleted(long id) {
+        writeCount++;
+        observations.remove(id);
+    }
+
+    // ===== Thống kê để chọn kích thước cache =====
+
+    public int hikeHitCount() { return hikes.hitCount(); }
+    public int hikeMissCount() { return hikes.missCount(); }
+    public int observationHitCount() { return observations.hitCount(); }
+    public int observationMissCount() { return observations.missCount(); }
+
+    @Override
+    public String toString() {
+        return "hikes " + hikes + ", observations " + observations;
+    }
+}
@@ -1,280 +1,1101 @@
 package com.example.coursework;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 public class HikeDbHelper extends SQLiteOpenHelper {
 
     private static final String DB_NAME = "mhike.db";
-    private static final int DB_VERSION = 3; // tăng version vì đổi schema
+    // Lịch sử schema: xem các bước trong HikeMigrations
+    private static final int DB_VERSION = HikeMigrations.LATEST_VERSION;
 
+    // Tên bảng/cột định nghĩa trong HikeColumns (module hike-core), giữ alias ở đây cho code cũ
     // ----- Hikes -----
-    public static final String TABLE_HIKES = "hikes";
-
-    public static final String COL_ID = "_id";
-    public static final String COL_NAME = "name";
-    public static final String COL_LOCATION = "location";
-    public static final String COL_DATE = "date";
-    public static final String COL_DIFFICULTY = "difficulty";
-    public static final String COL_DISTANCE = "distance_km";
-    public static final String COL_DURATION = "duration_h";
-    public static final String COL_ELEVATION = "elevation_m";
-    public static final String COL_PARKING = "parking"; // 0/1
-    public static final String COL_GROUP_SIZE = "group_size";
-    public static final String COL_TERRAIN = "terrain";
-    public static final String COL_DESC = "description";
+    public static final String TABLE_HIKES = HikeColumns.TABLE_HIKES;
+
+    public static final String COL_ID = HikeColumns.COL_ID;
+    public static final String COL_NAME = HikeColumns.COL_NAME;
+    public static final String COL_LOCATION = HikeColumns.COL_LOCATION;
+    public static final String COL_DATE = HikeColumns.COL_DATE;
+    public static final String COL_DIFFICULTY = HikeColumns.COL_DIFFICULTY;
+    public static final String COL_DISTANCE = HikeColumns.COL_DISTANCE;
+    public static final String COL_DURATION = HikeColumns.COL_DURATION;
+    public static final String COL_ELEVATION = HikeColumns.COL_ELEVATION;
+    public static final String COL_PARKING = HikeColumns.COL_PARKING;
+    public static final String COL_GROUP_SIZE = HikeColumns.COL_GROUP_SIZE;
+    public static final String COL_TERRAIN = HikeColumns.COL_TERRAIN;
+    public static final String COL_DESC = HikeColumns.COL_DESC;
+    public static final String COL_NAME_NORM = HikeColumns.COL_NAME_NORM;
+    public static final String COL_LOCATION_NORM = HikeColumns.COL_LOCATION_NORM;
+    public static final String COL_LATITUDE = HikeColumns.COL_LATITUDE;
+    public static final String COL_LONGITUDE = HikeColumns.COL_LONGITUDE;
 
     // ----- Observations -----
-    public static final String TABLE_OBS = "observations";
-    public static final String COL_OBS_ID = "_id";
-    public static final String COL_OBS_HIKE_ID = "hike_id";
-    public static final String COL_OBS_TITLE = "title";
-    public static final String COL_OBS_TIME = "time";
-    public static final String COL_OBS_COMMENT = "comment";
+    public static final String TABLE_OBS = HikeColumns.TABLE_OBS;
+    public static final String COL_OBS_ID = HikeColumns.COL_OBS_ID;
+    public static final String COL_OBS_HIKE_ID = HikeColumns.COL_OBS_HIKE_ID;
+    public static final String COL_OBS_TITLE = HikeColumns.COL_OBS_TITLE;
+    public static final String COL_OBS_TIME = HikeColumns.COL_OBS_TIME;
+    public static final String COL_OBS_COMMENT = HikeColumns.COL_OBS_COMMENT;
+    public static final String COL_OBS_PHOTO = HikeColumns.COL_OBS_PHOTO;
+
+    // ----- SQL dùng lại nhiều lần (compile 1 lần cho mỗi connection) -----
+    private static final String SQL_INSERT_HIKE =
+            "INSERT INTO " + TABLE_HIKES + " (" +
+                    COL_NAME + ", " + COL_LOCATION + ", " + COL_DATE + ", " +
+                    COL_DIFFICULTY + ", " + COL_DISTANCE + ", " + COL_DURATION + ", " +
+                    COL_ELEVATION + ", " + COL_PARKING + ", " + COL_GROUP_SIZE + ", " +
+                    COL_TERRAIN + ", " + COL_DESC + ", " +
+                    COL_NAME_NORM + ", " + COL_LOCATION_NORM + ", " +
+                    COL_LATITUDE + ", " + COL_LONGITUDE +
+                    ") VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+    private static final String SQL_UPDATE_HIKE =
+            "UPDATE " + TABLE_HIKES + " SET " +
+                    COL_NAME + "=?, " + COL_LOCATION + "=?, " + COL_DATE + "=?, " +
+                    COL_DIFFICULTY + "=?, " + COL_DISTANCE + "=?, " + COL_DURATION + "=?, " +
+                    COL_ELEVATION + "=?, " + COL_PARKING + "=?, " + COL_GROUP_SIZE + "=?, " +
+                    COL_TERRAIN + "=?, " + COL_DESC + "=?, " +
+                    COL_NAME_NORM + "=?, " + COL_LOCATION_NORM + "=?, " +
+                    COL_LATITUDE + "=?, " + COL_LONGITUDE + "=? " +
+                    "WHERE " + COL_ID + "=?";
+    private static final String SQL_DELETE_HIKE =
+            "DELETE FROM " + TABLE_HIKES + " WHERE " + COL_ID + "=?";
+    private static final String SQL_DELETE_ALL_HIKES = "DELETE FROM " + TABLE_HIKES;
+    private static final String SQL_SELECT_HIKE =
+            "SELECT " + String.join(", ", HikeRowMapper.PROJECTION) + " FROM " + TABLE_HIKES +
+                    " WHERE " + COL_ID + "=?";
+
+    private static final String SQL_INSERT_OBS =
+            "INSERT INTO " + TABLE_OBS + " (" +
+                    COL_OBS_HIKE_ID + ", " + COL_OBS_TITLE + ", " +
+                    COL_OBS_TIME + ", " + COL_OBS_COMMENT + ", " + COL_OBS_PHOTO +
+                    ") VALUES (?,?,?,?,?)";
+    private static final String SQL_UPDATE_OBS =
+            "UPDATE " + TABLE_OBS + " SET " +
+                    COL_OBS_TITLE + "=?, " + COL_OBS_TIME + "=?, " + COL_OBS_COMMENT + "=?, " +
+                    COL_OBS_PHOTO + "=? " +
+                    "WHERE " + COL_OBS_ID + "=?";
+    private static final String SQL_DELETE_OBS =
+            "DELETE FROM " + TABLE_OBS + " WHERE " + COL_OBS_ID + "=?";
+    private static final String SQL_INSERT_TRACK_CHUNK =
+            "INSERT INTO " + HikeTracks.TABLE_TRACKS + " (" +
+                    HikeTracks.COL_HIKE_ID + ", " + HikeTracks.COL_SEQ + ", " +
+                    HikeTracks.COL_POINT_COUNT + ", " + HikeTracks.COL_FIRST_TIME + ", " +
+                    HikeTracks.COL_LAST_TIME + ", " + HikeTracks.COL_DISTANCE + ", " +
+                    HikeTracks.COL_GAIN + ", " + HikeTracks.COL_DATA + ", " +
+                    HikeTracks.COL_GAIN_REFERENCE + ") VALUES (?,?,?,?,?,?,?,?,?)";
+    // Lượt chấm điểm đầu tiên của searchHikes, cũng là SQL đi kèm mẫu chậm của cả lần tìm
+    private static final String SQL_SEARCH_SCORE =
+            "SELECT docid, matchinfo(" + HikeFts.TABLE_HIKES_FTS + ", 'pcx') FROM " +
+                    HikeFts.TABLE_HIKES_FTS + " WHERE " + HikeFts.TABLE_HIKES_FTS + " MATCH ?";
+    private static final String SQL_SELECT_STATS =
+            "SELECT " + HikeStats.COL_BUCKET + ", " + HikeStats.COL_COUNT + ", " +
+                    HikeStats.COL_DISTANCE + ", " + HikeStats.COL_DURATION + ", " +
+                    HikeStats.COL_ELEVATION + " FROM " + HikeStats.TABLE_STATS +
+                    " WHERE " + HikeStats.COL_DIMENSION + " = ? ORDER BY " + HikeStats.COL_BUCKET;
+    private static final String SQL_SELECT_COLUMNS =
+            "SELECT " + COL_ID + ", " + COL_DATE + ", " + COL_DIFFICULTY + ", " + COL_TERRAIN + ", " +
+                    COL_DISTANCE + ", " + COL_DURATION + ", " + COL_ELEVATION +
+                    " FROM " + TABLE_HIKES + " ORDER BY " + COL_ID;
+    private static final String SQL_SELECT_IN_BOX =
+            "SELECT h." + COL_ID + ", h." + COL_LATITUDE + ", h." + COL_LONGITUDE + " FROM " +
+                    HikeGeo.TABLE_GEO + " g JOIN " + TABLE_HIKES + " h ON h." + COL_ID + " = g." +
+                    HikeGeo.COL_ID + " WHERE ";
+    private static final String SQL_SELECT_LAST_TRACK_CHUNK =
+            "SELECT " + HikeTracks.COL_SEQ + ", " + HikeTracks.COL_DATA + ", " +
+                    HikeTracks.COL_GAIN_REFERENCE + " FROM " +
+                    HikeTracks.TABLE_TRACKS + " WHERE " + HikeTracks.COL_HIKE_ID +
+                    " = ? ORDER BY " + HikeTracks.COL_SEQ + " DESC LIMIT 1";
+    private static final String SQL_SELECT_TRACK_BATCH =
+            "SELECT " + HikeTracks.COL_SEQ + ", " + HikeTracks.COL_DATA + " FROM " +
+                    HikeTracks.TABLE_TRACKS + " WHERE " + HikeTracks.COL_HIKE_ID + " = ? AND " +
+                    HikeTracks.COL_SEQ + " >= ? ORDER BY " + HikeTracks.COL_SEQ +
+                    " LIMIT " + HikeTracks.READ_BATCH;
+    private static final String SQL_APPLY_TRACK_TOTALS =
+            "UPDATE " + TABLE_HIKES + " SET " +
+                    COL_DISTANCE + " = (SELECT ROUND(TOTAL(" + HikeTracks.COL_DISTANCE + "), 2) FROM " +
+                    HikeTracks.TABLE_TRACKS + " WHERE " + HikeTracks.COL_HIKE_ID + " = ?), " +
+                    COL_ELEVATION + " = (SELECT CAST(ROUND(TOTAL(" + HikeTracks.COL_GAIN +
+                    ")) AS INTEGER) FROM " + HikeTracks.TABLE_TRACKS + " WHERE " +
+                    HikeTracks.COL_HIKE_ID + " = ?) WHERE " + COL_ID + " = ? AND EXISTS (SELECT 1 FROM " +
+                    HikeTracks.TABLE_TRACKS + " WHERE " + HikeTracks.COL_HIKE_ID + " = ?)";
+    private static final String SQL_SELECT_PHOTO_PATHS =
+            "SELECT DISTINCT " + COL_OBS_PHOTO + " FROM " + TABLE_OBS +
+                    " WHERE " + COL_OBS_PHOTO + " IS NOT NULL";
+    private static final String SQL_SELECT_OBS =
+            "SELECT * FROM " + TABLE_OBS + " WHERE " + COL_OBS_ID + "=?";
+    private static final String SQL_SELECT_OBS_FOR_HIKE =
+            "SELECT * FROM " + TABLE_OBS + " WHERE " + COL_OBS_HIKE_ID + "=?" +
+                    " ORDER BY " + COL_OBS_TIME + " ASC";
+
+    // Bulk insert: số dòng mỗi transaction trước khi commit
+    public static final int BULK_COMMIT_EVERY = 500;
+    // Số id mỗi query khi load kết quả tìm theo vị trí (giữ câu IN (...) ngắn)
+    private static final int GEO_LOAD_CHUNK = 500;
+    // điểm observation khớp tính ít hơn điểm khớp trực tiếp trên hike
+    private static final double OBS_SCORE_FACTOR = 0.5;
+
+    private static HikeDbHelper instance;
+
+    // Statement đã compile, tạo lazy và dùng lại cho tới khi close()
+    private SQLiteStatement insertHikeStmt;
+    private SQLiteStatement updateHikeStmt;
+    private SQLiteStatement deleteHikeStmt;
+    private SQLiteStatement insertObsStmt;
+    private SQLiteStatement updateObsStmt;
+    private SQLiteStatement deleteObsStmt;
+    private SQLiteStatement insertTrackChunkStmt;
+    // hikes_geo là R*Tree hay bảng fallback (HikeGeo.isRtree), đọc lần đầu tìm theo vị trí
+    private Boolean geoRtree;
+
+    // Nghe thay đổi bảng hikes (index tìm kiếm, cache, ...). Được gọi trên thread vừa ghi, ngay sau khi
+    // ghi thành công (bulk insert: sau khi commit), nên phải xử lý nhanh. Lúc gọi helper vẫn đang
+    // giữ lock của nó: listener có lock riêng thì không được gọi vào helper khi đang giữ lock đó.
+    public interface HikeChangeListener {
+        void onHikeSaved(Hike hike);    // insert hoặc update, hike đã có id
+        void onHikeDeleted(long id);
+        void onAllHikesDeleted();
+    }
+
+    private final List<HikeChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final HikeCache cache = new HikeCache();
+    // volatile: handler lúc crash đọc không lấy lock (lock có thể đang bị thread khác giữ lâu)
+    private volatile ObservationWriteQueue writeQueue;
+
+    // Thao tác được đo trong metrics, mỗi hằng 1 histogram. Đọc trúng HikeCache không chạm DB nên
+    // không tính; bulk insert tính theo từng transaction. SQL kèm mẫu chậm là hằng SQL_* của thao
+    // tác, riêng QUERY_HIKES / QUERY_HIKE_IDS / COUNT_HIKES chỉ giữ phần WHERE (phần còn lại cố định).
+    public enum DbOp {
+        INSERT_HIKE, INSERT_HIKES_CHUNK, UPDATE_HIKE, DELETE_HIKE, DELETE_ALL_HIKES,
+        QUERY_HIKES, QUERY_HIKE_IDS, GET_HIKES_BY_IDS, GET_HIKE_SUMMARIES, COUNT_HIKES, GET_HIKE,
+        SEARCH_HIKES, GET_HIKE_STATS, GET_COLUMN_SNAPSHOT, FIND_HIKES_IN_BOX,
+        OPEN_TRACK_WRITER, INSERT_TRACK_CHUNK, APPLY_TRACK_TOTALS, READ_TRACK_BATCH,
+        INSERT_OBSERVATION, INSERT_OBSERVATIONS_CHUNK, UPDATE_OBSERVATION, WRITE_OBSERVATIONS,
+        DELETE_OBSERVATION, GET_OBSERVATIONS_FOR_HIKE, GET_OBSERVATION, GET_OBSERVATION_PHOTOS
+    }
+
+    // Chậm hơn 1 frame (60 Hz) thì giữ lại mẫu kèm SQL
+    static final long SLOW_QUERY_NS = 16_000_000L;
+    static final int SLOW_SAMPLES = 32;
+    private final QueryMetrics<DbOp> metrics =
+            new QueryMetrics<>(DbOp.class, SLOW_QUERY_NS, SLOW_SAMPLES);
+
+    public void addHikeChangeListener(HikeChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeHikeChangeListener(HikeChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    // Dùng chung 1 helper (và 1 connection) cho cả app, không mở/đóng file DB mỗi lần bấm
+    public static synchronized HikeDbHelper getInstance(Context ctx) {
+        if (instance == null) {
+            instance = new HikeDbHelper(ctx.getApplicationContext(), DB_NAME);
+            HikeDbHelper helper = instance;
+            ObservationWriteQueue.flushOnUncaughtException(() -> helper.writeQueue);
+        }
+        return instance;
+    }
+
+    // name = null -> DB in-memory (dùng cho test/benchmark)
+    HikeDbHelper(Context ctx, String name) {
+        super(ctx, name, null, DB_VERSION);
+        // WAL: commit chỉ append vào file -wal (1 fsync), đọc trên connection khác không bị ghi chặn
+        setWriteAheadLoggingEnabled(true);
+        addHikeChangeListener(cache);
+    }
+
+    // Hàng đợi gộp insert/update observation thành 1 transaction (xem ObservationWriteQueue)
+    public synchronized ObservationWriteQueue getObservationWriteQueue() {
+        if (writeQueue == null) writeQueue = new ObservationWriteQueue(this);
+        return writeQueue;
+    }
+
+    public HikeCache getCache() {
+        return cache;
+    }
 
-    public HikeDbHelper(Context ctx) {
-        super(ctx, DB_NAME, null, DB_VERSION);
+    // Latency theo thao tác từ lúc mở app (xem DbMetricsActivity)
+    public QueryMetrics<DbOp> getMetrics() {
+        return metrics;
     }
 
-    // Bật foreign key
+    // Bật foreign key sau onCreate/onUpgrade (không bật trong onConfigure): migration dựng lại bảng
+    // bằng DROP TABLE hikes, nếu FK đang bật thì ON DELETE CASCADE sẽ xoá sạch observations
     @Override
-    public void onConfigure(SQLiteDatabase db) {
-        super.onConfigure(db);
-        db.setForeignKeyConstraintsEnabled(true);
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        if (!db.isReadOnly()) {
+            db.setForeignKeyConstraintsEnabled(true);
+        }
     }
 
     @Override
     public void onCreate(SQLiteDatabase db) {
-        String SQL_CREATE_HIKES =
-                "CREATE TABLE " + TABLE_HIKES + " (" +
-                        COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                        COL_NAME + " TEXT NOT NULL, " +
-                        COL_LOCATION + " TEXT NOT NULL, " +
-                        COL_DATE + " TEXT NOT NULL, " +
-                        COL_DIFFICULTY + " TEXT NOT NULL, " +
-                        COL_DISTANCE + " REAL NOT NULL, " +
-                        COL_DURATION + " REAL NOT NULL, " +
-                        COL_ELEVATION + " INTEGER NOT NULL, " +
-                        COL_PARKING + " INTEGER NOT NULL, " +
-                        COL_GROUP_SIZE + " INTEGER NOT NULL, " +
-                        COL_TERRAIN + " TEXT, " +
-                        COL_DESC + " TEXT" +
-                        ");";
-
-        String SQL_CREATE_OBS =
-                "CREATE TABLE " + TABLE_OBS + " (" +
-                        COL_OBS_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                        COL_OBS_HIKE_ID + " INTEGER NOT NULL, " +
-                        COL_OBS_TITLE + " TEXT NOT NULL, " +
-                        COL_OBS_TIME + " TEXT NOT NULL, " +
-                        COL_OBS_COMMENT + " TEXT, " +
-                        "FOREIGN KEY(" + COL_OBS_HIKE_ID + ") REFERENCES " +
-                        TABLE_HIKES + "(" + COL_ID + ") ON DELETE CASCADE" +
-                        ");";
-
-        db.execSQL(SQL_CREATE_HIKES);
-        db.execSQL(SQL_CREATE_OBS);
+        HikeMigrations.create(db);
     }
 
+    // Nâng cấp từng bước, giữ dữ liệu (xem HikeMigrations)
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // đơn giản cho coursework: drop tất cả rồi tạo lại
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_OBS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_HIKES);
-        onCreate(db);
+        HikeMigrations.upgrade(db, oldVersion, newVersion);
+    }
+
+    @Override
+    public void close() {
+        // ghi nốt hàng đợi trước khi đóng; không giữ lock helper lúc chờ vì lô ghi cũng cần lock đó
+        ObservationWriteQueue queue;
+        synchronized (this) {
+            queue = writeQueue;
+            writeQueue = null;
+        }
+        if (queue != null) queue.shutdown();
+        closeConnection();
+    }
+
+    private synchronized void closeConnection() {
+        releaseStatements();
+        geoRtree = null;
+        super.close();
+    }
+
+    private synchronized void releaseStatements() {
+        SQLiteStatement[] all = {insertHikeStmt, updateHikeStmt, deleteHikeStmt,
+                insertObsStmt, updateObsStmt, deleteObsStmt, insertTrackChunkStmt};
+        for (SQLiteStatement st : all) {
+            if (st != null) st.close();
+        }
+        insertHikeStmt = updateHikeStmt = deleteHikeStmt = null;
+        insertObsStmt = updateObsStmt = deleteObsStmt = null;
+        insertTrackChunkStmt = null;
+    }
+
+    // getWritableDatabase() trả về connection đang mở sẵn, chỉ mở file ở lần gọi đầu
+    private SQLiteDatabase db() {
+        return getWritableDatabase();
+    }
+
+    private static void bindHike(SQLiteStatement st, Hike hike) {
+        st.bindString(1, hike.getName());
+        st.bindString(2, hike.getLocation());
+        st.bindLong(3, hike.getDateEpochDay());
+        st.bindString(4, hike.getDifficulty());
+        st.bindDouble(5, hike.getDistanceKm());
+        st.bindDouble(6, hike.getDurationHours());
+        st.bindLong(7, hike.getElevationM());
+        st.bindLong(8, hike.hasParking() ? 1 : 0);
+        st.bindLong(9, hike.getGroupSize());
+        bindStringOrNull(st, 10, hike.getTerrain());
+        bindStringOrNull(st, 11, hike.getDescription());
+        st.bindString(12, HikeQuery.normalize(hike.getName()));
+        st.bindString(13, HikeQuery.normalize(hike.getLocation()));
+        if (hike.hasCoordinates()) {
+            st.bindDouble(14, hike.getLatitude());
+            st.bindDouble(15, hike.getLongitude());
+        } else {
+            st.bindNull(14);
+            st.bindNull(15);
+        }
+    }
+
+    // bindString() không nhận null nên phải tách ra
+    private static void bindStringOrNull(SQLiteStatement st, int index, String value) {
+        if (value == null) {
+            st.bindNull(index);
+        } else {
+            st.bindString(index, value);
+        }
     }
 
     // ===== Hike CRUD =====
 
-    public long insertHike(Hike hike) {
-        SQLiteDatabase db = getWritableDatabase();
-        ContentValues cv = new ContentValues();
-        cv.put(COL_NAME, hike.getName());
-        cv.put(COL_LOCATION, hike.getLocation());
-        cv.put(COL_DATE, hike.getDate());
-        cv.put(COL_DIFFICULTY, hike.getDifficulty());
-        cv.put(COL_DISTANCE, hike.getDistanceKm());
-        cv.put(COL_DURATION, hike.getDurationHours());
-        cv.put(COL_ELEVATION, hike.getElevationM());
-        cv.put(COL_PARKING, hike.hasParking() ? 1 : 0);
-        cv.put(COL_GROUP_SIZE, hike.getGroupSize());
-        cv.put(COL_TERRAIN, hike.getTerrain());
-        cv.put(COL_DESC, hike.getDescription());
-        long id = db.insert(TABLE_HIKES, null, cv);
-        db.close();
+    public synchronized long insertHike(Hike hike) {
+        long t0 = metrics.start();
+        long id = execInsertHike(hike);
+        metrics.record(DbOp.INSERT_HIKE, t0, id == -1 ? 0 : 1, SQL_INSERT_HIKE);
+        if (id != -1) {
+            hike.setId(id);
+            notifyHikeSaved(hike);
+        }
         return id;
     }
 
-    public int updateHike(Hike hike) {
-        SQLiteDatabase db = getWritableDatabase();
-        ContentValues cv = new ContentValues();
-        cv.put(COL_NAME, hike.getName());
-        cv.put(COL_LOCATION, hike.getLocation());
-        cv.put(COL_DATE, hike.getDate());
-        cv.put(COL_DIFFICULTY, hike.getDifficulty());
-        cv.put(COL_DISTANCE, hike.getDistanceKm());
-        cv.put(COL_DURATION, hike.getDurationHours());
-        cv.put(COL_ELEVATION, hike.getElevationM());
-        cv.put(COL_PARKING, hike.hasParking() ? 1 : 0);
-        cv.put(COL_GROUP_SIZE, hike.getGroupSize());
-        cv.put(COL_TERRAIN, hike.getTerrain());
-        cv.put(COL_DESC, hike.getDescription());
-        int rows = db.update(TABLE_HIKES, cv, COL_ID + "=?",
-                new String[]{String.valueOf(hike.getId())});
-        db.close();
+    // Gọi khi đang giữ lock của helper
+    private long execInsertHike(Hike hike) {
+        if (insertHikeStmt == null) insertHikeStmt = db().compileStatement(SQL_INSERT_HIKE);
+        SQLiteStatement st = insertHikeStmt;
+        st.clearBindings();
+        bindHike(st, hike);
+        return st.executeInsert();
+    }
+
+    // Import nhiều hike trong transaction, commit mỗi commitEvery dòng.
+    // Dòng lỗi được bỏ qua và ghi lại vào ImportResult, id của dòng thành công được set lại vào Hike.
+    public ImportResult insertHikes(List<Hike> hikes) {
+        return insertHikes(hikes, BULK_COMMIT_EVERY);
+    }
+
+    public ImportResult insertHikes(List<Hike> hikes, int commitEvery) {
+        ImportResult result = new ImportResult();
+        int size = hikes.size();
+        for (int from = 0; from < size; from += commitEvery) {
+            int to = Math.min(size, from + commitEvery);
+            insertHikeChunk(hikes, from, to, result);
+        }
+        return result;
+    }
+
+    private synchronized void insertHikeChunk(List<Hike> hikes, int from, int to, ImportResult result) {
+        long t0 = metrics.start();
+        SQLiteDatabase db = db();
+        List<Hike> saved = new ArrayList<>(to - from);
+        db.beginTransaction();
+        try {
+            for (int i = from; i < to; i++) {
+                Hike h = hikes.get(i);
+                try {
+                    long id = execInsertHike(h);
+                    if (id == -1) {
+                        result.addFailure(i, "insert returned -1");
+                    } else {
+                        h.setId(id);
+                        result.addImported();
+                        saved.add(h);
+                    }
+                } catch (SQLException | IllegalArgumentException e) {
+                    result.addFailure(i, e.getMessage());
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        metrics.record(DbOp.INSERT_HIKES_CHUNK, t0, saved.size(), SQL_INSERT_HIKE);
+        // chỉ báo sau khi commit
+        for (Hike h : saved) notifyHikeSaved(h);
+    }
+
+    public synchronized int updateHike(Hike hike) {
+        long t0 = metrics.start();
+        if (updateHikeStmt == null) updateHikeStmt = db().compileStatement(SQL_UPDATE_HIKE);
+        SQLiteStatement st = updateHikeStmt;
+        st.clearBindings();
+        bindHike(st, hike);
+        st.bindLong(16, hike.getId());
+        int rows = st.executeUpdateDelete();
+        metrics.record(DbOp.UPDATE_HIKE, t0, rows, SQL_UPDATE_HIKE);
+        if (rows > 0) notifyHikeSaved(hike);
         return rows;
     }
 
-    public int deleteHike(long id) {
-        SQLiteDatabase db = getWritableDatabase();
-        int rows = db.delete(TABLE_HIKES, COL_ID + "=?",
-                new String[]{String.valueOf(id)});
-        db.close();
+    public synchronized int deleteHike(long id) {
+        long t0 = metrics.start();
+        if (deleteHikeStmt == null) deleteHikeStmt = db().compileStatement(SQL_DELETE_HIKE);
+        SQLiteStatement st = deleteHikeStmt;
+        st.bindLong(1, id);
+        int rows = st.executeUpdateDelete();
+        metrics.record(DbOp.DELETE_HIKE, t0, rows, SQL_DELETE_HIKE);
+        if (rows > 0) {
+            for (HikeChangeListener l : changeListeners) l.onHikeDeleted(id);
+        }
         return rows;
     }
 
-    public void deleteAllHikes() {
-        SQLiteDatabase db = getWritableDatabase();
-        db.delete(TABLE_HIKES, null, null);
-        db.close();
+    public synchronized void deleteAllHikes() {
+        long t0 = metrics.start();
+        int rows = db().delete(TABLE_HIKES, null, null);
+        metrics.record(DbOp.DELETE_ALL_HIKES, t0, rows, SQL_DELETE_ALL_HIKES);
+        for (HikeChangeListener l : changeListeners) l.onAllHikesDeleted();
+    }
+
+    private void notifyHikeSaved(Hike hike) {
+        for (HikeChangeListener l : changeListeners) l.onHikeSaved(hike);
     }
 
     public List<Hike> getAllHikes() {
+        return queryHikes(null, null, COL_DATE + " ASC", null);
+    }
+
+    // Query hike tổng quát (dùng cho paging / filter); limit dạng "50" hoặc "50 OFFSET 100"
+    public List<Hike> queryHikes(String selection, String[] args, String orderBy, String limit) {
+        long t0 = metrics.start();
         List<Hike> result = new ArrayList<>();
-        SQLiteDatabase db = getReadableDatabase();
-        Cursor c = db.query(TABLE_HIKES, null,
-                null, null, null, null,
-                COL_DATE + " ASC");
+        Cursor c = db().query(TABLE_HIKES, HikeRowMapper.PROJECTION,
+                selection, args, null, null,
+                orderBy, limit);
+        CursorRow row = new CursorRow(c);
+        HikeRowMapper mapper = new HikeRowMapper(row);
+        while (c.moveToNext()) {
+            result.add(mapper.map(row));
+        }
+        c.close();
+        metrics.record(DbOp.QUERY_HIKES, t0, result.size(), selection);
+        return result;
+    }
+
+    // _id khớp filter theo orderBy, limit như queryHikes (null = tất cả). Với ORDER BY date, _id chỉ
+    // đọc index idx_hikes_date, không đọc dòng
+    public long[] queryHikeIds(String selection, String[] args, String orderBy, String limit) {
+        long t0 = metrics.start();
+        Cursor c = db().query(TABLE_HIKES, new String[]{COL_ID},
+                selection, args, null, null, orderBy, limit);
+        long[] ids = new long[c.getCount()];
+        int n = 0;
+        while (c.moveToNext() && n < ids.length) {
+            ids[n++] = c.getLong(0);
+        }
+        c.close();
+        metrics.record(DbOp.QUERY_HIKE_IDS, t0, n, selection);
+        return n == ids.length ? ids : Arrays.copyOf(ids, n);
+    }
+
+    // Hike đầy đủ của ids[from, to) theo đúng thứ tự đó; id không còn trong DB -> phần tử null
+    public List<Hike> getHikesByIds(long[] ids, int from, int to) {
+        long stamp = cache.stamp();
+        List<Hike> result = queryByIds(DbOp.GET_HIKES_BY_IDS, ids, from, to,
+                in -> "SELECT " + String.join(", ", HikeRowMapper.PROJECTION) + " FROM " +
+                        TABLE_HIKES + " WHERE " + COL_ID + " IN (" + in + ")",
+                HikeRowMapper::new);
+        for (Hike h : result) {
+            if (h != null) cache.putHike(h, stamp);
+        }
+        return result;
+    }
+
+    // Như getHikesByIds nhưng chỉ các cột danh sách hiển thị (HikePager), xem HikeSummary.
+    // Số observation và time mới nhất của cả page lấy trong cùng 1 query: LEFT JOIN với observations
+    // đã GROUP BY hike_id (chỉ các hike của page). COUNT/MAX theo hike_id đọc thẳng
+    // idx_obs_hike_time (hike_id, time), không đụng tới bảng observations.
+    public List<HikeSummary> getHikeSummariesByIds(long[] ids, int from, int to) {
+        return queryByIds(DbOp.GET_HIKE_SUMMARIES, ids, from, to, in -> {
+            StringBuilder sql = new StringBuilder("SELECT ");
+            for (String col : HikeSummaryMapper.PROJECTION) {
+                sql.append("h.").append(col).append(" AS ").append(col).append(", ");
+            }
+            sql.append("IFNULL(o.").append(HikeSummaryMapper.COL_OBS_COUNT).append(", 0) AS ")
+                    .append(HikeSummaryMapper.COL_OBS_COUNT).append(", o.")
+                    .append(HikeSummaryMapper.COL_LAST_OBS_TIME).append(" AS ")
+                    .append(HikeSummaryMapper.COL_LAST_OBS_TIME)
+                    .append(" FROM ").append(TABLE_HIKES).append(" h LEFT JOIN (SELECT ")
+                    .append(COL_OBS_HIKE_ID).append(", COUNT(*) AS ")
+                    .append(HikeSummaryMapper.COL_OBS_COUNT).append(", MAX(").append(COL_OBS_TIME)
+                    .append(") AS ").append(HikeSummaryMapper.COL_LAST_OBS_TIME)
+                    .append(" FROM ").append(TABLE_OBS).append(" WHERE ").append(COL_OBS_HIKE_ID)
+                    .append(" IN (").append(in).append(") GROUP BY ").append(COL_OBS_HIKE_ID)
+                    .append(") o ON o.").append(COL_OBS_HIKE_ID).append(" = h.").append(COL_ID)
+                    .append(" WHERE h.").append(COL_ID).append(" IN (").append(in).append(")");
+            return sql.toString();
+        }, HikeSummaryMapper::new);
+    }
 
+    // Như queryHikes nhưng trả HikeSummary (1 page của HikePager): lấy _id của page theo filter /
+    // thứ tự / limit (keyset hoặc OFFSET) rồi đọc nội dung như getHikeSummariesByIds. Dòng bị xoá
+    // giữa 2 query thì bỏ, page ngắn đi chứ không có lỗ.
+    public List<HikeSummary> queryHikeSummaries(String selection, String[] args, String orderBy,
+                                                String limit) {
+        long[] ids = queryHikeIds(selection, args, orderBy, limit);
+        List<HikeSummary> rows = getHikeSummariesByIds(ids, 0, ids.length);
+        rows.removeAll(Collections.singleton(null));
+        return rows;
+    }
+
+    // sqlForIds nhận danh sách id dạng "1,2,3" (để đặt trong IN (...)) và trả về câu query,
+    // kết quả phải có cột COL_ID
+    private <T> List<T> queryByIds(DbOp op, long[] ids, int from, int to,
+                                   Function<String, String> sqlForIds,
+                                   Function<HikeRow, RowMapper<T>> mapperFactory) {
+        List<T> result = new ArrayList<>(Collections.nCopies(to - from, (T) null));
+        if (to <= from) return result;
+        long t0 = metrics.start();
+        Map<Long, Integer> index = new HashMap<>();
+        StringBuilder in = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (in.length() > 0) in.append(',');
+            in.append(ids[i]);
+            index.put(ids[i], i - from);
+        }
+        String sql = sqlForIds.apply(in.toString());
+        Cursor c = db().rawQuery(sql, null);
+        CursorRow row = new CursorRow(c);
+        RowMapper<T> mapper = mapperFactory.apply(row);
+        int idCol = c.getColumnIndexOrThrow(COL_ID);
+        int rows = 0;
         while (c.moveToNext()) {
-            long id = c.getLong(c.getColumnIndexOrThrow(COL_ID));
-            String name = c.getString(c.getColumnIndexOrThrow(COL_NAME));
-            String location = c.getString(c.getColumnIndexOrThrow(COL_LOCATION));
-            String date = c.getString(c.getColumnIndexOrThrow(COL_DATE));
-            String difficulty = c.getString(c.getColumnIndexOrThrow(COL_DIFFICULTY));
-            double distance = c.getDouble(c.getColumnIndexOrThrow(COL_DISTANCE));
-            double duration = c.getDouble(c.getColumnIndexOrThrow(COL_DURATION));
-            int elevation = c.getInt(c.getColumnIndexOrThrow(COL_ELEVATION));
-            boolean parking = c.getInt(c.getColumnIndexOrThrow(COL_PARKING)) == 1;
-            int groupSize = c.getInt(c.getColumnIndexOrThrow(COL_GROUP_SIZE));
-            String terrain = c.getString(c.getColumnIndexOrThrow(COL_TERRAIN));
-            String desc = c.getString(c.getColumnIndexOrThrow(COL_DESC));
-
-            result.add(new Hike(id, name, location, date, difficulty,
-                    distance, duration, elevation, parking,
-                    groupSize, terrain, desc));
+            Integer pos = index.get(c.getLong(idCol));
+            if (pos != null) result.set(pos, mapper.map(row));
+            rows++;
         }
         c.close();
-        db.close();
+        metrics.record(op, t0, rows, sql);
         return result;
     }
 
+    public int countHikes(String selection, String[] args) {
+        long t0 = metrics.start();
+        int n = (int) DatabaseUtils.queryNumEntries(db(), TABLE_HIKES, selection, args);
+        metrics.record(DbOp.COUNT_HIKES, t0, 1, selection);
+        return n;
+    }
+
     public Hike getHike(long id) {
-        SQLiteDatabase db = getReadableDatabase();
-        Cursor c = db.query(TABLE_HIKES, null,
-                COL_ID + "=?", new String[]{String.valueOf(id)},
-                null, null, null);
+        Hike cached = cache.getHike(id);
+        if (cached != null) return cached;
+
+        long t0 = metrics.start();
+        long stamp = cache.stamp();
+        // SQL cố định -> connection lấy lại prepared statement trong cache, không compile lại
+        Cursor c = db().rawQuery(SQL_SELECT_HIKE, new String[]{String.valueOf(id)});
 
         Hike h = null;
         if (c.moveToFirst()) {
-            String name = c.getString(c.getColumnIndexOrThrow(COL_NAME));
-            String location = c.getString(c.getColumnIndexOrThrow(COL_LOCATION));
-            String date = c.getString(c.getColumnIndexOrThrow(COL_DATE));
-            String difficulty = c.getString(c.getColumnIndexOrThrow(COL_DIFFICULTY));
-            double distance = c.getDouble(c.getColumnIndexOrThrow(COL_DISTANCE));
-            double duration = c.getDouble(c.getColumnIndexOrThrow(COL_DURATION));
-            int elevation = c.getInt(c.getColumnIndexOrThrow(COL_ELEVATION));
-            boolean parking = c.getInt(c.getColumnIndexOrThrow(COL_PARKING)) == 1;
-            int groupSize = c.getInt(c.getColumnIndexOrThrow(COL_GROUP_SIZE));
-            String terrain = c.getString(c.getColumnIndexOrThrow(COL_TERRAIN));
-            String desc = c.getString(c.getColumnIndexOrThrow(COL_DESC));
-
-            h = new Hike(id, name, location, date, difficulty,
-                    distance, duration, elevation, parking,
-                    groupSize, terrain, desc);
+            CursorRow row = new CursorRow(c);
+            h = new HikeRowMapper(row).map(row);
         }
         c.close();
-        db.close();
+        metrics.record(DbOp.GET_HIKE, t0, h == null ? 0 : 1, SQL_SELECT_HIKE);
+        if (h != null) cache.putHike(h, stamp);
         return h;
     }
 
+    // ===== Full-text search =====
+
+    // Tìm hike theo từ trong name/description/terrain và title/comment của observation.
+    // Lượt 1 chỉ đọc docid + matchinfo để chấm điểm mọi dòng khớp; lượt 2 chỉ đọc hike và tạo
+    // snippet cho top `limit`, nên chi phí snippet không tăng theo số dòng khớp.
+    public List<HikeSearchResult> searchHikes(String text, int limit) {
+        String match = HikeFts.toMatchQuery(text);
+        if (match == null || limit <= 0) return Collections.emptyList();
+        String[] args = {match};
+        long t0 = metrics.start();
+
+        Map<Long, Double> scores = new HashMap<>();
+        Cursor c = db().rawQuery(SQL_SEARCH_SCORE, args);
+        while (c.moveToNext()) {
+            scores.put(c.getLong(0), HikeFts.score(c.getBlob(1), HikeFts.HIKE_WEIGHTS));
+        }
+        c.close();
+
+        // observation khớp cộng điểm cho hike của nó (lấy observation tốt nhất, nhân hệ số thấp hơn)
+        Map<Long, Double> obsScores = new HashMap<>();
+        c = db().rawQuery("SELECT o." + COL_OBS_HIKE_ID + ", matchinfo(" + HikeFts.TABLE_OBS_FTS +
+                ", 'pcx') FROM " + HikeFts.TABLE_OBS_FTS + " JOIN " + TABLE_OBS + " o ON o." +
+                COL_OBS_ID + " = " + HikeFts.TABLE_OBS_FTS + ".docid" +
+                " WHERE " + HikeFts.TABLE_OBS_FTS + " MATCH ?", args);
+        while (c.moveToNext()) {
+            double s = OBS_SCORE_FACTOR * HikeFts.score(c.getBlob(1), HikeFts.OBS_WEIGHTS);
+            Double best = obsScores.get(c.getLong(0));
+            if (best == null || s > best) obsScores.put(c.getLong(0), s);
+        }
+        c.close();
+        for (Map.Entry<Long, Double> e : obsScores.entrySet()) {
+            Double s = scores.get(e.getKey());
+            scores.put(e.getKey(), s == null ? e.getValue() : s + e.getValue());
+        }
+        if (scores.isEmpty()) {
+            metrics.record(DbOp.SEARCH_HIKES, t0, 0, SQL_SEARCH_SCORE);
+            return Collections.emptyList();
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        Collections.sort(ranked, (a, b) -> {
+            int cmp = Double.compare(b.getValue(), a.getValue());
+            return cmp != 0 ? cmp : Long.compare(a.getKey(), b.getKey());
+        });
+        if (ranked.size() > limit) ranked = ranked.subList(0, limit);
+
+        // id là số nên ghép thẳng vào IN (...), không vướng giới hạn số tham số
+        StringBuilder ids = new StringBuilder();
+        for (Map.Entry<Long, Double> e : ranked) {
+            if (ids.length() > 0) ids.append(',');
+            ids.append(e.getKey());
+        }
+        String inIds = " IN (" + ids + ")";
+
+        Map<Long, Hike> hikes = new HashMap<>();
+        c = db().rawQuery("SELECT " + String.join(", ", HikeRowMapper.PROJECTION) + " FROM " +
+                TABLE_HIKES + " WHERE " + COL_ID + inIds, null);
+        CursorRow row = new CursorRow(c);
+        HikeRowMapper mapper = new HikeRowMapper(row);
+        while (c.moveToNext()) {
+            Hike h = mapper.map(row);
+            hikes.put(h.getId(), h);
+        }
+        c.close();
+
+        Map<Long, String> snippets = new HashMap<>();
+        c = db().rawQuery("SELECT docid, " + snippetSql(HikeFts.TABLE_HIKES_FTS) +
+                " FROM " + HikeFts.TABLE_HIKES_FTS + " WHERE " + HikeFts.TABLE_HIKES_FTS +
+                " MATCH ? AND docid" + inIds, args);
+        while (c.moveToNext()) {
+            snippets.put(c.getLong(0), c.getString(1));
+        }
+        c.close();
+
+        // hike chỉ khớp qua observation -> lấy snippet của observation đầu tiên
+        Map<Long, String> obsSnippets = new HashMap<>();
+        c = db().rawQuery("SELECT o." + COL_OBS_HIKE_ID + ", " +
+                snippetSql(HikeFts.TABLE_OBS_FTS) + " FROM " + HikeFts.TABLE_OBS_FTS +
+                " JOIN " + TABLE_OBS + " o ON o." + COL_OBS_ID + " = " +
+                HikeFts.TABLE_OBS_FTS + ".docid WHERE " + HikeFts.TABLE_OBS_FTS +
+                " MATCH ? AND o." + COL_OBS_HIKE_ID + inIds +
+                " ORDER BY o." + COL_OBS_ID, args);
+        while (c.moveToNext()) {
+            long hikeId = c.getLong(0);
+            if (!snippets.containsKey(hikeId) && !obsSnippets.containsKey(hikeId)) {
+                obsSnippets.put(hikeId, c.getString(1));
+            }
+        }
+        c.close();
+
+        List<HikeSearchResult> result = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Double> e : ranked) {
+            Hike h = hikes.get(e.getKey());
+            if (h == null) continue;
+            String snippet = snippets.get(e.getKey());
+            boolean fromObs = snippet == null;
+            if (fromObs) snippet = obsSnippets.get(e.getKey());
+            result.add(new HikeSearchResult(h, e.getValue(), snippet, fromObs));
+        }
+        metrics.record(DbOp.SEARCH_HIKES, t0, result.size(), SQL_SEARCH_SCORE);
+        return result;
+    }
+
+    private static String snippetSql(String fts) {
+        return "snippet(" + fts + ", '" + HikeFts.MARK_START + "', '" + HikeFts.MARK_END +
+                "', '" + HikeFts.ELLIPSIS + "', -1, " + HikeFts.SNIPPET_TOKENS + ")";
+    }
+
+    // ===== Thống kê (dashboard) =====
+
+    // Mọi nhóm của 1 dimension (HikeStats.DIM_*), sắp theo tên nhóm; chỉ đọc bảng tổng hợp
+    // nên chi phí theo số nhóm, không theo số hike
+    public List<HikeStatsBucket> getHikeStats(String dimension) {
+        long t0 = metrics.start();
+        List<HikeStatsBucket> result = new ArrayList<>();
+        Cursor c = db().rawQuery(SQL_SELECT_STATS, new String[]{dimension});
+        while (c.moveToNext()) {
+            result.add(new HikeStatsBucket(dimension, c.getString(0), c.getInt(1),
+                    c.getDouble(2), c.getDouble(3), c.getLong(4)));
+        }
+        c.close();
+        metrics.record(DbOp.GET_HIKE_STATS, t0, result.size(), SQL_SELECT_STATS);
+        return result;
+    }
+
+    // Toàn bộ hikes dạng cột (xem HikeColumnSnapshot) cho thống kê trong bộ nhớ. Đọc thẳng từ
+    // cursor vào mảng primitive, không tạo Hike nào; dòng theo thứ tự _id.
+    public HikeColumnSnapshot getColumnSnapshot() {
+        long t0 = metrics.start();
+        SQLiteDatabase db = db();
+        HikeColumnSnapshot.Builder b = new HikeColumnSnapshot.Builder(
+                (int) DatabaseUtils.queryNumEntries(db, TABLE_HIKES));
+        Cursor c = db.rawQuery(SQL_SELECT_COLUMNS, null);
+        while (c.moveToNext()) {
+            b.add(c.getLong(0), c.getLong(1), c.getString(2), c.isNull(3) ? null : c.getString(3),
+                    c.getDouble(4), c.getDouble(5), c.getInt(6));
+        }
+        int rows = c.getCount();
+        c.close();
+        metrics.record(DbOp.GET_COLUMN_SNAPSHOT, t0, rows, SQL_SELECT_COLUMNS);
+        return b.build();
+    }
+
+    // ===== Tìm theo vị trí (index R*Tree, xem HikeGeo) =====
+
+    // Hike có toạ độ cách (lat, lon) không quá radiusKm, gần nhất trước
+    public List<NearbyHike> findHikesWithin(double lat, double lon, double radiusKm) {
+        List<GeoCandidate> found = new ArrayList<>();
+        for (GeoBounds box : GeoBounds.around(lat, lon, radiusKm)) {
+            collectInBox(box, lat, lon, radiusKm, found);
+        }
+        return sortAndLoad(found);
+    }
+
+    // Hike có toạ độ nằm trong khung (không vắt qua kinh tuyến 180), gần tâm khung nhất trước
+    public List<NearbyHike> findHikesInBox(GeoBounds box) {
+        List<GeoCandidate> found = new ArrayList<>();
+        collectInBox(box, box.centerLat(), box.centerLon(), Double.POSITIVE_INFINITY, found);
+        return sortAndLoad(found);
+    }
+
+    private synchronized boolean isGeoRtree() {
+        if (geoRtree == null) geoRtree = HikeGeo.isRtree(db());
+        return geoRtree;
+    }
+
+    private static final class GeoCandidate {
+        final long id;
+        final double distanceKm;
+
+        GeoCandidate(long id, double distanceKm) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+        }
+    }
+
+    // Lọc khung bằng R*Tree, lấy toạ độ thật từ hikes, giữ các điểm trong khung và bán kính
+    private void collectInBox(GeoBounds box, double lat, double lon, double radiusKm,
+                              List<GeoCandidate> out) {
+        long t0 = metrics.start();
+        String sql = SQL_SELECT_IN_BOX + HikeGeo.boxSelection(isGeoRtree());
+        Cursor c = db().rawQuery(sql, HikeGeo.boxArgs(box));
+        while (c.moveToNext()) {
+            double hLat = c.getDouble(1), hLon = c.getDouble(2);
+            if (!box.contains(hLat, hLon)) continue;
+            double d = GeoBounds.distanceKm(lat, lon, hLat, hLon);
+            if (d <= radiusKm) out.add(new GeoCandidate(c.getLong(0), d));
+        }
+        int rows = c.getCount();
+        c.close();
+        metrics.record(DbOp.FIND_HIKES_IN_BOX, t0, rows, sql);
+    }
+
+    // Sắp theo khoảng cách rồi load Hike đầy đủ theo id, mỗi lần GEO_LOAD_CHUNK id
+    private List<NearbyHike> sortAndLoad(List<GeoCandidate> found) {
+        found.sort((a, b) -> Double.compare(a.distanceKm, b.distanceKm));
+        long[] ids = new long[found.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = found.get(i).id;
+        List<NearbyHike> out = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += GEO_LOAD_CHUNK) {
+            int to = Math.min(ids.length, from + GEO_LOAD_CHUNK);
+            List<Hike> hikes = getHikesByIds(ids, from, to);
+            for (int i = from; i < to; i++) {
+                Hike h = hikes.get(i - from);
+                if (h != null) out.add(new NearbyHike(h, found.get(i).distanceKm));
+            }
+        }
+        return out;
+    }
+
+    // ===== Track GPS (chunk nén, xem HikeTracks / TrackWriter) =====
+
+    // Writer ghi tiếp vào track của hike (chưa có thì tạo mới). Mỗi chunk đầy được lưu ngay;
+    // close() lưu phần còn lại rồi đặt distance/elevation của hike theo tổng của cả track.
+    public synchronized TrackWriter openTrackWriter(long hikeId) {
+        long t0 = metrics.start();
+        int nextSeq = 0;
+        TrackPoint last = null;
+        double gainReference = Double.NaN;
+        Cursor c = db().rawQuery(SQL_SELECT_LAST_TRACK_CHUNK, new String[]{String.valueOf(hikeId)});
+        if (c.moveToFirst()) {
+            nextSeq = c.getInt(0) + 1;
+            Iterator<TrackPoint> it = TrackChunks.decode(c.getBlob(1));
+            while (it.hasNext()) last = it.next();
+            // chunk ghi trước v14 không có mốc: writer lấy độ cao điểm cuối như trước
+            if (!c.isNull(2)) gainReference = c.getDouble(2);
+        }
+        c.close();
+        metrics.record(DbOp.OPEN_TRACK_WRITER, t0, nextSeq > 0 ? 1 : 0, SQL_SELECT_LAST_TRACK_CHUNK);
+        return new TrackWriter(new TrackSink(hikeId), nextSeq, last, gainReference,
+                TrackWriter.DEFAULT_POINTS_PER_CHUNK);
+    }
+
+    private final class TrackSink implements TrackWriter.ChunkSink {
+        private final long hikeId;
+
+        TrackSink(long hikeId) {
+            this.hikeId = hikeId;
+        }
+
+        @Override
+        public void write(int seq, int pointCount, long firstTimeMillis, long lastTimeMillis,
+                          double distanceKm, double elevationGainM, double gainReferenceM,
+                          byte[] chunk) throws IOException {
+            try {
+                insertTrackChunk(hikeId, seq, pointCount, firstTimeMillis, lastTimeMillis,
+                        distanceKm, elevationGainM, gainReferenceM, chunk);
+            } catch (SQLException e) {
+                // vd. hike đã bị xoá trong lúc đang ghi track (FK)
+                throw new IOException("Cannot save track chunk " + seq + " of hike " + hikeId, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            applyTrackTotals(hikeId);
+        }
+    }
+
+    private synchronized void insertTrackChunk(long hikeId, int seq, int pointCount, long firstTime,
+                                               long lastTime, double distanceKm, double gainM,
+                                               double gainReferenceM, byte[] chunk) {
+        long t0 = metrics.start();
+        if (insertTrackChunkStmt == null) {
+            insertTrackChunkStmt = db().compileStatement(SQL_INSERT_TRACK_CHUNK);
+        }
+        SQLiteStatement st = insertTrackChunkStmt;
+        st.clearBindings();
+        st.bindLong(1, hikeId);
+        st.bindLong(2, seq);
+        st.bindLong(3, pointCount);
+        st.bindLong(4, firstTime);
+        st.bindLong(5, lastTime);
+        st.bindDouble(6, distanceKm);
+        st.bindDouble(7, gainM);
+        st.bindBlob(8, chunk);
+        st.bindDouble(9, gainReferenceM);
+        st.executeInsert();
+        metrics.record(DbOp.INSERT_TRACK_CHUNK, t0, 1, SQL_INSERT_TRACK_CHUNK);
+    }
+
+    // distance_km / elevation_m của hike = tổng trên các chunk của track (hike chưa có track thì
+    // giữ nguyên). Trigger của HikeStats tự cập nhật dashboard.
+    public synchronized void applyTrackTotals(long hikeId) {
+        long t0 = metrics.start();
+        String id = String.valueOf(hikeId);
+        db().execSQL(SQL_APPLY_TRACK_TOTALS, new Object[]{id, id, id, id});
+        metrics.record(DbOp.APPLY_TRACK_TOTALS, t0, 1, SQL_APPLY_TRACK_TOTALS);
+        // cache / index đang giữ bản cũ: đọc lại từ DB rồi báo như 1 lần update
+        Hike h = getHikesByIds(new long[]{hikeId}, 0, 1).get(0);
+        if (h != null) notifyHikeSaved(h);
+    }
+
+    // Điểm của track theo thứ tự ghi, đọc lười từng HikeTracks.READ_BATCH chunk; không giữ cursor
+    // mở giữa các lần next() nên bỏ dở iterator cũng không rò rỉ gì
+    public Iterator<TrackPoint> readTrack(long hikeId) {
+        return new TrackIterator(new TrackIterator.ChunkSource() {
+            private final ArrayDeque<byte[]> batch = new ArrayDeque<>();
+            private int nextSeq;
+            private boolean done;
+
+            @Override
+            public byte[] next() {
+                if (batch.isEmpty() && !done) loadBatch();
+                return batch.poll();
+            }
+
+            private void loadBatch() {
+                long t0 = metrics.start();
+                Cursor c = db().rawQuery(SQL_SELECT_TRACK_BATCH,
+                        new String[]{String.valueOf(hikeId), String.valueOf(nextSeq)});
+                while (c.moveToNext()) {
+                    nextSeq = c.getInt(0) + 1;
+                    batch.add(c.getBlob(1));
+                }
+                int rows = c.getCount();
+                done = rows < HikeTracks.READ_BATCH;
+                c.close();
+                metrics.record(DbOp.READ_TRACK_BATCH, t0, rows, SQL_SELECT_TRACK_BATCH);
+            }
+        });
+    }
+
     // ===== Observation CRUD =====
 
-    public long insertObservation(Observation obs) {
-        SQLiteDatabase db = getWritableDatabase();
-        ContentValues cv = new ContentValues();
-        cv.put(COL_OBS_HIKE_ID, obs.getHikeId());
-        cv.put(COL_OBS_TITLE, obs.getTitle());
-        cv.put(COL_OBS_TIME, obs.getTime());
-        cv.put(COL_OBS_COMMENT, obs.getComment());
-        long id = db.insert(TABLE_OBS, null, cv);
-        db.close();
+    public synchronized long insertObservation(Observation obs) {
+        long t0 = metrics.start();
+        long id = execInsertObservation(obs);
+        metrics.record(DbOp.INSERT_OBSERVATION, t0, id == -1 ? 0 : 1, SQL_INSERT_OBS);
+        if (id != -1) {
+            obs.setId(id);
+            cache.onObservationSaved(obs);
+        }
         return id;
     }
 
-    public int updateObservation(Observation obs) {
-        SQLiteDatabase db = getWritableDatabase();
-        ContentValues cv = new ContentValues();
-        cv.put(COL_OBS_TITLE, obs.getTitle());
-        cv.put(COL_OBS_TIME, obs.getTime());
-        cv.put(COL_OBS_COMMENT, obs.getComment());
-        int rows = db.update(TABLE_OBS, cv,
-                COL_OBS_ID + "=?",
-                new String[]{String.valueOf(obs.getId())});
-        db.close();
+    // Gọi khi đang giữ lock của helper
+    private long execInsertObservation(Observation obs) {
+        if (insertObsStmt == null) insertObsStmt = db().compileStatement(SQL_INSERT_OBS);
+        SQLiteStatement st = insertObsStmt;
+        st.clearBindings();
+        st.bindLong(1, obs.getHikeId());
+        st.bindString(2, obs.getTitle());
+        st.bindLong(3, obs.getTimeMillis());
+        bindStringOrNull(st, 4, obs.getComment());
+        bindStringOrNull(st, 5, obs.getPhotoPath());
+        return st.executeInsert();
+    }
+
+    public ImportResult insertObservations(List<Observation> list) {
+        return insertObservations(list, BULK_COMMIT_EVERY);
+    }
+
+    public ImportResult insertObservations(List<Observation> list, int commitEvery) {
+        ImportResult result = new ImportResult();
+        int size = list.size();
+        for (int from = 0; from < size; from += commitEvery) {
+            int to = Math.min(size, from + commitEvery);
+            insertObservationChunk(list, from, to, result);
+        }
+        return result;
+    }
+
+    private synchronized void insertObservationChunk(List<Observation> list, int from, int to,
+                                                     ImportResult result) {
+        long t0 = metrics.start();
+        int before = result.getImportedCount();
+        SQLiteDatabase db = db();
+        db.beginTransaction();
+        try {
+            for (int i = from; i < to; i++) {
+                Observation o = list.get(i);
+                try {
+                    // hike_id không tồn tại -> lỗi foreign key, chỉ dòng đó bị bỏ
+                    long id = execInsertObservation(o);
+                    if (id == -1) {
+                        result.addFailure(i, "insert returned -1");
+                    } else {
+                        o.setId(id);
+                        result.addImported();
+                    }
+                } catch (SQLException | IllegalArgumentException e) {
+                    result.addFailure(i, e.getMessage());
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        metrics.record(DbOp.INSERT_OBSERVATIONS_CHUNK, t0, result.getImportedCount() - before,
+                SQL_INSERT_OBS);
+    }
+
+    public synchronized int updateObservation(Observation obs) {
+        long t0 = metrics.start();
+        int rows = execUpdateObservation(obs);
+        metrics.record(DbOp.UPDATE_OBSERVATION, t0, rows, SQL_UPDATE_OBS);
+        if (rows > 0) cache.onObservationSaved(obs);
         return rows;
     }
 
-    public int deleteObservation(long id) {
-        SQLiteDatabase db = getWritableDatabase();
-        int rows = db.delete(TABLE_OBS, COL_OBS_ID + "=?",
-                new String[]{String.valueOf(id)});
-        db.close();
+    // Gọi khi đang giữ lock của helper
+    private int execUpdateObservation(Observation obs) {
+        if (updateObsStmt == null) updateObsStmt = db().compileStatement(SQL_UPDATE_OBS);
+        SQLiteStatement st = updateObsStmt;
+        st.clearBindings();
+        st.bindString(1, obs.getTitle());
+        st.bindLong(2, obs.getTimeMillis());
+        bindStringOrNull(st, 3, obs.getComment());
+        bindStringOrNull(st, 4, obs.getPhotoPath());
+        st.bindLong(5, obs.getId());
+        return st.executeUpdateDelete();
+    }
+
+    // Ghi cả lô trong 1 transaction (1 lần commit thay vì 1 lần mỗi dòng), theo đúng thứ tự list.
+    // Observation có id < 0 được insert, còn lại là update. Kết quả theo từng vị trí: id mới (insert)
+    // hoặc số dòng đổi (update), -1 nếu dòng đó lỗi; dòng lỗi không làm hỏng cả lô.
+    public synchronized long[] writeObservations(List<Observation> list) {
+        long t0 = metrics.start();
+        long[] result = new long[list.size()];
+        SQLiteDatabase db = db();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < result.length; i++) {
+                Observation o = list.get(i);
+                try {
+                    if (o.getId() < 0) {
+                        result[i] = execInsertObservation(o);
+                        if (result[i] != -1) o.setId(result[i]);
+                    } else {
+                        result[i] = execUpdateObservation(o);
+                    }
+                } catch (SQLException | IllegalArgumentException e) {
+                    result[i] = -1;
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        metrics.record(DbOp.WRITE_OBSERVATIONS, t0, result.length, SQL_INSERT_OBS);
+        // cache chỉ nhận sau khi commit
+        for (int i = 0; i < result.length; i++) {
+            if (result[i] > 0) cache.onObservationSaved(list.get(i));
+        }
+        return result;
+    }
+
+    public synchronized int deleteObservation(long id) {
+        long t0 = metrics.start();
+        if (deleteObsStmt == null) deleteObsStmt = db().compileStatement(SQL_DELETE_OBS);
+        SQLiteStatement st = deleteObsStmt;
+        st.bindLong(1, id);
+        int rows = st.executeUpdateDelete();
+        metrics.record(DbOp.DELETE_OBSERVATION, t0, rows, SQL_DELETE_OBS);
+        if (rows > 0) cache.onObservationDeleted(id);
         return rows;
     }
 
     public List<Observation> getObservationsForHike(long hikeId) {
+        long t0 = metrics.start();
         List<Observation> result = new ArrayList<>();
-        SQLiteDatabase db = getReadableDatabase();
-        Cursor c = db.query(TABLE_OBS, null,
-                COL_OBS_HIKE_ID + "=?",
-                new String[]{String.valueOf(hikeId)},
-                null, null, COL_OBS_TIME + " ASC");
-
+        long stamp = cache.stamp();
+        Cursor c = db().rawQuery(SQL_SELECT_OBS_FOR_HIKE,
+                new String[]{String.valueOf(hikeId)});
+        CursorRow row = new CursorRow(c);
+        ObservationRowMapper mapper = new ObservationRowMapper(row);
         while (c.moveToNext()) {
-            long id = c.getLong(c.getColumnIndexOrThrow(COL_OBS_ID));
-            String title = c.getString(c.getColumnIndexOrThrow(COL_OBS_TITLE));
-            String time = c.getString(c.getColumnIndexOrThrow(COL_OBS_TIME));
-            String comment = c.getString(c.getColumnIndexOrThrow(COL_OBS_COMMENT));
-            result.add(new Observation(id, hikeId, title, time, comment));
+            Observation o = mapper.map(row);
+            result.add(o);
+            cache.putObservation(o, stamp);
         }
         c.close();
-        db.close();
+        metrics.record(DbOp.GET_OBSERVATIONS_FOR_HIKE, t0, result.size(), SQL_SELECT_OBS_FOR_HIKE);
         return result;
     }
 
     public Observation getObservation(long obsId) {
-        SQLiteDatabase db = getReadableDatabase();
-        Cursor c = db.query(TABLE_OBS, null,
-                COL_OBS_ID + "=?",
-                new String[]{String.valueOf(obsId)},
-                null, null, null);
+        Observation cached = cache.getObservation(obsId);
+        if (cached != null) return cached;
+
+        long t0 = metrics.start();
+        long stamp = cache.stamp();
+        Cursor c = db().rawQuery(SQL_SELECT_OBS, new String[]{String.valueOf(obsId)});
         Observation o = null;
         if (c.moveToFirst()) {
-            long hikeId = c.getLong(c.getColumnIndexOrThrow(COL_OBS_HIKE_ID));
-            String title = c.getString(c.getColumnIndexOrThrow(COL_OBS_TITLE));
-            String time = c.getString(c.getColumnIndexOrThrow(COL_OBS_TIME));
-            String comment = c.getString(c.getColumnIndexOrThrow(COL_OBS_COMMENT));
-            o = new Observation(obsId, hikeId, title, time, comment);
+            CursorRow row = new CursorRow(c);
+            o = new ObservationRowMapper(row).map(row);
         }
         c.close();
-        db.close();
+        metrics.record(DbOp.GET_OBSERVATION, t0, o == null ? 0 : 1, SQL_SELECT_OBS);
+        if (o != null) cache.putObservation(o, stamp);
         return o;
     }
+
+    // ===== Export (cursor forward-only, caller phải close) =====
+
+    public Cursor queryHikesForExport() {
+        return db().rawQuery("SELECT * FROM " + TABLE_HIKES +
+                " ORDER BY " + COL_ID, null);
+    }
+
+    // Tên file ảnh đang được observation tham chiếu, dùng khi dọn ảnh mồ côi (ObservationPhotos)
+    public Set<String> getObservationPhotoPaths() {
+        long t0 = metrics.start();
+        Set<String> result = new HashSet<>();
+        Cursor c = db().rawQuery(SQL_SELECT_PHOTO_PATHS, null);
+        try {
+            while (c.moveToNext()) result.add(c.getString(0));
+        } finally {
+            c.close();
+        }
+        metrics.record(DbOp.GET_OBSERVATION_PHOTOS, t0, result.size(), SQL_SELECT_PHOTO_PATHS);
+        return result;
+    }
+
+    // Cùng thứ tự hike_id với queryHikesForExport() để exporter merge 2 cursor trong 1 lượt
+    public Cursor queryObservationsForExport() {
+        return db().rawQuery("SELECT * FROM " + TABLE_OBS +
+                " ORDER BY " + COL_OBS_HIKE_ID + ", " + COL_OBS_ID, null);
+    }
 }
@@ -11,14 +11,14 @@ public class HikeDetailActivity extends AppCompatActivity {
             tvDetailDate, tvDetailParking, tvDetailDistance, tvDetailDuration,
             tvDetailElevation, tvDetailGroupSize, tvDetailTerrain, tvDetailDescription;
 
-    private HikeDbHelper dbHelper;
+    private HikeRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_hike_detail);
 
-        dbHelper = new HikeDbHelper(this);
+        repository = new HikeRepository(this, this);
 
         tvDetailName = findViewById(R.id.tvDetailName);
         tvDetailDifficulty = findViewById(R.id.tvDetailDifficulty);
@@ -38,18 +38,21 @@ public class HikeDetailActivity extends AppCompatActivity {
             return;
         }
 
-        Hike h = dbHelper.getHike(id);
-        if (h == null) {
-            finish();
-            return;
-        }
-
         setTitle("Hike details");
+        repository.getHike(id, h -> {
+            if (h == null) {
+                finish();
+                return;
+            }
+            showHike(h);
+        });
+    }
 
+    private void showHike(Hike h) {
         tvDetailName.setText(h.getName());
         tvDetailDifficulty.setText(h.getDifficulty());
         tvDetailLocation.setText("Location: " + h.getLocation());
-        tvDetailDate.setText("Date: " + h.getDate());
+        tvDetailDate.setText("Date: " + HikeDates.formatDate(h.getDateEpochDay()));
         tvDetailParking.setText("Parking: " + (h.hasParking() ? "Yes" : "No"));
         tvDetailDistance.setText("Distance: " + h.getDistanceKm() + " km");
         tvDetailDuration.setText("Duration: " + h.getDurationHours() + " h");
@@ -0,0 +1,129 @@
+package com.example.coursework;
+
+import android.database.Cursor;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+// Export toàn bộ hikes + observations ra file NDJSON nén gzip (cùng format với HikeImporter).
+// Đi 2 cursor forward-only song song (hikes theo _id, observations theo hike_id) và ghi qua
+// 1 HikeNdjsonWriter dùng lại, nên heap không tăng theo số dòng.
+public class HikeExporter {
+
+    public interface Listener {
+        void onProgress(long hikesWritten, long totalHikes);
+        void onFinished(long hikesWritten, long observationsWritten, boolean cancelled);
+        void onError(Exception e);
+    }
+
+    private static final int IO_BUFFER = 64 * 1024;
+    private static final long PROGRESS_INTERVAL_MS = 100;
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newSingleThreadExecutor(HikeRepository.namedThreads("hike-exporter"));
+
+    private final HikeDbHelper dbHelper;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    // buffer ghi dùng lại cho mọi dòng
+    private final HikeNdjsonWriter writer = new HikeNdjsonWriter();
+
+    public HikeExporter(HikeDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public void start(OutputStream out, Listener listener) {
+        EXECUTOR.execute(() -> {
+            try {
+                long total = dbHelper.countHikes(null, null);
+                long[] written = export(out, total, listener);
+                boolean wasCancelled = cancelled.get();
+                mainHandler.post(() -> listener.onFinished(written[0], written[1], wasCancelled));
+            } catch (IOException | RuntimeException e) {
+                mainHandler.post(() -> listener.onError(e));
+            }
+        });
+    }
+
+    // trả về {số hike, số observation} đã ghi
+    private long[] export(OutputStream out, long total, Listener listener) throws IOException {
+        long hikes = 0, observations = 0;
+        long lastReport = 0;
+
+        try (Writer w = new OutputStreamWriter(
+                new GZIPOutputStream(new BufferedOutputStream(out, IO_BUFFER), IO_BUFFER),
+                StandardCharsets.UTF_8);
+             Cursor hc = dbHelper.queryHikesForExport();
+             Cursor oc = dbHelper.queryObservationsForExport()) {
+
+            // index cột lấy 1 lần cho cả cursor
+            int hId = hc.getColumnIndexOrThrow(HikeDbHelper.COL_ID);
+            int hName = hc.getColumnIndexOrThrow(HikeDbHelper.COL_NAME);
+            int hLocation = hc.getColumnIndexOrThrow(HikeDbHelper.COL_LOCATION);
+            int hDate = hc.getColumnIndexOrThrow(HikeDbHelper.COL_DATE);
+            int hDifficulty = hc.getColumnIndexOrThrow(HikeDbHelper.COL_DIFFICULTY);
+            int hDistance = hc.getColumnIndexOrThrow(HikeDbHelper.COL_DISTANCE);
+            int hDuration = hc.getColumnIndexOrThrow(HikeDbHelper.COL_DURATION);
+            int hElevation = hc.getColumnIndexOrThrow(HikeDbHelper.COL_ELEVATION);
+            int hParking = hc.getColumnIndexOrThrow(HikeDbHelper.COL_PARKING);
+            int hGroup = hc.getColumnIndexOrThrow(HikeDbHelper.COL_GROUP_SIZE);
+            int hTerrain = hc.getColumnIndexOrThrow(HikeDbHelper.COL_TERRAIN);
+            int hDesc = hc.getColumnIndexOrThrow(HikeDbHelper.COL_DESC);
+            int hLat = hc.getColumnIndexOrThrow(HikeDbHelper.COL_LATITUDE);
+            int hLon = hc.getColumnIndexOrThrow(HikeDbHelper.COL_LONGITUDE);
+
+            int oHikeId = oc.getColumnIndexOrThrow(HikeDbHelper.COL_OBS_HIKE_ID);
+            int oTitle = oc.getColumnIndexOrThrow(HikeDbHelper.COL_OBS_TITLE);
+            int oTime = oc.getColumnIndexOrThrow(HikeDbHelper.COL_OBS_TIME);
+            int oComment = oc.getColumnIndexOrThrow(HikeDbHelper.COL_OBS_COMMENT);
+
+            boolean hasObs = oc.moveToNext();
+            while (!cancelled.get() && hc.moveToNext()) {
+                long id = hc.getLong(hId);
+                writer.beginHike(hc.getString(hName), hc.getString(hLocation), hc.getLong(hDate),
+                        hc.getString(hDifficulty), hc.getDouble(hDistance), hc.getDouble(hDuration),
+                        hc.getInt(hElevation), hc.getInt(hParking) == 1, hc.getInt(hGroup),
+                        hc.getString(hTerrain), hc.getString(hDesc));
+                if (!hc.isNull(hLat) && !hc.isNull(hLon)) {
+                    writer.addCoordinates(hc.getDouble(hLat), hc.getDouble(hLon));
+                }
+
+                // bỏ qua observation mồ côi (hike_id nhỏ hơn hike hiện tại)
+                while (hasObs && oc.getLong(oHikeId) < id) {
+                    hasObs = oc.moveToNext();
+                }
+                while (hasObs && oc.getLong(oHikeId) == id) {
+                    writer.addObservation(oc.getString(oTitle), oc.getLong(oTime), oc.getString(oComment));
+                    observations++;
+                    hasObs = oc.moveToNext();
+                }
+                writer.endHike(w);
+                hikes++;
+
+                long now = SystemClock.uptimeMillis();
+                if (now - lastReport >= PROGRESS_INTERVAL_MS) {
+                    lastReport = now;
+                    long done = hikes;
+                    mainHandler.post(() -> listener.onProgress(done, total));
+                }
+            }
+        }
+        return new long[]{hikes, observations};
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.coursework;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Locale;
+
+// Bảng full-text search (FTS4, external content) cho hikes và observations.
+// Bảng FTS chỉ giữ index, nội dung đọc từ bảng gốc; trigger giữ index khớp với mọi insert/update/delete
+// (kể cả observation bị xoá theo ON DELETE CASCADE).
+final class HikeFts {
+
+    static final String TABLE_HIKES_FTS = "hikes_fts";
+    static final String TABLE_OBS_FTS = "obs_fts";
+
+    // Trọng số theo thứ tự cột trong bảng FTS
+    static final double[] HIKE_WEIGHTS = {3.0, 1.0, 1.0};   // name, description, terrain
+    static final double[] OBS_WEIGHTS = {2.0, 1.0};         // title, comment
+
+    // Marker bao quanh từ khớp trong snippet, xem HikeSearchResult.highlight()
+    static final String MARK_START = "\u0001";
+    static final String MARK_END = "\u0002";
+    static final String ELLIPSIS = "…";
+    static final int SNIPPET_TOKENS = 12;
+
+    private HikeFts() {}
+
+    static void create(SQLiteDatabase db) {
+        String hikeCols = HikeDbHelper.COL_NAME + ", " + HikeDbHelper.COL_DESC + ", " +
+                HikeDbHelper.COL_TERRAIN;
+        String obsCols = HikeDbHelper.COL_OBS_TITLE + ", " + HikeDbHelper.COL_OBS_COMMENT;
+
+        // unicode61: không phân biệt hoa thường, bỏ dấu; prefix="2,3" để "ab*" / "abc*" dùng index riêng
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_HIKES_FTS + " USING fts4(" +
+                "content=\"" + HikeDbHelper.TABLE_HIKES + "\", " + hikeCols + ", " +
+                "tokenize=unicode61, prefix=\"2,3\")");
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_OBS_FTS + " USING fts4(" +
+                "content=\"" + HikeDbHelper.TABLE_OBS + "\", " + obsCols + ", " +
+                "tokenize=unicode61, prefix=\"2,3\")");
+
+        createTriggers(db, HikeDbHelper.TABLE_HIKES, TABLE_HIKES_FTS, HikeDbHelper.COL_ID,
+                hikeCols, "new." + HikeDbHelper.COL_NAME + ", new." + HikeDbHelper.COL_DESC +
+                        ", new." + HikeDbHelper.COL_TERRAIN);
+        createTriggers(db, HikeDbHelper.TABLE_OBS, TABLE_OBS_FTS, HikeDbHelper.COL_OBS_ID,
+                obsCols, "new." + HikeDbHelper.COL_OBS_TITLE + ", new." +
+                        HikeDbHelper.COL_OBS_COMMENT);
+    }
+
+    // Dựng lại index từ dữ liệu đang có (dùng khi nâng cấp DB cũ)
+    static void rebuild(SQLiteDatabase db) {
+        db.execSQL("INSERT INTO " + TABLE_HIKES_FTS + "(" + TABLE_HIKES_FTS + ") VALUES('rebuild')");
+        db.execSQL("INSERT INTO " + TABLE_OBS_FTS + "(" + TABLE_OBS_FTS + ") VALUES('rebuild')");
+    }
+
+    // External content: phải xoá token cũ TRƯỚC khi dòng gốc đổi/mất, rồi thêm token mới SAU khi ghi
+    private static void createTriggers(SQLiteDatabase db, String table, String fts, String idCol,
+                                       String cols, String newValues) {
+        String delete = "DELETE FROM " + fts + " WHERE docid = old." + idCol + ";";
+        String insert = "INSERT INTO " + fts + "(docid, " + cols + ") VALUES (new." + idCol +
+                ", " + newValues + ");";
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + fts + "_bd BEFORE DELETE ON " + table +
+                " BEGIN " + delete + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + fts + "_bu BEFORE UPDATE OF " + cols +
+                " ON " + table + " BEGIN " + delete + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + fts + "_au AFTER UPDATE OF " + cols +
+                " ON " + table + " BEGIN " + insert + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + fts + "_ai AFTER INSERT ON " + table +
+                " BEGIN " + insert + " END");
+    }
+
+    // Chữ người dùng gõ -> biểu thức MATCH an toàn: mỗi từ (chỉ chữ/số) thành 1 term, AND ngầm định.
+    // Từ >= 2 ký tự được tìm theo prefix ("lak" -> lak*) cho search-as-you-type.
+    // null nếu không còn từ nào.
+    static String toMatchQuery(String text) {
+        if (text == null) return null;
+        StringBuilder sb = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int i = 0, n = lower.length();
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(lower.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(lower.charAt(i))) i++;
+            if (i > start) {
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(lower, start, i);
+                if (i - start >= 2) sb.append('*');
+            }
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    // Điểm từ matchinfo(..., 'pcx'): với mỗi term và cột, weight * (số lần khớp ở dòng này /
+    // số lần khớp trên toàn bảng) — term hiếm và cột quan trọng được điểm cao hơn.
+    static double score(byte[] matchinfo, double[] weights) {
+        IntBuffer ints = ByteBuffer.wrap(matchinfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phrases = ints.get(0);
+        int cols = ints.get(1);
+        double score = 0;
+        for (int p = 0; p < phrases; p++) {
+            for (int c = 0; c < cols; c++) {
+                int base = 2 + 3 * (p * cols + c);
+                int hitsThisRow = ints.get(base);
+                int hitsAllRows = ints.get(base + 1);
+                if (hitsThisRow > 0 && hitsAllRows > 0) {
+                    score += weights[c] * hitsThisRow / hitsAllRows;
+                }
+            }
+        }
+        return score;
+    }
+}
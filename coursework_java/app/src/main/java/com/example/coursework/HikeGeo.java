@@ -0,0 +1,101 @@
+package com.example.coursework;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.util.Log;
+
+import java.util.Locale;
+
+// Index không gian cho toạ độ hike: bảng R*Tree (id, khung lat, khung lon), mỗi hike có toạ độ là
+// 1 điểm (min = max). Trigger trên hikes giữ bảng khớp với mọi insert/update/delete.
+// Tìm theo vùng = lọc khung bằng R*Tree rồi tính khoảng cách thật (GeoBounds.distanceKm) trên
+// vài ứng viên còn lại, xem HikeDbHelper.findHikesWithin().
+// R*Tree lưu float 32 bit nhưng làm tròn khung ra ngoài, nên không sót điểm; khoảng cách thật
+// đọc từ cột REAL của hikes.
+final class HikeGeo {
+
+    private static final String TAG = "HikeGeo";
+
+    static final String TABLE_GEO = "hikes_geo";
+    static final String COL_ID = "id";
+    static final String COL_MIN_LAT = "min_lat";
+    static final String COL_MAX_LAT = "max_lat";
+    static final String COL_MIN_LON = "min_lon";
+    static final String COL_MAX_LON = "max_lon";
+
+    private HikeGeo() {}
+
+    static void create(SQLiteDatabase db) {
+        String cols = COL_ID + ", " + COL_MIN_LAT + ", " + COL_MAX_LAT + ", " +
+                COL_MIN_LON + ", " + COL_MAX_LON;
+        try {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_GEO + " USING rtree(" + cols + ")");
+        } catch (SQLiteException e) {
+            // SQLite của máy không build kèm module rtree: bảng thường cùng tên cột, trigger giữ
+            // nguyên, index theo vĩ độ thay cho R*Tree (query dùng boxSelection(false))
+            Log.w(TAG, "rtree not available, falling back to a plain table", e);
+            db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_GEO + " (" +
+                    COL_ID + " INTEGER PRIMARY KEY, " + COL_MIN_LAT + " REAL, " +
+                    COL_MAX_LAT + " REAL, " + COL_MIN_LON + " REAL, " + COL_MAX_LON + " REAL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_" + TABLE_GEO + "_lat ON " + TABLE_GEO +
+                    "(" + COL_MIN_LAT + ", " + COL_MIN_LON + ")");
+        }
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TABLE_GEO + "_ai AFTER INSERT ON " +
+                HikeDbHelper.TABLE_HIKES + " BEGIN " + INSERT + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TABLE_GEO + "_ad AFTER DELETE ON " +
+                HikeDbHelper.TABLE_HIKES + " BEGIN " + DELETE + " END");
+        createUpdateTrigger(db);
+    }
+
+    private static final String INSERT = "INSERT INTO " + TABLE_GEO + " (" + COL_ID + ", " +
+            COL_MIN_LAT + ", " + COL_MAX_LAT + ", " + COL_MIN_LON + ", " + COL_MAX_LON +
+            ") SELECT new." + HikeDbHelper.COL_ID + ", new." + HikeDbHelper.COL_LATITUDE +
+            ", new." + HikeDbHelper.COL_LATITUDE + ", new." + HikeDbHelper.COL_LONGITUDE +
+            ", new." + HikeDbHelper.COL_LONGITUDE + " WHERE new." + HikeDbHelper.COL_LATITUDE +
+            " IS NOT NULL AND new." + HikeDbHelper.COL_LONGITUDE + " IS NOT NULL;";
+    private static final String DELETE = "DELETE FROM " + TABLE_GEO + " WHERE " + COL_ID +
+            " = old." + HikeDbHelper.COL_ID + ";";
+
+    // UPDATE của HikeDbHelper ghi lại mọi cột kể cả toạ độ (SQL_UPDATE_HIKE), nên chỉ "AFTER UPDATE
+    // OF" thì mọi lần sửa hike đều xoá rồi chèn lại dòng R*Tree. WHEN so toạ độ cũ/mới (IS NOT để
+    // NULL so đúng): sửa tên / mô tả không đụng tới index.
+    static void createUpdateTrigger(SQLiteDatabase db) {
+        String lat = HikeDbHelper.COL_LATITUDE, lon = HikeDbHelper.COL_LONGITUDE;
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TABLE_GEO + "_au AFTER UPDATE OF " + lat +
+                ", " + lon + " ON " + HikeDbHelper.TABLE_HIKES + " WHEN old." + lat +
+                " IS NOT new." + lat + " OR old." + lon + " IS NOT new." + lon +
+                " BEGIN " + DELETE + INSERT + " END");
+    }
+
+    // TABLE_GEO là R*Tree hay bảng thường (fallback lúc create), đọc từ schema của DB
+    static boolean isRtree(SQLiteDatabase db) {
+        Cursor c = db.rawQuery("SELECT sql FROM sqlite_master WHERE name = ?",
+                new String[]{TABLE_GEO});
+        try {
+            return c.moveToFirst() && c.getString(0) != null &&
+                    c.getString(0).toLowerCase(Locale.ROOT).contains("using rtree");
+        } finally {
+            c.close();
+        }
+    }
+
+    // Điều kiện khung cho query trên TABLE_GEO (alias g), 4 tham số theo thứ tự của boxArgs().
+    // R*Tree: so khung đã làm tròn ra ngoài (max >= min của vùng, min <= max của vùng) để không sót
+    // điểm ở biên. Bảng thường giữ REAL chính xác và mỗi dòng là 1 điểm (min = max), nên so thẳng
+    // min_lat BETWEEN: index (min_lat, min_lon) chỉ quét dải vĩ độ của vùng thay vì nửa bảng.
+    static String boxSelection(boolean rtree) {
+        if (!rtree) {
+            return "g." + COL_MIN_LAT + " BETWEEN ? AND ? AND g." +
+                    COL_MIN_LON + " BETWEEN ? AND ?";
+        }
+        return "g." + COL_MAX_LAT + " >= ? AND g." + COL_MIN_LAT + " <= ? AND g." +
+                COL_MAX_LON + " >= ? AND g." + COL_MIN_LON + " <= ?";
+    }
+
+    static String[] boxArgs(GeoBounds box) {
+        return new String[]{String.valueOf(box.minLat), String.valueOf(box.maxLat),
+                String.valueOf(box.minLon), String.valueOf(box.maxLon)};
+    }
+}
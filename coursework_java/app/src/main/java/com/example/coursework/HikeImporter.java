@@ -0,0 +1,352 @@
+package com.example.coursework;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+// Import hike (+ observations lồng bên trong) từ CSV/NDJSON.
+// Đọc từng record, validate giống form, insert theo chunk qua bulk API nên bộ nhớ không phụ thuộc kích thước file.
+// Chạy trên background thread, callback trả về main thread.
+public class HikeImporter {
+
+    public interface Listener {
+        void onProgress(long bytesRead, long totalBytes, int hikesImported);
+        // cancelled = true nếu user huỷ; các chunk đã commit trước đó vẫn được giữ
+        void onFinished(ImportResult hikes, ImportResult observations, boolean cancelled);
+        void onError(Exception e);
+    }
+
+    // Số hike gom lại trước khi insert
+    static final int CHUNK_SIZE = HikeDbHelper.BULK_COMMIT_EVERY;
+    private static final long PROGRESS_INTERVAL_MS = 100;
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newSingleThreadExecutor(HikeRepository.namedThreads("hike-importer"));
+
+    private final HikeDbHelper dbHelper;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    // ----- chunk hiện tại -----
+    private final List<Hike> chunkHikes = new ArrayList<>();
+    private final List<Integer> chunkLines = new ArrayList<>();
+    private final List<List<Observation>> chunkObs = new ArrayList<>();
+    private final ImportResult hikeResult = new ImportResult();
+    private final ImportResult obsResult = new ImportResult();
+
+    public HikeImporter(HikeDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    // totalBytes <= 0 nếu không biết kích thước file
+    public void start(InputStream in, long totalBytes, HikeFileFormat.Type type, Listener listener) {
+        EXECUTOR.execute(() -> {
+            CountingInputStream counting = new CountingInputStream(in);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(maybeGunzip(counting), StandardCharsets.UTF_8), 64 * 1024)) {
+                ProgressReporter progress = new ProgressReporter(counting, totalBytes, listener);
+                if (type == HikeFileFormat.Type.CSV) {
+                    readCsv(reader, progress);
+                } else {
+                    readNdjson(reader, progress);
+                }
+                // huỷ thì bỏ chunk đang gom (chưa commit): kết quả chỉ gồm các chunk đã commit
+                boolean wasCancelled = cancelled.get();
+                if (wasCancelled) {
+                    clearChunk();
+                } else {
+                    flushChunk();
+                }
+                progress.report(true);
+                mainHandler.post(() -> listener.onFinished(hikeResult, obsResult, wasCancelled));
+            } catch (IOException | RuntimeException e) {
+                mainHandler.post(() -> listener.onError(e));
+            }
+        });
+    }
+
+    // File export (HikeExporter) là .gz -> nhận diện theo magic bytes 1f 8b.
+    // Progress vẫn đếm byte nén vì CountingInputStream nằm dưới GZIPInputStream.
+    private static InputStream maybeGunzip(InputStream in) throws IOException {
+        BufferedInputStream bin = new BufferedInputStream(in, 64 * 1024);
+        bin.mark(2);
+        int b1 = bin.read();
+        int b2 = bin.read();
+        bin.reset();
+        if (b1 == 0x1f && b2 == 0x8b) {
+            return new GZIPInputStream(bin, 64 * 1024);
+        }
+        return bin;
+    }
+
+    // ===== NDJSON =====
+
+    private void readNdjson(BufferedReader reader, ProgressReporter progress) throws IOException {
+        String line;
+        int lineNo = 0;
+        while (!cancelled.get() && (line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.trim().isEmpty()) continue;
+            try {
+                JSONObject o = new JSONObject(line);
+                Hike hike = HikeNdjsonReader.parseHike(o);
+                List<Observation> obs = new ArrayList<>();
+                JSONArray arr = o.optJSONArray(HikeFileFormat.KEY_OBSERVATIONS);
+                if (arr != null) {
+                    for (int i = 0; i < arr.length(); i++) {
+                        JSONObject jo = arr.getJSONObject(i);
+                        String title = HikeNdjsonReader.optString(jo, HikeFileFormat.KEY_OBS_TITLE);
+                        String comment =
+                                HikeNdjsonReader.optString(jo, HikeFileFormat.KEY_OBS_COMMENT);
+                        Object time = jo.opt(HikeFileFormat.KEY_OBS_TIME);
+                        if (time instanceof Number) {
+                            // format hiện tại: epoch millis
+                            addObservation(obs, lineNo, title, ((Number) time).longValue(), comment);
+                        } else {
+                            addObservation(obs, lineNo, title,
+                                    HikeNdjsonReader.optString(jo, HikeFileFormat.KEY_OBS_TIME),
+                                    comment);
+                        }
+                    }
+                }
+                addToChunk(hike, obs, lineNo);
+            } catch (JSONException e) {
+                hikeResult.addFailure(lineNo, "Invalid JSON: " + e.getMessage());
+            } catch (HikeValidator.ValidationException e) {
+                hikeResult.addFailure(lineNo, e.getMessage());
+            }
+            progress.report(false);
+        }
+    }
+
+    // ===== CSV =====
+
+    private void readCsv(BufferedReader reader, ProgressReporter progress) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return;
+        Map<String, Integer> cols = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            cols.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        List<String> row;
+        int recordNo = 1;
+        Hike current = null;
+        List<Observation> currentObs = null;
+        int currentLine = 0;
+        while (!cancelled.get() && (row = csv.next()) != null) {
+            recordNo++;
+            if (row.size() == 1 && row.get(0).trim().isEmpty()) continue;
+
+            String record = field(row, cols, HikeFileFormat.CSV_RECORD);
+            if (HikeFileFormat.CSV_RECORD_OBS.equalsIgnoreCase(record)) {
+                // obs của hike bị lỗi (hoặc không có hike trước đó) thì bỏ qua cùng hike
+                if (currentObs != null) {
+                    addObservation(currentObs, recordNo,
+                            field(row, cols, HikeFileFormat.CSV_OBS_TITLE),
+                            field(row, cols, HikeFileFormat.CSV_OBS_TIME),
+                            field(row, cols, HikeFileFormat.CSV_OBS_COMMENT));
+                } else {
+                    obsResult.addFailure(recordNo, "Observation without a valid hike");
+                }
+                continue;
+            }
+
+            if (current != null) {
+                addToChunk(current, currentObs, currentLine);
+            }
+            current = null;
+            currentObs = null;
+            try {
+                current = HikeValidator.validate(-1,
+                        field(row, cols, HikeDbHelper.COL_NAME),
+                        field(row, cols, HikeDbHelper.COL_LOCATION),
+                        field(row, cols, HikeDbHelper.COL_DATE),
+                        field(row, cols, HikeDbHelper.COL_DIFFICULTY),
+                        field(row, cols, HikeDbHelper.COL_DISTANCE),
+                        field(row, cols, HikeDbHelper.COL_DURATION),
+                        field(row, cols, HikeDbHelper.COL_ELEVATION),
+                        field(row, cols, HikeDbHelper.COL_GROUP_SIZE),
+                        HikeFileFormat.parseBoolean(field(row, cols, HikeDbHelper.COL_PARKING)),
+                        field(row, cols, HikeDbHelper.COL_TERRAIN),
+                        field(row, cols, HikeDbHelper.COL_DESC));
+                current = HikeValidator.withCoordinates(current,
+                        field(row, cols, HikeDbHelper.COL_LATITUDE),
+                        field(row, cols, HikeDbHelper.COL_LONGITUDE));
+                currentObs = new ArrayList<>();
+                currentLine = recordNo;
+            } catch (HikeValidator.ValidationException e) {
+                hikeResult.addFailure(recordNo, e.getMessage());
+            }
+            progress.report(false);
+        }
+        if (current != null && !cancelled.get()) {
+            addToChunk(current, currentObs, currentLine);
+        }
+    }
+
+    private static String field(List<String> row, Map<String, Integer> cols, String name) {
+        Integer i = cols.get(name);
+        if (i == null || i >= row.size()) return null;
+        return row.get(i);
+    }
+
+    // Rule giống AddEditObservationActivity: title bắt buộc, time trống thì lấy thời điểm hiện tại
+    private void addObservation(List<Observation> target, int lineNo,
+                                String title, String time, String comment) {
+        long timeMillis;
+        if (time == null || time.trim().isEmpty()) {
+            timeMillis = System.currentTimeMillis();
+        } else {
+            Long parsed = HikeDates.parseTime(time);
+            if (parsed == null) {
+                obsResult.addFailure(lineNo, "Observation time must be yyyy-MM-dd HH:mm");
+                return;
+            }
+            timeMillis = parsed;
+        }
+        addObservation(target, lineNo, title, timeMillis, comment);
+    }
+
+    private void addObservation(List<Observation> target, int lineNo,
+                                String title, long timeMillis, String comment) {
+        if (title == null || title.trim().isEmpty()) {
+            obsResult.addFailure(lineNo, "Observation title is required");
+            return;
+        }
+        target.add(new Observation(-1, title.trim(), timeMillis,
+                comment == null ? null : comment.trim()));
+    }
+
+    // ===== chunk =====
+
+    private void addToChunk(Hike hike, List<Observation> obs, int lineNo) {
+        chunkHikes.add(hike);
+        chunkObs.add(obs);
+        chunkLines.add(lineNo);
+        if (chunkHikes.size() >= CHUNK_SIZE && !cancelled.get()) {
+            flushChunk();
+        }
+    }
+
+    private void flushChunk() {
+        if (chunkHikes.isEmpty()) return;
+
+        ImportResult r = dbHelper.insertHikes(chunkHikes);
+        boolean[] failed = new boolean[chunkHikes.size()];
+        for (ImportResult.Failure f : r.getFailures()) {
+            failed[f.getIndex()] = true;
+            hikeResult.addFailure(chunkLines.get(f.getIndex()), f.getReason());
+        }
+
+        // gắn hike_id vừa insert cho observations rồi insert 1 lượt
+        List<Observation> obsToInsert = new ArrayList<>();
+        List<Integer> obsLines = new ArrayList<>();
+        for (int i = 0; i < chunkHikes.size(); i++) {
+            if (failed[i]) continue;
+            hikeResult.addImported();
+            long hikeId = chunkHikes.get(i).getId();
+            for (Observation o : chunkObs.get(i)) {
+                obsToInsert.add(new Observation(hikeId, o.getTitle(), o.getTimeMillis(), o.getComment()));
+                obsLines.add(chunkLines.get(i));
+            }
+        }
+        if (!obsToInsert.isEmpty()) {
+            ImportResult ro = dbHelper.insertObservations(obsToInsert);
+            for (int i = 0; i < ro.getImportedCount(); i++) obsResult.addImported();
+            for (ImportResult.Failure f : ro.getFailures()) {
+                obsResult.addFailure(obsLines.get(f.getIndex()), f.getReason());
+            }
+        }
+
+        clearChunk();
+    }
+
+    private void clearChunk() {
+        chunkHikes.clear();
+        chunkObs.clear();
+        chunkLines.clear();
+    }
+
+    // ===== progress =====
+
+    private class ProgressReporter {
+        private final CountingInputStream counting;
+        private final long totalBytes;
+        private final Listener listener;
+        private long lastReport;
+
+        ProgressReporter(CountingInputStream counting, long totalBytes, Listener listener) {
+            this.counting = counting;
+            this.totalBytes = totalBytes;
+            this.listener = listener;
+        }
+
+        // giới hạn số lần post lên main thread
+        void report(boolean force) {
+            long now = SystemClock.uptimeMillis();
+            if (!force && now - lastReport < PROGRESS_INTERVAL_MS) return;
+            lastReport = now;
+            long read = counting.getCount();
+            int imported = hikeResult.getImportedCount();
+            mainHandler.post(() -> listener.onProgress(read, totalBytes, imported));
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() { return count; }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
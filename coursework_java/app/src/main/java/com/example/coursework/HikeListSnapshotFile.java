@@ -0,0 +1,76 @@
+package com.example.coursework;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// File chứa HikeListSnapshot của màn hình đầu danh sách (filter mặc định), trong filesDir.
+// - read(): đọc cả file (vài KB) rồi decode, đủ nhanh để gọi trên main thread trong onCreate (không
+//   mở DB). File nhỏ như vậy thì mmap không nhanh hơn mà thêm 1 lần map/unmap.
+// - write(): ghi file tạm rồi rename đè lên -> lúc đọc chỉ thấy bản cũ hoặc bản mới nguyên vẹn.
+//   Dòng không đổi so với lần ghi trước thì bỏ qua, không ghi đĩa lại.
+// - generation: lấy bằng nextGeneration() lúc bắt đầu load; lần ghi có generation cũ hơn lần ghi
+//   trước (load cũ xong muộn hơn load mới) bị bỏ qua.
+final class HikeListSnapshotFile {
+
+    private static final String TAG = "HikeListSnapshotFile";
+    static final String FILE = "hike_list.snapshot";
+    // Số dòng lưu: đủ phủ 1 màn hình dọc của item_hike trên máy cao nhất
+    static final int ROWS = 20;
+
+    // nội dung file hiện tại (đã đọc hoặc vừa ghi), để bỏ qua lần ghi trùng
+    private static volatile List<HikeSummary> lastWritten;
+    private static final AtomicLong generations = new AtomicLong();
+    // generation của lần ghi gần nhất, chỉ đọc/ghi trong write()
+    private static long lastGeneration = -1;
+
+    private HikeListSnapshotFile() {}
+
+    // null nếu chưa có snapshot hoặc file hỏng
+    static List<HikeSummary> read(Context ctx) {
+        File file = new File(ctx.getFilesDir(), FILE);
+        if (!file.isFile()) return null;
+        try {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            List<HikeSummary> rows = HikeListSnapshot.decode(ByteBuffer.wrap(bytes));
+            if (rows != null) lastWritten = rows;
+            return rows;
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read list snapshot", e);
+            return null;
+        }
+    }
+
+    static long nextGeneration() {
+        return generations.incrementAndGet();
+    }
+
+    static synchronized void write(Context ctx, List<HikeSummary> rows, long generation) {
+        if (generation < lastGeneration) return;
+        lastGeneration = generation;
+        if (rows.equals(lastWritten)) return;
+        File file = new File(ctx.getFilesDir(), FILE);
+        File tmp = new File(ctx.getFilesDir(), FILE + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(HikeListSnapshot.encode(rows));
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot write list snapshot", e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            Log.w(TAG, "Cannot replace " + file);
+            tmp.delete();
+            return;
+        }
+        lastWritten = rows;
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.coursework;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.SystemClock;
+import android.util.Log;
+
+import static com.example.coursework.HikeDbHelper.*;
+
+// Schema DB theo từng version, không bao giờ drop dữ liệu người dùng.
+// - onCreate: dựng schema gốc v3 rồi chạy mọi bước -> cài mới và nâng cấp đi chung 1 đường code.
+// - onUpgrade: chạy lần lượt các bước từ oldVersion lên newVersion, mỗi bước trong 1 transaction lồng;
+//   bước nào lỗi thì cả lần nâng cấp rollback, DB giữ version cũ và lần mở sau chạy lại.
+// Đổi schema = thêm 1 Step vào cuối STEPS. Không sửa bước đã phát hành.
+final class HikeMigrations {
+
+    private static final String TAG = "HikeMigrations";
+
+    // version thấp nhất có schema rõ ràng; trước đó xem upgradeLegacy()
+    static final int BASE_VERSION = 3;
+
+    interface Migration {
+        void migrate(SQLiteDatabase db);
+    }
+
+    private static final class Step {
+        final int toVersion;
+        final Migration migration;
+
+        Step(int toVersion, Migration migration) {
+            this.toVersion = toVersion;
+            this.migration = migration;
+        }
+    }
+
+    // Thứ tự tăng dần, liên tục từ BASE_VERSION + 1
+    private static final Step[] STEPS = {
+            new Step(4, HikeMigrations::toV4),
+            new Step(5, HikeMigrations::toV5),
+            new Step(6, HikeMigrations::toV6),
+            new Step(7, HikeMigrations::toV7),
+            new Step(8, HikeMigrations::toV8),
+            new Step(9, HikeMigrations::toV9),
+            new Step(10, HikeMigrations::toV10),
+            new Step(11, HikeMigrations::toV11),
+            new Step(12, HikeMigrations::toV12),
+            new Step(13, HikeMigrations::toV13),
+            new Step(14, HikeMigrations::toV14),
+    };
+
+    static final int LATEST_VERSION = BASE_VERSION + STEPS.length;
+
+    private HikeMigrations() {}
+
+    static void create(SQLiteDatabase db) {
+        createV3(db);
+        migrate(db, BASE_VERSION, LATEST_VERSION);
+    }
+
+    static void upgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < BASE_VERSION) {
+            upgradeLegacy(db);
+            oldVersion = BASE_VERSION;
+        }
+        migrate(db, oldVersion, newVersion);
+    }
+
+    private static void migrate(SQLiteDatabase db, int from, int to) {
+        if (to > LATEST_VERSION) {
+            throw new IllegalStateException("No migration to v" + to);
+        }
+        for (int i = 0; i < STEPS.length; i++) {
+            Step step = STEPS[i];
+            if (step.toVersion != BASE_VERSION + i + 1) {
+                throw new IllegalStateException("Migration steps out of order at v" + step.toVersion);
+            }
+            if (step.toVersion <= from || step.toVersion > to) continue;
+
+            long start = SystemClock.elapsedRealtime();
+            db.beginTransaction();
+            try {
+                step.migration.migrate(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            Log.i(TAG, "Migrated to v" + step.toVersion + " in " +
+                    (SystemClock.elapsedRealtime() - start) + " ms");
+        }
+    }
+
+    // ===== v3: schema gốc =====
+
+    private static void createV3(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_HIKES + " (" +
+                COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_NAME + " TEXT NOT NULL, " +
+                COL_LOCATION + " TEXT NOT NULL, " +
+                COL_DATE + " TEXT NOT NULL, " +
+                COL_DIFFICULTY + " TEXT NOT NULL, " +
+                COL_DISTANCE + " REAL NOT NULL, " +
+                COL_DURATION + " REAL NOT NULL, " +
+                COL_ELEVATION + " INTEGER NOT NULL, " +
+                COL_PARKING + " INTEGER NOT NULL, " +
+                COL_GROUP_SIZE + " INTEGER NOT NULL, " +
+                COL_TERRAIN + " TEXT, " +
+                COL_DESC + " TEXT" +
+                ");");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_OBS + " (" +
+                COL_OBS_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_OBS_HIKE_ID + " INTEGER NOT NULL, " +
+                COL_OBS_TITLE + " TEXT NOT NULL, " +
+                COL_OBS_TIME + " TEXT NOT NULL, " +
+                COL_OBS_COMMENT + " TEXT, " +
+                "FOREIGN KEY(" + COL_OBS_HIKE_ID + ") REFERENCES " +
+                TABLE_HIKES + "(" + COL_ID + ") ON DELETE CASCADE" +
+                ");");
+    }
+
+    // v1/v2 chưa có group_size và terrain (v3 thêm 2 cột này). Trước đây onUpgrade drop hết;
+    // giờ giữ dữ liệu: tạo bảng còn thiếu và thêm cột còn thiếu với giá trị mặc định.
+    private static void upgradeLegacy(SQLiteDatabase db) {
+        createV3(db);
+        addColumnIfMissing(db, TABLE_HIKES, COL_GROUP_SIZE, "INTEGER NOT NULL DEFAULT 1");
+        addColumnIfMissing(db, TABLE_HIKES, COL_TERRAIN, "TEXT");
+    }
+
+    // ===== v4: index cho paging theo (date, _id) =====
+
+    private static void toV4(SQLiteDatabase db) {
+        createIndexesV4(db);
+    }
+
+    private static void createIndexesV4(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_hikes_date ON " +
+                TABLE_HIKES + "(" + COL_DATE + ")");
+    }
+
+    // ===== v5: cột name_norm / location_norm + index cho filter bằng SQL =====
+
+    // Giá trị chuẩn hoá tính trong Java vì lower() của SQLite chỉ hiểu ASCII
+    private static void toV5(SQLiteDatabase db) {
+        addColumnIfMissing(db, TABLE_HIKES, COL_NAME_NORM, "TEXT NOT NULL DEFAULT ''");
+        addColumnIfMissing(db, TABLE_HIKES, COL_LOCATION_NORM, "TEXT NOT NULL DEFAULT ''");
+        updateInChunks(db, TABLE_HIKES, COL_NAME + ", " + COL_LOCATION,
+                "UPDATE " + TABLE_HIKES + " SET " + COL_NAME_NORM + "=?, " +
+                        COL_LOCATION_NORM + "=? WHERE " + COL_ID + "=?",
+                (row, update) -> {
+                    update.bindString(1, HikeQuery.normalize(row.getString(1)));
+                    update.bindString(2, HikeQuery.normalize(row.getString(2)));
+                    update.bindLong(3, row.getLong(0));
+                });
+        createIndexesV5(db);
+    }
+
+    private static void createIndexesV5(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_hikes_name_norm ON " +
+                TABLE_HIKES + "(" + COL_NAME_NORM + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_hikes_location_norm ON " +
+                TABLE_HIKES + "(" + COL_LOCATION_NORM + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_hikes_distance ON " +
+                TABLE_HIKES + "(" + COL_DISTANCE + ")");
+    }
+
+    // ===== v6: bảng FTS4 + trigger đồng bộ =====
+
+    private static void toV6(SQLiteDatabase db) {
+        HikeFts.create(db);
+        HikeFts.rebuild(db);
+    }
+
+    // ===== v7: date -> epoch day, observation time -> epoch millis =====
+
+    // SQLite không đổi kiểu cột được nên dựng bảng mới, copy giữ nguyên _id (docid của FTS vẫn đúng),
+    // chuyển đổi ngày giờ trong Java theo từng khúc, rồi thay bảng cũ.
+    // FK chỉ bật trong HikeDbHelper.onOpen nên DROP TABLE hikes ở đây không cascade sang observations.
+    private static void toV7(SQLiteDatabase db) {
+        String hikesTmp = TABLE_HIKES + "_v7";
+        String obsTmp = TABLE_OBS + "_v7";
+        db.execSQL("CREATE TABLE " + hikesTmp + " (" +
+                COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_NAME + " TEXT NOT NULL, " +
+                COL_LOCATION + " TEXT NOT NULL, " +
+                COL_DATE + " INTEGER NOT NULL, " +          // epoch day
+                COL_DIFFICULTY + " TEXT NOT NULL, " +
+                COL_DISTANCE + " REAL NOT NULL, " +
+                COL_DURATION + " REAL NOT NULL, " +
+                COL_ELEVATION + " INTEGER NOT NULL, " +
+                COL_PARKING + " INTEGER NOT NULL, " +
+                COL_GROUP_SIZE + " INTEGER NOT NULL, " +
+                COL_TERRAIN + " TEXT, " +
+                COL_DESC + " TEXT, " +
+                COL_NAME_NORM + " TEXT NOT NULL DEFAULT '', " +
+                COL_LOCATION_NORM + " TEXT NOT NULL DEFAULT ''" +
+                ");");
+        db.execSQL("CREATE TABLE " + obsTmp + " (" +
+                COL_OBS_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_OBS_HIKE_ID + " INTEGER NOT NULL, " +
+                COL_OBS_TITLE + " TEXT NOT NULL, " +
+                COL_OBS_TIME + " INTEGER NOT NULL, " +      // epoch millis
+                COL_OBS_COMMENT + " TEXT, " +
+                "FOREIGN KEY(" + COL_OBS_HIKE_ID + ") REFERENCES " +
+                TABLE_HIKES + "(" + COL_ID + ") ON DELETE CASCADE" +
+                ");");
+
+        String hikeCols = COL_ID + ", " + COL_NAME + ", " + COL_LOCATION + ", " +
+                COL_DIFFICULTY + ", " + COL_DISTANCE + ", " + COL_DURATION + ", " +
+                COL_ELEVATION + ", " + COL_PARKING + ", " + COL_GROUP_SIZE + ", " +
+                COL_TERRAIN + ", " + COL_DESC + ", " + COL_NAME_NORM + ", " + COL_LOCATION_NORM;
+        db.execSQL("INSERT INTO " + hikesTmp + " (" + hikeCols + ", " + COL_DATE + ") SELECT " +
+                hikeCols + ", 0 FROM " + TABLE_HIKES);
+        String obsCols = COL_OBS_ID + ", " + COL_OBS_HIKE_ID + ", " + COL_OBS_TITLE + ", " +
+                COL_OBS_COMMENT;
+        db.execSQL("INSERT INTO " + obsTmp + " (" + obsCols + ", " + COL_OBS_TIME + ") SELECT " +
+                obsCols + ", 0 FROM " + TABLE_OBS);
+
+        // text không parse được thì để 0 và ghi log, không làm hỏng cả lần nâng cấp
+        int[] invalid = new int[1];
+        updateInChunks(db, TABLE_HIKES, COL_DATE,
+                "UPDATE " + hikesTmp + " SET " + COL_DATE + "=? WHERE " + COL_ID + "=?",
+                (row, update) -> {
+                    Long day = HikeDates.parseDate(row.getString(1));
+                    if (day == null) invalid[0]++;
+                    update.bindLong(1, day == null ? 0 : day);
+                    update.bindLong(2, row.getLong(0));
+                });
+        updateInChunks(db, TABLE_OBS, COL_OBS_TIME,
+                "UPDATE " + obsTmp + " SET " + COL_OBS_TIME + "=? WHERE " + COL_OBS_ID + "=?",
+                (row, update) -> {
+                    Long millis = HikeDates.parseTime(row.getString(1));
+                    if (millis == null) invalid[0]++;
+                    update.bindLong(1, millis == null ? 0 : millis);
+                    update.bindLong(2, row.getLong(0));
+                });
+        if (invalid[0] > 0) {
+            Log.w(TAG, invalid[0] + " dates/times could not be parsed and were set to 0");
+        }
+        copySequence(db, TABLE_HIKES, hikesTmp);
+        copySequence(db, TABLE_OBS, obsTmp);
+
+        // trigger FTS và index bị xoá cùng bảng cũ, tạo lại trên bảng mới
+        db.execSQL("DROP TABLE " + TABLE_OBS);
+        db.execSQL("DROP TABLE " + TABLE_HIKES);
+        db.execSQL("ALTER TABLE " + hikesTmp + " RENAME TO " + TABLE_HIKES);
+        db.execSQL("ALTER TABLE " + obsTmp + " RENAME TO " + TABLE_OBS);
+        createIndexesV4(db);
+        createIndexesV5(db);
+        HikeFts.create(db);
+        // timeline observation của 1 hike (WHERE hike_id = ? ORDER BY time) và tra FK khi xoá hike
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_obs_hike_time ON " +
+                TABLE_OBS + "(" + COL_OBS_HIKE_ID + ", " + COL_OBS_TIME + ")");
+    }
+
+    // ===== v8: bảng thống kê cho dashboard, trigger giữ cập nhật =====
+
+    private static void toV8(SQLiteDatabase db) {
+        HikeStats.create(db);
+        HikeStats.rebuild(db);
+    }
+
+    // ===== v9: toạ độ hike + index R*Tree cho tìm theo vị trí =====
+
+    private static void toV9(SQLiteDatabase db) {
+        addColumnIfMissing(db, TABLE_HIKES, COL_LATITUDE, "REAL");
+        addColumnIfMissing(db, TABLE_HIKES, COL_LONGITUDE, "REAL");
+        // hike cũ chưa có toạ độ nên index bắt đầu rỗng
+        HikeGeo.create(db);
+    }
+
+    // ===== v10: track GPS nén theo chunk =====
+
+    private static void toV10(SQLiteDatabase db) {
+        HikeTracks.create(db);
+    }
+
+    // ===== v11: ảnh đính kèm observation (file riêng, bảng chỉ giữ tên file) =====
+
+    private static void toV11(SQLiteDatabase db) {
+        addColumnIfMissing(db, TABLE_OBS, COL_OBS_PHOTO, "TEXT");
+    }
+
+    // ===== v12: trigger cập nhật hike_stats chỉ chạy khi cột thống kê thật sự đổi =====
+
+    private static void toV12(SQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS " + HikeStats.TABLE_STATS + "_au");
+        HikeStats.createUpdateTrigger(db);
+    }
+
+    // ===== v13: trigger cập nhật hikes_geo chỉ chạy khi toạ độ thật sự đổi =====
+
+    private static void toV13(SQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS " + HikeGeo.TABLE_GEO + "_au");
+        HikeGeo.createUpdateTrigger(db);
+    }
+
+    // ===== v14: mốc hysteresis độ cao leo lưu cùng chunk track =====
+
+    private static void toV14(SQLiteDatabase db) {
+        // chunk cũ để NULL: ghi tiếp các track đó lấy mốc theo điểm cuối như trước
+        addColumnIfMissing(db, HikeTracks.TABLE_TRACKS, HikeTracks.COL_GAIN_REFERENCE, "REAL");
+    }
+
+    // ===== helper cho các bước =====
+
+    interface RowUpdate {
+        // row: cột 0 = _id, tiếp theo là các cột đã chọn
+        void bind(Cursor row, SQLiteStatement update);
+    }
+
+    // Đi qua toàn bộ bảng source theo khúc BULK_COMMIT_EVERY dòng (keyset trên _id) và chạy
+    // updateSql cho từng dòng; cursor mỗi lần chỉ giữ 1 khúc nên bảng lớn không làm đầy bộ nhớ
+    static void updateInChunks(SQLiteDatabase db, String source, String columns,
+                               String updateSql, RowUpdate binder) {
+        SQLiteStatement update = db.compileStatement(updateSql);
+        try {
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                Cursor c = db.rawQuery("SELECT " + COL_ID + ", " + columns + " FROM " + source +
+                        " WHERE " + COL_ID + " > ? ORDER BY " + COL_ID +
+                        " LIMIT " + BULK_COMMIT_EVERY, new String[]{String.valueOf(lastId)});
+                int n = 0;
+                try {
+                    while (c.moveToNext()) {
+                        lastId = c.getLong(0);
+                        update.clearBindings();
+                        binder.bind(c, update);
+                        update.executeUpdateDelete();
+                        n++;
+                    }
+                } finally {
+                    c.close();
+                }
+                if (n < BULK_COMMIT_EVERY) break;
+            }
+        } finally {
+            update.close();
+        }
+    }
+
+    static void addColumnIfMissing(SQLiteDatabase db, String table, String column, String type) {
+        if (!hasColumn(db, table, column)) {
+            db.execSQL("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+        }
+    }
+
+    static boolean hasColumn(SQLiteDatabase db, String table, String column) {
+        Cursor c = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        try {
+            int nameIdx = c.getColumnIndexOrThrow("name");
+            while (c.moveToNext()) {
+                if (column.equalsIgnoreCase(c.getString(nameIdx))) return true;
+            }
+            return false;
+        } finally {
+            c.close();
+        }
+    }
+
+    // Giữ bộ đếm AUTOINCREMENT của bảng cũ để id đã xoá không bị cấp lại
+    private static void copySequence(SQLiteDatabase db, String from, String to) {
+        db.execSQL("UPDATE sqlite_sequence SET seq = MAX(seq, IFNULL(" +
+                        "(SELECT seq FROM sqlite_sequence WHERE name = ?), 0)) WHERE name = ?",
+                new Object[]{from, to});
+    }
+}
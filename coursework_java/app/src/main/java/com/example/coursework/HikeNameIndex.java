@@ -0,0 +1,257 @@
+package com.example.coursework;
+
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Index tên hike trong bộ nhớ cho search-as-you-type, trả lời không cần đụng SQLite.
+// - Tên lưu ở dạng chuẩn hoá (HikeQuery.normalize) trong mảng slot; mỗi trigram (3 ký tự liên tiếp)
+//   trỏ tới danh sách slot có chứa nó.
+// - Tìm chuỗi con >= 3 ký tự: lấy danh sách ngắn nhất trong các trigram của chuỗi rồi kiểm tra lại
+//   từng ứng viên; chuỗi ngắn hơn thì quét tuyến tính các tên (vẫn nhanh với vài chục nghìn tên).
+// - Dựng 1 lần từ bảng hikes khi dùng lần đầu, sau đó cập nhật theo HikeChangeListener.
+//   Update = bỏ slot cũ + thêm slot mới; slot chết nhiều quá thì dồn lại.
+// Khoá: listener được gọi khi HikeDbHelper đang giữ lock của nó, nên trong lúc giữ monitor của
+// index không được gọi vào helper (ngược thứ tự -> deadlock). Lúc dựng, phần đọc DB chạy ngoài
+// monitor (chỉ giữ buildLock), thay đổi tới trong lúc đó được xếp hàng rồi áp dụng sau.
+public class HikeNameIndex implements HikeDbHelper.HikeChangeListener {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static HikeNameIndex instance;
+
+    private final HikeDbHelper dbHelper;
+    private final Object buildLock = new Object();
+    private boolean built;
+    // != null khi đang quét DB để dựng: thay đổi tới trong lúc quét, áp dụng lại sau khi quét xong
+    private List<Runnable> changesDuringBuild;
+
+    // slot -> dữ liệu; names[slot] == null nghĩa là slot đã bị xoá
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] dates = new long[INITIAL_CAPACITY];
+    private int slotCount;
+    private int deadCount;
+    private final Map<Long, Integer> slotOfId = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    public static synchronized HikeNameIndex getInstance(HikeDbHelper dbHelper) {
+        if (instance == null) {
+            instance = new HikeNameIndex(dbHelper);
+            dbHelper.addHikeChangeListener(instance);
+        }
+        return instance;
+    }
+
+    private HikeNameIndex(HikeDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    // _id của các hike có tên chứa (hoặc bắt đầu bằng, nếu prefixOnly) text, không phân biệt
+    // hoa thường / dấu, sắp theo (date, _id) giống HikePager. Text rỗng -> null (không lọc).
+    public long[] search(String text, boolean prefixOnly) {
+        String q = HikeQuery.normalize(text);
+        if (q == null || q.isEmpty()) return null;
+        ensureBuilt();
+        synchronized (this) {
+            return find(q, prefixOnly);
+        }
+    }
+
+    private long[] find(String q, boolean prefixOnly) {
+        int[] found = new int[16];
+        int n = 0;
+        if (q.length() < 3) {
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (matches(slot, q, prefixOnly)) {
+                    if (n == found.length) found = Arrays.copyOf(found, n * 2);
+                    found[n++] = slot;
+                }
+            }
+        } else {
+            IntList candidates = null;
+            for (int i = 0; i + 3 <= q.length(); i++) {
+                IntList list = postings.get(trigram(q, i));
+                if (list == null) return new long[0];
+                if (candidates == null || list.size < candidates.size) candidates = list;
+            }
+            for (int i = 0; i < candidates.size; i++) {
+                int slot = candidates.items[i];
+                if (matches(slot, q, prefixOnly)) {
+                    if (n == found.length) found = Arrays.copyOf(found, n * 2);
+                    found[n++] = slot;
+                }
+            }
+        }
+        return sortedIds(found, n);
+    }
+
+    private boolean matches(int slot, String q, boolean prefixOnly) {
+        String name = names[slot];
+        if (name == null) return false;
+        return prefixOnly ? name.startsWith(q) : name.contains(q);
+    }
+
+    // sắp theo (date, _id), cùng thứ tự với HikePager
+    private long[] sortedIds(int[] slots, int n) {
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = slots[i];
+        Arrays.sort(order, (a, b) -> {
+            int cmp = Long.compare(dates[a], dates[b]);
+            return cmp != 0 ? cmp : Long.compare(ids[a], ids[b]);
+        });
+        long[] out = new long[n];
+        for (int i = 0; i < n; i++) out[i] = ids[order[i]];
+        return out;
+    }
+
+    // ===== dựng index =====
+
+    private void ensureBuilt() {
+        synchronized (buildLock) {
+            synchronized (this) {
+                if (built) return;
+                // từ đây mọi thay đổi được ghi lại; thay đổi trước đó đã nằm trong DB
+                changesDuringBuild = new ArrayList<>();
+            }
+            // quét ngoài monitor: getReadableDatabase() lấy lock của helper
+            int n = 0;
+            long[] rowIds = new long[INITIAL_CAPACITY];
+            long[] rowDates = new long[INITIAL_CAPACITY];
+            String[] rowNames = new String[INITIAL_CAPACITY];
+            Cursor c = dbHelper.getReadableDatabase().rawQuery("SELECT " + HikeDbHelper.COL_ID +
+                    ", " + HikeDbHelper.COL_NAME_NORM + ", " + HikeDbHelper.COL_DATE + " FROM " +
+                    HikeDbHelper.TABLE_HIKES, null);
+            try {
+                while (c.moveToNext()) {
+                    if (n == rowIds.length) {
+                        rowIds = Arrays.copyOf(rowIds, n * 2);
+                        rowDates = Arrays.copyOf(rowDates, n * 2);
+                        rowNames = Arrays.copyOf(rowNames, n * 2);
+                    }
+                    rowIds[n] = c.getLong(0);
+                    rowNames[n] = c.getString(1);
+                    rowDates[n] = c.getLong(2);
+                    n++;
+                }
+            } finally {
+                c.close();
+            }
+            synchronized (this) {
+                for (int i = 0; i < n; i++) put(rowIds[i], rowNames[i], rowDates[i]);
+                // áp dụng lại theo đúng thứ tự; thay đổi quét đã thấy thì put/remove lần nữa vẫn đúng
+                for (Runnable change : changesDuringBuild) change.run();
+                changesDuringBuild = null;
+                built = true;
+            }
+        }
+    }
+
+    private void put(long id, String normName, long date) {
+        remove(id);
+        if (slotCount == names.length) grow();
+        int slot = slotCount++;
+        names[slot] = normName;
+        ids[slot] = id;
+        dates[slot] = date;
+        slotOfId.put(id, slot);
+
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i + 3 <= normName.length(); i++) {
+            Long key = trigram(normName, i);
+            if (!seen.add(key)) continue;
+            IntList list = postings.get(key);
+            if (list == null) {
+                list = new IntList();
+                postings.put(key, list);
+            }
+            list.add(slot);
+        }
+    }
+
+    private void remove(long id) {
+        Integer slot = slotOfId.remove(id);
+        if (slot == null) return;
+        names[slot] = null;
+        deadCount++;
+    }
+
+    // Hết chỗ: nếu hơn nửa là slot chết thì dồn lại (dựng lại postings) thay vì nới mảng
+    private void grow() {
+        if (deadCount * 2 <= slotCount) {
+            int size = names.length * 2;
+            names = Arrays.copyOf(names, size);
+            ids = Arrays.copyOf(ids, size);
+            dates = Arrays.copyOf(dates, size);
+            return;
+        }
+        String[] oldNames = names;
+        long[] oldIds = ids;
+        long[] oldDates = dates;
+        int oldCount = slotCount;
+        reset(oldNames.length);
+        for (int slot = 0; slot < oldCount; slot++) {
+            if (oldNames[slot] != null) put(oldIds[slot], oldNames[slot], oldDates[slot]);
+        }
+    }
+
+    private void reset(int capacity) {
+        names = new String[capacity];
+        ids = new long[capacity];
+        dates = new long[capacity];
+        slotCount = 0;
+        deadCount = 0;
+        slotOfId.clear();
+        postings.clear();
+    }
+
+    // 3 ký tự gói vào 1 long làm khoá
+    private static Long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    // ===== HikeChangeListener: chỉ áp dụng khi index đã dựng (hoặc đang dựng, xem ensureBuilt),
+    // chưa dựng thì lần build sẽ đọc DB. Gọi khi helper đang giữ lock: không gọi ngược vào helper =====
+
+    @Override
+    public synchronized void onHikeSaved(Hike hike) {
+        long id = hike.getId();
+        String name = HikeQuery.normalize(hike.getName());
+        long date = hike.getDateEpochDay();
+        apply(() -> put(id, name, date));
+    }
+
+    @Override
+    public synchronized void onHikeDeleted(long id) {
+        apply(() -> remove(id));
+    }
+
+    @Override
+    public synchronized void onAllHikesDeleted() {
+        apply(() -> reset(INITIAL_CAPACITY));
+    }
+
+    private void apply(Runnable change) {
+        if (built) {
+            change.run();
+        } else if (changesDuringBuild != null) {
+            changesDuringBuild.add(change);
+        }
+    }
+
+    private static class IntList {
+        int[] items = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = v;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.coursework;
+
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Nguồn dữ liệu phân trang cho danh sách hike (thay cho getAllHikes()).
+// Mỗi page PAGE_SIZE dòng (HikeSummary, chỉ cột hiển thị); chỉ giữ các page gần vùng đang hiển thị,
+// page ở xa bị bỏ khỏi bộ nhớ. 2 kiểu nguồn:
+// - filter SQL (where): size đếm sẵn, page lấy bằng keyset pagination trên (date, _id) nhờ index
+//   idx_hikes_date, đi tiếp từ page kề bên đã load; chỉ nhảy xa mới dùng OFFSET. Không bao giờ
+//   đọc toàn bộ _id khớp filter, mở 200k hike tốn như mở 20.
+// - danh sách _id có sẵn (kết quả HikeNameIndex, snapshot lúc mở app): page lấy theo khoá chính.
+// Page được load bất đồng bộ qua HikeRepository; mọi truy cập pager đều ở main thread.
+public class HikePager {
+
+    public static final int PAGE_SIZE = 50;
+    // page cách page vừa truy cập quá khoảng này thì bỏ
+    static final int KEEP_DISTANCE = 3;
+    // còn cách biên page ít hơn số dòng này thì load trước page kế bên
+    static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+
+    static final String ORDER =
+            HikeDbHelper.COL_DATE + " ASC, " + HikeDbHelper.COL_ID + " ASC";
+    private static final String ORDER_DESC =
+            HikeDbHelper.COL_DATE + " DESC, " + HikeDbHelper.COL_ID + " DESC";
+    private static final String KEY = "(" + HikeDbHelper.COL_DATE + ", " + HikeDbHelper.COL_ID + ")";
+    private static final String AFTER = KEY + " > (?, ?)";
+    private static final String BEFORE = KEY + " < (?, ?)";
+
+    public interface Listener {
+        // các dòng [start, start + count) đã có dữ liệu
+        void onPageLoaded(int start, int count);
+    }
+
+    private final HikeRepository repository;
+    private final String where;     // filter, null = tất cả
+    private final String[] whereArgs;
+    private final long[] ids;       // != null: các dòng là đúng các id này, theo thứ tự
+    private final int size;
+    private final SparseArray<List<HikeSummary>> pages = new SparseArray<>();
+    private final SparseBooleanArray loading = new SparseBooleanArray();
+    private int lastAccessedPage;
+    private Listener listener;
+
+    // size đếm sẵn trên background thread (xem HikeRepository.loadHikePager)
+    HikePager(HikeRepository repository, String where, String[] whereArgs, int size) {
+        this.repository = repository;
+        this.where = where;
+        this.whereArgs = whereArgs;
+        this.ids = null;
+        this.size = size;
+    }
+
+    // ids theo thứ tự hiển thị (xem HikeRepository.loadHikePagerByName)
+    HikePager(HikeRepository repository, long[] ids) {
+        this.repository = repository;
+        this.where = null;
+        this.whereArgs = null;
+        this.ids = ids;
+        this.size = ids.length;
+    }
+
+    // Pager chỉ gồm các dòng của HikeListSnapshot (đã có sẵn nội dung, không load thêm page nào),
+    // hiển thị lúc mở app trong khi chờ pager thật; setPager sau đó diff theo id + nội dung
+    static HikePager fromSnapshot(HikeRepository repository, List<HikeSummary> rows) {
+        long[] ids = new long[rows.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = rows.get(i).getId();
+        HikePager pager = new HikePager(repository, ids);
+        for (int p = 0; p * PAGE_SIZE < ids.length; p++) {
+            pager.pages.put(p, rows.subList(p * PAGE_SIZE, pager.pageEnd(p)));
+        }
+        return pager;
+    }
+
+    // Các dòng đầu danh sách (tối đa count), null nếu page đầu chưa load
+    List<HikeSummary> firstRows(int count) {
+        List<HikeSummary> page = pages.get(0);
+        return page == null ? null : page.subList(0, Math.min(count, page.size()));
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // page quanh dòng đang hiển thị (page preloadAround load sẵn, hoặc page vừa truy cập)
+    int anchorPage() {
+        return lastAccessedPage;
+    }
+
+    // null nếu page chưa load xong (placeholder) hoặc dòng không còn (DB đổi sau khi tạo pager)
+    public HikeSummary get(int position) {
+        int pageIndex = position / PAGE_SIZE;
+        int offset = position % PAGE_SIZE;
+        lastAccessedPage = pageIndex;
+
+        if (offset < PREFETCH_DISTANCE) {
+            ensurePage(pageIndex - 1);
+        } else if (offset >= PAGE_SIZE - PREFETCH_DISTANCE) {
+            ensurePage(pageIndex + 1);
+        }
+
+        List<HikeSummary> page = pages.get(pageIndex);
+        if (page == null) {
+            ensurePage(pageIndex);
+            return null;
+        }
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    // Dòng của các page liền nhau đã load, bắt đầu từ page firstPage (rỗng nếu page đó chưa load),
+    // theo vị trí: phần tử i là dòng firstPage * PAGE_SIZE + i, null nếu page ngắn hơn (DB vừa đổi).
+    // Bản copy, để diff trong HikeAdapter đọc trên thread khác.
+    List<HikeSummary> loadedRun(int firstPage) {
+        List<HikeSummary> run = new ArrayList<>();
+        for (int p = firstPage; p * PAGE_SIZE < size; p++) {
+            List<HikeSummary> page = pages.get(p);
+            if (page == null) break;
+            int n = pageEnd(p) - p * PAGE_SIZE;
+            for (int i = 0; i < n; i++) run.add(i < page.size() ? page.get(i) : null);
+        }
+        return run;
+    }
+
+    // Load đồng bộ page chứa position và page kế tiếp (gọi trên background thread trước khi giao
+    // pager cho UI), để dòng đang hiển thị có dữ liệu ngay và diff so sánh được nội dung
+    void preloadAround(HikeDbHelper dbHelper, int position) {
+        if (size == 0) return;
+        int first = Math.min(Math.max(0, position), size - 1) / PAGE_SIZE;
+        for (int p = first; p <= first + 1 && p * PAGE_SIZE < size; p++) {
+            if (ids != null) {
+                pages.put(p, dbHelper.getHikeSummariesByIds(ids, p * PAGE_SIZE, pageEnd(p)));
+            } else {
+                // page đầu bằng OFFSET, page sau đi tiếp theo keyset
+                List<HikeSummary> prev = pages.get(p - 1);
+                if (prev != null && !prev.isEmpty()) {
+                    pages.put(p, dbHelper.queryHikeSummaries(and(AFTER), afterArgs(prev), ORDER,
+                            String.valueOf(PAGE_SIZE)));
+                } else {
+                    pages.put(p, dbHelper.queryHikeSummaries(where, whereArgs, ORDER,
+                            PAGE_SIZE + " OFFSET " + (p * PAGE_SIZE)));
+                }
+            }
+        }
+        lastAccessedPage = first;
+    }
+
+    private void ensurePage(int pageIndex) {
+        if (pageIndex < 0 || pageIndex * PAGE_SIZE >= size) return;
+        if (pages.get(pageIndex) != null || loading.get(pageIndex)) return;
+        loading.put(pageIndex, true);
+
+        int start = pageIndex * PAGE_SIZE;
+        int end = pageEnd(pageIndex);
+        HikeRepository.Callback<List<HikeSummary>> onLoaded = page -> {
+            loading.delete(pageIndex);
+            if (page == null) return;
+            pages.put(pageIndex, page);
+            dropFarPages();
+            if (listener != null) {
+                listener.onPageLoaded(start, end - start);
+            }
+        };
+
+        if (ids != null) {
+            repository.getHikeSummariesByIds(ids, start, end, onLoaded);
+            return;
+        }
+        // có page trước -> đi tiếp sau key cuối của nó
+        List<HikeSummary> prev = pages.get(pageIndex - 1);
+        if (prev != null && !prev.isEmpty()) {
+            repository.queryHikeSummaries(and(AFTER), afterArgs(prev), ORDER,
+                    String.valueOf(PAGE_SIZE), onLoaded);
+            return;
+        }
+        // có page sau (đang cuộn ngược lên) -> lấy ngược từ key đầu của nó
+        List<HikeSummary> next = pages.get(pageIndex + 1);
+        if (next != null && !next.isEmpty()) {
+            HikeSummary first = next.get(0);
+            repository.queryHikeSummaries(and(BEFORE),
+                    args(first.getDateEpochDay(), first.getId()), ORDER_DESC,
+                    String.valueOf(PAGE_SIZE), page -> {
+                        if (page != null) Collections.reverse(page);
+                        onLoaded.onResult(page);
+                    });
+            return;
+        }
+        // nhảy xa (fast scroll): dùng OFFSET, chỉ xảy ra khi không có page kề bên
+        repository.queryHikeSummaries(where, whereArgs, ORDER,
+                PAGE_SIZE + " OFFSET " + start, onLoaded);
+    }
+
+    private int pageEnd(int pageIndex) {
+        return Math.min(size, (pageIndex + 1) * PAGE_SIZE);
+    }
+
+    private void dropFarPages() {
+        for (int i = pages.size() - 1; i >= 0; i--) {
+            if (Math.abs(pages.keyAt(i) - lastAccessedPage) > KEEP_DISTANCE) {
+                pages.removeAt(i);
+            }
+        }
+    }
+
+    // tham số keyset "sau dòng cuối của page" cho page kế tiếp
+    private String[] afterArgs(List<HikeSummary> page) {
+        HikeSummary last = page.get(page.size() - 1);
+        return args(last.getDateEpochDay(), last.getId());
+    }
+
+    private String and(String keyCondition) {
+        return where == null ? keyCondition : "(" + where + ") AND " + keyCondition;
+    }
+
+    private String[] args(long date, long id) {
+        int n = whereArgs == null ? 0 : whereArgs.length;
+        String[] all = new String[n + 2];
+        if (n > 0) System.arraycopy(whereArgs, 0, all, 0, n);
+        all[n] = String.valueOf(date);
+        all[n + 1] = String.valueOf(id);
+        return all;
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.coursework;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lớp async đứng trước HikeDbHelper để activity không đụng SQLite trên main thread.
+// - Ghi (insert/update/delete) chạy tuần tự trên 1 thread writer.
+// - Đọc chạy trên pool nhỏ READER_THREADS thread.
+// - Kết quả trả về main thread; khi activity (LifecycleOwner) bị destroy thì các lệnh đọc
+//   đang chờ bị huỷ và mọi callback còn treo bị bỏ. Lệnh ghi đã gửi vẫn chạy xong để không mất dữ liệu.
+public class HikeRepository {
+
+    private static final String TAG = "HikeRepository";
+    private static final int READER_THREADS = 2;
+
+    // result = null nếu thao tác lỗi (hoặc không tìm thấy)
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private static final ExecutorService WRITER =
+            Executors.newSingleThreadExecutor(namedThreads("hike-db-writer"));
+    private static final ExecutorService READERS =
+            Executors.newFixedThreadPool(READER_THREADS, namedThreads("hike-db-reader"));
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private final Context appContext;
+    private final HikeDbHelper dbHelper;
+    private final Set<Future<?>> pending = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile boolean destroyed;
+
+    public HikeRepository(Context ctx, LifecycleOwner owner) {
+        this.appContext = ctx.getApplicationContext();
+        this.dbHelper = HikeDbHelper.getInstance(ctx);
+        owner.getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                cancelAll();
+            }
+        });
+    }
+
+    public HikeDbHelper getDbHelper() {
+        return dbHelper;
+    }
+
+    public void cancelAll() {
+        destroyed = true;
+        for (Future<?> f : pending) {
+            f.cancel(false);
+        }
+        pending.clear();
+    }
+
+    // ===== Hikes =====
+
+    // anchorPosition: dòng đang ở đầu màn hình, page quanh đó được load sẵn cùng số dòng
+    public Future<?> loadHikePager(HikeQuery query, int anchorPosition, Callback<HikePager> cb) {
+        String where = query.getSelection();
+        String[] args = query.getSelectionArgs();
+        if (where != null) return read(() -> keysetPager(where, args, anchorPosition), cb);
+        // chỉ load không filter mới ghi snapshot nên chỉ nó lấy generation
+        long generation = HikeListSnapshotFile.nextGeneration();
+        return read(() -> {
+            HikePager pager = keysetPager(null, null, anchorPosition);
+            saveListSnapshot(pager, generation);
+            return pager;
+        }, cb);
+    }
+
+    // Lọc theo tên bằng HikeNameIndex (không chạy SQL cho phần lọc), text rỗng -> như loadHikePager
+    // không filter
+    public Future<?> loadHikePagerByName(String text, int anchorPosition, Callback<HikePager> cb) {
+        String q = HikeQuery.normalize(text);
+        if (q == null || q.isEmpty()) return loadHikePager(new HikeQuery(), anchorPosition, cb);
+        return read(() -> {
+            long[] ids = HikeNameIndex.getInstance(dbHelper).search(text, false);
+            HikePager pager = new HikePager(this, ids);
+            pager.preloadAround(dbHelper, anchorPosition);
+            return pager;
+        }, cb);
+    }
+
+    private HikePager keysetPager(String where, String[] args, int anchorPosition) {
+        HikePager pager = new HikePager(this, where, args, dbHelper.countHikes(where, args));
+        pager.preloadAround(dbHelper, anchorPosition);
+        return pager;
+    }
+
+    // Mỗi lần load danh sách không filter (mở app, sau khi thêm/sửa/xoá, ...) thì cập nhật
+    // HikeListSnapshotFile cho lần mở app sau; chạy trên thread đọc, file chỉ ghi khi dòng đổi.
+    // generation lấy lúc gửi load: READERS có 2 thread nên load cũ có thể xong sau load mới,
+    // khi đó bản ghi của nó bị bỏ thay vì đè dòng cũ lên file. Load có filter không ghi file nên
+    // không lấy generation, không chen vào thứ tự này.
+    private void saveListSnapshot(HikePager pager, long generation) {
+        List<HikeSummary> rows = pager.firstRows(HikeListSnapshotFile.ROWS);
+        if (rows == null) {
+            // đang cuộn xa đầu danh sách: page đầu không được load sẵn
+            rows = dbHelper.queryHikeSummaries(null, null, HikePager.ORDER,
+                    String.valueOf(HikeListSnapshotFile.ROWS));
+        }
+        HikeListSnapshotFile.write(appContext, new ArrayList<>(rows), generation);
+    }
+
+    public Future<?> queryHikeSummaries(String where, String[] args, String orderBy, String limit,
+                                        Callback<List<HikeSummary>> cb) {
+        return read(() -> dbHelper.queryHikeSummaries(where, args, orderBy, limit), cb);
+    }
+
+    public Future<?> getHikeSummariesByIds(long[] ids, int from, int to,
+                                           Callback<List<HikeSummary>> cb) {
+        return read(() -> dbHelper.getHikeSummariesByIds(ids, from, to), cb);
+    }
+
+    public Future<?> searchHikes(String text, int limit, Callback<List<HikeSearchResult>> cb) {
+        return read(() -> dbHelper.searchHikes(text, limit), cb);
+    }
+
+    public Future<?> getHikeStats(String dimension, Callback<List<HikeStatsBucket>> cb) {
+        return read(() -> dbHelper.getHikeStats(dimension), cb);
+    }
+
+    public Future<?> getColumnSnapshot(Callback<HikeColumnSnapshot> cb) {
+        return read(dbHelper::getColumnSnapshot, cb);
+    }
+
+    public Future<?> findHikesWithin(double lat, double lon, double radiusKm,
+                                     Callback<List<NearbyHike>> cb) {
+        return read(() -> dbHelper.findHikesWithin(lat, lon, radiusKm), cb);
+    }
+
+    public Future<?> findHikesInBox(GeoBounds box, Callback<List<NearbyHike>> cb) {
+        return read(() -> dbHelper.findHikesInBox(box), cb);
+    }
+
+    public Future<?> getHike(long id, Callback<Hike> cb) {
+        return read(() -> dbHelper.getHike(id), cb);
+    }
+
+    public Future<?> insertHike(Hike hike, Callback<Long> cb) {
+        return write(() -> dbHelper.insertHike(hike), cb);
+    }
+
+    public Future<?> updateHike(Hike hike, Callback<Integer> cb) {
+        return write(() -> dbHelper.updateHike(hike), cb);
+    }
+
+    public Future<?> deleteHike(long id, Callback<Integer> cb) {
+        return write(() -> {
+            flushObservationWrites();
+            return dbHelper.deleteHike(id);
+        }, cb);
+    }
+
+    public Future<?> deleteAllHikes(Callback<Void> cb) {
+        return write(() -> {
+            flushObservationWrites();
+            dbHelper.deleteAllHikes();
+            return null;
+        }, cb);
+    }
+
+    // ===== Observations =====
+
+    public Future<?> getObservationsForHike(long hikeId, Callback<List<Observation>> cb) {
+        return read(() -> dbHelper.getObservationsForHike(hikeId), cb);
+    }
+
+    public Future<?> getObservation(long obsId, Callback<Observation> cb) {
+        return read(() -> dbHelper.getObservation(obsId), cb);
+    }
+
+    // Insert/update observation đi qua ObservationWriteQueue: các lần lưu sát nhau được gộp vào
+    // 1 transaction, callback chỉ chạy sau khi lô đã commit
+    public Future<?> insertObservation(Observation obs, Callback<Long> cb) {
+        return whenCommitted(dbHelper.getObservationWriteQueue().insert(obs), cb);
+    }
+
+    public Future<?> updateObservation(Observation obs, Callback<Integer> cb) {
+        return whenCommitted(dbHelper.getObservationWriteQueue().update(obs)
+                .thenApply(Long::intValue), cb);
+    }
+
+    public Future<?> deleteObservation(long id, Callback<Integer> cb) {
+        return write(() -> {
+            flushObservationWrites();
+            return dbHelper.deleteObservation(id);
+        }, cb);
+    }
+
+    // Chặn tới khi mọi insert/update observation đã gửi được commit. Xoá gọi trước (trên thread
+    // writer) để lệnh ghi áp dụng đúng thứ tự gửi.
+    public void flushObservationWrites() {
+        dbHelper.getObservationWriteQueue().flush();
+    }
+
+    // Không chặn, gọi được trên main thread (onPause): ghi phần đang chờ ngay trên thread ghi
+    public void flushObservationWritesAsync() {
+        dbHelper.getObservationWriteQueue().flushAsync();
+    }
+
+    // Copy ảnh đã chọn vào thư mục ảnh của app, trả về tên file cho Observation (null nếu lỗi)
+    public Future<?> importObservationPhoto(Uri source, Callback<String> cb) {
+        return read(() -> ObservationPhotos.importFrom(appContext, source), cb);
+    }
+
+    // Chạy trên thread writer nên sau mọi lệnh xoá đã gửi trước đó; trả về số file đã xoá
+    public Future<?> pruneObservationPhotos(Callback<Integer> cb) {
+        return write(() -> ObservationPhotos.prune(appContext, dbHelper.getObservationPhotoPaths()),
+                cb);
+    }
+
+    // ===== Metrics =====
+
+    // Ghi snapshot metrics của HikeDbHelper ra file JSON (DbMetricsReport), trả về file đó
+    public Future<?> saveDbMetrics(Callback<File> cb) {
+        QueryMetrics.Snapshot snapshot = dbHelper.getMetrics().snapshot();
+        return read(() -> DbMetricsReport.write(appContext, snapshot), cb);
+    }
+
+    // ===== plumbing =====
+
+    private <T> Future<?> read(Callable<T> work, Callback<T> cb) {
+        return submit(READERS, work, cb, true);
+    }
+
+    private <T> Future<?> write(Callable<T> work, Callback<T> cb) {
+        return submit(WRITER, work, cb, false);
+    }
+
+    private <T> Future<?> whenCommitted(CompletableFuture<T> future, Callback<T> cb) {
+        future.whenComplete((value, error) -> {
+            if (error != null) Log.e(TAG, "Database operation failed", error);
+            T result = error == null ? value : null;
+            if (cb != null) {
+                MAIN.post(() -> {
+                    if (!destroyed) cb.onResult(result);
+                });
+            }
+        });
+        return future;
+    }
+
+    private <T> Future<?> submit(ExecutorService executor, Callable<T> work, Callback<T> cb,
+                                 boolean cancellable) {
+        Task<T> task = new Task<>(work, cb);
+        if (destroyed) {
+            // activity đã destroy: đọc thì bỏ luôn, ghi vẫn chạy nhưng không callback
+            if (cancellable) return task;
+        } else if (cancellable) {
+            pending.add(task);
+        }
+        executor.execute(task);
+        return task;
+    }
+
+    private class Task<T> extends FutureTask<T> {
+        private final Callback<T> cb;
+
+        Task(Callable<T> work, Callback<T> cb) {
+            super(work);
+            this.cb = cb;
+        }
+
+        @Override
+        protected void done() {
+            pending.remove(this);
+            if (isCancelled() || destroyed) return;
+            T value;
+            try {
+                value = get();
+            } catch (Exception e) {
+                // lỗi SQLite: log lại và trả null để màn hình báo lỗi thay vì crash / treo
+                Log.e(TAG, "Database operation failed", e.getCause() != null ? e.getCause() : e);
+                value = null;
+            }
+            T result = value;
+            if (cb != null) {
+                MAIN.post(() -> {
+                    if (!destroyed) cb.onResult(result);
+                });
+            }
+        }
+    }
+
+    static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.coursework;
+
+import android.graphics.Typeface;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.StyleSpan;
+
+// 1 kết quả full-text search: hike, điểm xếp hạng và đoạn trích có đánh dấu từ khớp
+public class HikeSearchResult {
+
+    private final Hike hike;
+    private final double score;
+    private final String snippet;               // có marker HikeFts.MARK_START / MARK_END
+    private final boolean fromObservation;      // snippet lấy từ observation thay vì từ hike
+
+    public HikeSearchResult(Hike hike, double score, String snippet, boolean fromObservation) {
+        this.hike = hike;
+        this.score = score;
+        this.snippet = snippet;
+        this.fromObservation = fromObservation;
+    }
+
+    public Hike getHike() { return hike; }
+    public double getScore() { return score; }
+    public String getSnippet() { return snippet; }
+    public boolean isFromObservation() { return fromObservation; }
+
+    // Snippet để hiển thị: bỏ marker, in đậm phần khớp
+    public CharSequence highlight() {
+        SpannableStringBuilder out = new SpannableStringBuilder();
+        if (snippet == null) return out;
+        int i = 0;
+        while (i < snippet.length()) {
+            int start = snippet.indexOf(HikeFts.MARK_START, i);
+            if (start < 0) {
+                out.append(snippet, i, snippet.length());
+                break;
+            }
+            int end = snippet.indexOf(HikeFts.MARK_END, start);
+            if (end < 0) end = snippet.length();
+            out.append(snippet, i, start);
+            int spanStart = out.length();
+            out.append(snippet, start + 1, end);
+            out.setSpan(new StyleSpan(Typeface.BOLD), spanStart, out.length(),
+                    Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            i = end + 1;
+        }
+        return out;
+    }
+}
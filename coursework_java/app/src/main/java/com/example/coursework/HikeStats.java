@@ -0,0 +1,124 @@
+package com.example.coursework;
+
+import android.database.sqlite.SQLiteDatabase;
+
+// Bảng tổng hợp cho dashboard: mỗi dòng = 1 nhóm (độ khó / địa hình / tháng) với số hike và tổng
+// distance, duration, elevation. Trigger trên hikes cộng/trừ đúng các nhóm bị ảnh hưởng ở mỗi lần
+// insert/update/delete, nên đọc dashboard chỉ tốn O(số nhóm), không phụ thuộc số hike.
+// SQLite của minSdk 27 chưa có UPSERT nên trigger dùng INSERT OR IGNORE dòng 0 rồi UPDATE cộng dồn.
+final class HikeStats {
+
+    static final String TABLE_STATS = "hike_stats";
+    static final String COL_DIMENSION = "dimension";
+    static final String COL_BUCKET = "bucket";
+    static final String COL_COUNT = "hike_count";
+    static final String COL_DISTANCE = "total_distance_km";
+    static final String COL_DURATION = "total_duration_h";
+    static final String COL_ELEVATION = "total_elevation_m";
+
+    static final String DIM_DIFFICULTY = "difficulty";
+    static final String DIM_TERRAIN = "terrain";
+    static final String DIM_MONTH = "month";          // bucket dạng "yyyy-MM"
+
+    private static final String[] DIMENSIONS = {DIM_DIFFICULTY, DIM_TERRAIN, DIM_MONTH};
+    // cột hikes có ảnh hưởng tới bảng thống kê
+    private static final String[] SOURCE_COLUMNS = {HikeDbHelper.COL_DIFFICULTY,
+            HikeDbHelper.COL_TERRAIN, HikeDbHelper.COL_DATE, HikeDbHelper.COL_DISTANCE,
+            HikeDbHelper.COL_DURATION, HikeDbHelper.COL_ELEVATION};
+
+    private HikeStats() {}
+
+    // Biểu thức tính bucket cho từng dimension trên 1 dòng hikes (prefix = "new." / "old." / "")
+    private static String bucketExpr(String dimension, String prefix) {
+        switch (dimension) {
+            case DIM_DIFFICULTY:
+                return prefix + HikeDbHelper.COL_DIFFICULTY;
+            case DIM_TERRAIN:
+                // terrain không bắt buộc -> nhóm ''
+                return "IFNULL(" + prefix + HikeDbHelper.COL_TERRAIN + ", '')";
+            case DIM_MONTH:
+                // date là epoch day
+                return "strftime('%Y-%m', " + prefix + HikeDbHelper.COL_DATE + " * 86400, 'unixepoch')";
+            default:
+                throw new IllegalArgumentException("Unknown dimension " + dimension);
+        }
+    }
+
+    static void create(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_STATS + " (" +
+                COL_DIMENSION + " TEXT NOT NULL, " +
+                COL_BUCKET + " TEXT NOT NULL, " +
+                COL_COUNT + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_DISTANCE + " REAL NOT NULL DEFAULT 0, " +
+                COL_DURATION + " REAL NOT NULL DEFAULT 0, " +
+                COL_ELEVATION + " INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (" + COL_DIMENSION + ", " + COL_BUCKET + ")" +
+                ") WITHOUT ROWID");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TABLE_STATS + "_ai AFTER INSERT ON " +
+                HikeDbHelper.TABLE_HIKES + " BEGIN " + apply("new.", "+") + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TABLE_STATS + "_ad AFTER DELETE ON " +
+                HikeDbHelper.TABLE_HIKES + " BEGIN " + apply("old.", "-") + " END");
+        createUpdateTrigger(db);
+    }
+
+    // UPDATE của HikeDbHelper ghi lại mọi cột (SQL_UPDATE_HIKE), nên "AFTER UPDATE OF" các cột
+    // thống kê vẫn chạy ở mọi lần sửa hike. WHEN so giá trị cũ/mới: sửa tên / mô tả / toạ độ không
+    // trừ rồi cộng lại dòng ở mỗi dimension nữa.
+    static void createUpdateTrigger(SQLiteDatabase db) {
+        StringBuilder when = new StringBuilder();
+        for (String col : SOURCE_COLUMNS) {
+            if (when.length() > 0) when.append(" OR ");
+            when.append("old.").append(col).append(" IS NOT new.").append(col);
+        }
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TABLE_STATS + "_au AFTER UPDATE OF " +
+                String.join(", ", SOURCE_COLUMNS) + " ON " + HikeDbHelper.TABLE_HIKES +
+                " WHEN " + when + " BEGIN " + apply("old.", "-") + apply("new.", "+") + " END");
+    }
+
+    // Cộng (sign "+") hoặc trừ ("-") 1 dòng hikes vào nhóm của nó ở mỗi dimension
+    private static String apply(String prefix, String sign) {
+        StringBuilder sb = new StringBuilder();
+        for (String dim : DIMENSIONS) {
+            String bucket = bucketExpr(dim, prefix);
+            if (sign.equals("+")) {
+                sb.append("INSERT OR IGNORE INTO ").append(TABLE_STATS).append(" (")
+                        .append(COL_DIMENSION).append(", ").append(COL_BUCKET).append(") VALUES ('")
+                        .append(dim).append("', ").append(bucket).append("); ");
+            }
+            String where = " WHERE " + COL_DIMENSION + " = '" + dim + "' AND " +
+                    COL_BUCKET + " = " + bucket;
+            sb.append("UPDATE ").append(TABLE_STATS).append(" SET ")
+                    .append(COL_COUNT).append(" = ").append(COL_COUNT).append(sign).append("1, ")
+                    .append(sum(COL_DISTANCE, sign, prefix + HikeDbHelper.COL_DISTANCE)).append(", ")
+                    .append(sum(COL_DURATION, sign, prefix + HikeDbHelper.COL_DURATION)).append(", ")
+                    .append(sum(COL_ELEVATION, sign, prefix + HikeDbHelper.COL_ELEVATION))
+                    .append(where).append("; ");
+            if (sign.equals("-")) {
+                // nhóm không còn hike thì xoá, để dashboard không hiện nhóm rỗng và tổng REAL
+                // không trôi mãi
+                sb.append("DELETE FROM ").append(TABLE_STATS).append(where)
+                        .append(" AND ").append(COL_COUNT).append(" <= 0; ");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String sum(String col, String sign, String value) {
+        return col + " = " + col + sign + value;
+    }
+
+    // Tính lại toàn bộ từ bảng hikes (dùng khi nâng cấp DB cũ hoặc khi nghi bảng bị lệch)
+    static void rebuild(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_STATS);
+        for (String dim : DIMENSIONS) {
+            String bucket = bucketExpr(dim, "");
+            db.execSQL("INSERT INTO " + TABLE_STATS + " (" + COL_DIMENSION + ", " + COL_BUCKET +
+                    ", " + COL_COUNT + ", " + COL_DISTANCE + ", " + COL_DURATION + ", " +
+                    COL_ELEVATION + ") SELECT '" + dim + "', " + bucket + ", COUNT(*), " +
+                    "TOTAL(" + HikeDbHelper.COL_DISTANCE + "), TOTAL(" + HikeDbHelper.COL_DURATION +
+                    "), IFNULL(SUM(" + HikeDbHelper.COL_ELEVATION + "), 0) FROM " +
+                    HikeDbHelper.TABLE_HIKES + " GROUP BY " + bucket);
+        }
+    }
+}
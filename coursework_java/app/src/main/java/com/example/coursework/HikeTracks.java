@@ -0,0 +1,45 @@
+package com.example.coursework;
+
+import android.database.sqlite.SQLiteDatabase;
+
+// Track GPS của hike: mỗi dòng là 1 chunk vài trăm điểm đã nén (TrackChunks) thay vì 1 dòng mỗi
+// điểm, nên track dài vài giờ chỉ là vài chục dòng. Mỗi chunk giữ sẵn số điểm, khoảng thời gian
+// và phần quãng đường / độ cao leo của nó -> tổng của track là SUM trên các chunk, không phải
+// giải mã lại. Chunk bị xoá theo hike (ON DELETE CASCADE).
+final class HikeTracks {
+
+    static final String TABLE_TRACKS = "track_chunks";
+    static final String COL_ID = "_id";
+    static final String COL_HIKE_ID = "hike_id";
+    static final String COL_SEQ = "seq";                  // thứ tự chunk trong track, từ 0
+    static final String COL_POINT_COUNT = "point_count";
+    static final String COL_FIRST_TIME = "first_time";    // epoch millis
+    static final String COL_LAST_TIME = "last_time";
+    static final String COL_DISTANCE = "distance_km";
+    static final String COL_GAIN = "elevation_gain_m";
+    static final String COL_DATA = "data";                // BLOB
+    // mốc hysteresis của TrackStats sau điểm cuối chunk, để ghi tiếp track không mất đoạn leo dở
+    // dang; NULL ở chunk ghi trước v14
+    static final String COL_GAIN_REFERENCE = "gain_reference_m";
+
+    // Số chunk mỗi lần đọc của iterator (mỗi chunk ~ vài KB)
+    static final int READ_BATCH = 16;
+
+    private HikeTracks() {}
+
+    static void create(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_TRACKS + " (" +
+                COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_HIKE_ID + " INTEGER NOT NULL REFERENCES " + HikeDbHelper.TABLE_HIKES + "(" +
+                HikeDbHelper.COL_ID + ") ON DELETE CASCADE, " +
+                COL_SEQ + " INTEGER NOT NULL, " +
+                COL_POINT_COUNT + " INTEGER NOT NULL, " +
+                COL_FIRST_TIME + " INTEGER NOT NULL, " +
+                COL_LAST_TIME + " INTEGER NOT NULL, " +
+                COL_DISTANCE + " REAL NOT NULL, " +
+                COL_GAIN + " REAL NOT NULL, " +
+                COL_DATA + " BLOB NOT NULL, " +
+                COL_GAIN_REFERENCE + " REAL, " +
+                "UNIQUE (" + COL_HIKE_ID + ", " + COL_SEQ + "))");
+    }
+}
@@ -8,50 +8,96 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import android.app.DatePickerDialog;
 import android.content.Intent;
+import android.database.Cursor;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.provider.OpenableColumns;
 import android.text.Editable;
 import android.text.InputType;
 import android.text.TextWatcher;
+import android.util.Log;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ProgressBar;
+import android.widget.Toast;
 
-import java.util.ArrayList;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Future;
 
 public class MainActivity extends AppCompatActivity implements HikeAdapter.Listener {
 
     private static final int REQ_ADD = 100;
     private static final int REQ_EDIT = 101;
     private static final int REQ_OBS = 200;
+    private static final int REQ_IMPORT = 400;
+    private static final int REQ_EXPORT = 401;
 
     private HikeDbHelper dbHelper;
+    private HikeRepository repository;
     private HikeAdapter adapter;
     private RecyclerView rvHikes;
+    private LinearLayoutManager layoutManager;
 
-    private Button btnAdd, btnReset, btnAdvanced;
+    private Button btnAdd, btnReset, btnAdvanced, btnImport, btnExport;
     private EditText etSearchName;
 
-    private List<Hike> allHikes = new ArrayList<>();
+    private HikeImporter importer;
+    private HikeExporter exporter;
+
+    // Filter đang áp dụng, giữ lại để reload sau khi thêm/sửa/xoá.
+    // currentName != null: lọc theo tên qua HikeNameIndex; ngược lại dùng currentQuery (SQL)
+    private HikeQuery currentQuery = new HikeQuery();
+    private String currentName;
+    private Future<?> pendingLoad;
+
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch = () -> {};
+
+    // đo thời gian mở app tới frame đầu của danh sách
+    private static final String STARTUP_TAG = "HikeStartup";
+    private ViewTreeObserver.OnPreDrawListener firstListFrame;
+    private boolean liveListLoaded;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        dbHelper = new HikeDbHelper(this);
+        dbHelper = HikeDbHelper.getInstance(this);
+        repository = new HikeRepository(this, this);
 
         rvHikes = findViewById(R.id.rvHikes);
         btnAdd = findViewById(R.id.btnAdd);
         btnReset = findViewById(R.id.btnReset);
         btnAdvanced = findViewById(R.id.btnAdvanced);
+        btnImport = findViewById(R.id.btnImport);
+        btnExport = findViewById(R.id.btnExport);
         etSearchName = findViewById(R.id.etSearchName);
 
-        rvHikes.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new HikeAdapter(new ArrayList<>(), this);
+        // lối vào ẩn cho màn hình debug metrics DB
+        findViewById(R.id.tvTitle).setOnLongClickListener(v -> {
+            startActivity(new Intent(this, DbMetricsActivity.class));
+            return true;
+        });
+
+        layoutManager = new LinearLayoutManager(this);
+        rvHikes.setLayoutManager(layoutManager);
+        adapter = new HikeAdapter(null, this);
         rvHikes.setAdapter(adapter);
+        // vẽ ngay các dòng đầu từ snapshot lần trước, loadHikes() bên dưới sẽ thay bằng dữ liệu thật
+        showListSnapshot();
 
         btnAdd.setOnClickListener(v -> {
             Intent i = new Intent(MainActivity.this, AddEditHikeActivity.class);
@@ -63,20 +109,43 @@ public class MainActivity extends AppCompatActivity implements HikeAdapter.Liste
             new AlertDialog.Builder(this)
                     .setTitle("Reset database")
                     .setMessage("This will delete ALL hikes and their observations. Continue?")
-                    .setPositiveButton("Reset", (d, w) -> {
-                        dbHelper.deleteAllHikes();
-                        loadHikes();
-                    })
+                    .setPositiveButton("Reset", (d, w) ->
+                            repository.deleteAllHikes(r -> {
+                                loadHikes();
+                                repository.pruneObservationPhotos(null);
+                            }))
                     .setNegativeButton("Cancel", null)
                     .show();
         });
 
         btnAdvanced.setOnClickListener(v -> showAdvancedSearchDialog());
 
+        btnImport.setOnClickListener(v -> {
+            Intent i = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+            i.addCategory(Intent.CATEGORY_OPENABLE);
+            i.setType("*/*");
+            i.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{
+                    "text/csv", "text/comma-separated-values",
+                    "application/json", "application/x-ndjson", "text/plain"});
+            startActivityForResult(i, REQ_IMPORT);
+        });
+
+        btnExport.setOnClickListener(v -> {
+            Intent i = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+            i.addCategory(Intent.CATEGORY_OPENABLE);
+            i.setType("application/gzip");
+            i.putExtra(Intent.EXTRA_TITLE, "hikes.ndjson.gz");
+            startActivityForResult(i, REQ_EXPORT);
+        });
+
         etSearchName.addTextChangedListener(new TextWatcher() {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
             @Override public void onTextChanged(CharSequence s, int start, int before, int count) {
-                applyNameFilter(s.toString());
+                // debounce: chỉ tìm khi ngừng gõ SEARCH_DEBOUNCE_MS, phím mới huỷ lần chờ trước
+                String text = s.toString();
+                searchHandler.removeCallbacks(pendingSearch);
+                pendingSearch = () -> applyNameFilter(text);
+                searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
             }
             @Override public void afterTextChanged(Editable s) {}
         });
@@ -85,25 +154,68 @@ public class MainActivity extends AppCompatActivity implements HikeAdapter.Liste
     }
 
     private void loadHikes() {
-        allHikes = dbHelper.getAllHikes();
-        adapter.setHikes(allHikes);
+        // filter mới thay thế query cũ còn đang chạy (chưa chạy thì bỏ, đang chạy thì bỏ kết quả)
+        if (pendingLoad != null) pendingLoad.cancel(false);
+        // load sẵn page đang hiển thị để diff giữ nguyên những dòng không đổi
+        int anchor = Math.max(0, layoutManager.findFirstVisibleItemPosition());
+        HikeRepository.Callback<HikePager> show = pager -> {
+            if (pager == null) return;
+            adapter.setPager(pager);
+            onLiveListLoaded(pager);
+        };
+        pendingLoad = currentName != null
+                ? repository.loadHikePagerByName(currentName, anchor, show)
+                : repository.loadHikePager(currentQuery, anchor, show);
+    }
+
+    // ===== mở app: snapshot + đo thời gian tới frame đầu của danh sách =====
+
+    // Đọc HikeListSnapshotFile (vài KB, không mở DB) và hiển thị luôn; log thời gian từ lúc process
+    // start tới frame đầu tiên có dòng danh sách, kèm nguồn (snapshot hay query thật)
+    private void showListSnapshot() {
+        List<HikeSummary> rows = HikeListSnapshotFile.read(this);
+        boolean fromSnapshot = rows != null && !rows.isEmpty();
+        if (fromSnapshot) adapter.setPager(HikePager.fromSnapshot(repository, rows));
+
+        firstListFrame = () -> {
+            if (rvHikes.getChildCount() == 0) return true;
+            removeFirstListFrameListener();
+            Log.i(STARTUP_TAG, String.format(Locale.US, "first list frame: %d ms (%s)",
+                    SystemClock.uptimeMillis() - Process.getStartUptimeMillis(),
+                    fromSnapshot ? "snapshot" : "live query"));
+            return true;
+        };
+        rvHikes.getViewTreeObserver().addOnPreDrawListener(firstListFrame);
+    }
+
+    private void onLiveListLoaded(HikePager pager) {
+        if (liveListLoaded) return;
+        liveListLoaded = true;
+        Log.i(STARTUP_TAG, String.format(Locale.US, "live list loaded: %d ms, %d rows",
+                SystemClock.uptimeMillis() - Process.getStartUptimeMillis(), pager.size()));
+        // danh sách rỗng thì không bao giờ có frame có dòng
+        if (pager.size() == 0) removeFirstListFrameListener();
+        reportFullyDrawn();
+    }
+
+    private void removeFirstListFrameListener() {
+        if (firstListFrame == null) return;
+        rvHikes.getViewTreeObserver().removeOnPreDrawListener(firstListFrame);
+        firstListFrame = null;
+    }
+
+    private void setFilter(HikeQuery query) {
+        searchHandler.removeCallbacks(pendingSearch);
+        currentQuery = query;
+        currentName = null;
+        loadHikes();
     }
 
-    // Filter đơn giản theo name (contains, case-insensitive)
+    // Filter đơn giản theo name (contains, không phân biệt hoa thường / dấu), trả lời từ index trong bộ nhớ
     private void applyNameFilter(String query) {
-        if (query == null) query = "";
-        String q = query.toLowerCase().trim();
-        if (q.isEmpty()) {
-            adapter.setHikes(allHikes);
-            return;
-        }
-        List<Hike> filtered = new ArrayList<>();
-        for (Hike h : allHikes) {
-            if (h.getName().toLowerCase().contains(q)) {
-                filtered.add(h);
-            }
-        }
-        adapter.setHikes(filtered);
+        currentQuery = new HikeQuery();
+        currentName = query.trim().isEmpty() ? null : query;
+        loadHikes();
     }
 
     private void showAdvancedSearchDialog() {
@@ -127,8 +239,8 @@ public class MainActivity extends AppCompatActivity implements HikeAdapter.Liste
                 })
                 .setNegativeButton("Cancel", null)
                 .setNeutralButton("Clear", (d, w) -> {
-                    adapter.setHikes(allHikes);
                     etSearchName.setText("");
+                    setFilter(new HikeQuery());
                 })
                 .show();
     }
@@ -143,9 +255,8 @@ public class MainActivity extends AppCompatActivity implements HikeAdapter.Liste
         DatePickerDialog dp = new DatePickerDialog(
                 this,
                 (view, year, month, dayOfMonth) -> {
-                    String text = String.format(Locale.US, "%02d/%02d/%04d",
-                            month + 1, dayOfMonth, year);
-                    target.setText(text);
+                    target.setText(HikeDates.formatDate(
+                            HikeDates.dateOf(year, month + 1, dayOfMonth)));
                 },
                 y, m, d
         );
@@ -154,9 +265,7 @@ public class MainActivity extends AppCompatActivity implements HikeAdapter.Liste
 
     // Filter nâng cao theo location (contains), max distance, date (exact match)
     private void applyAdvancedFilter(String loc, String maxDistStr, String date) {
-        boolean useLoc = !loc.isEmpty();
         boolean useDist = !maxDistStr.isEmpty();
-        boolean useDate = !date.isEmpty();
         double maxDist = 0;
         if (useDist) {
             try {
@@ -167,27 +276,16 @@ public class MainActivity extends AppCompatActivity implements HikeAdapter.Liste
             }
         }
 
-        List<Hike> filtered = new ArrayList<>();
-        for (Hike h : allHikes) {
-            boolean ok = true;
-            if (useLoc && !h.getLocation().toLowerCase().contains(loc.toLowerCase())) {
-                ok = false;
-            }
-            if (ok && useDist && h.getDistanceKm() > maxDist) {
-                ok = false;
-            }
-            if (ok && useDate && !h.getDate().equals(date)) {
-                ok = false;
-            }
-            if (ok) filtered.add(h);
-        }
-        adapter.setHikes(filtered);
+        setFilter(new HikeQuery()
+                .locationContains(loc)
+                .maxDistanceKm(useDist ? maxDist : null)
+                .onDate(HikeDates.parseDate(date)));
     }
 
     // ===== HikeAdapter.Listener =====
 
     @Override
-    public void onEdit(Hike hike) {
+    public void onEdit(HikeSummary hike) {
         Intent i = new Intent(this, AddEditHikeActivity.class);
         i.putExtra("mode", "edit");
         i.putExtra("id", hike.getId());
@@ -195,30 +293,187 @@ public class MainActivity extends AppCompatActivity implements HikeAdapter.Liste
     }
 
     @Override
-    public void onDelete(Hike hike) {
+    public void onDelete(HikeSummary hike) {
         new AlertDialog.Builder(this)
                 .setTitle("Delete hike")
                 .setMessage("Are you sure you want to delete this hike?")
-                .setPositiveButton("Delete", (dialog, which) -> {
-                    dbHelper.deleteHike(hike.getId());
-                    loadHikes();
-                })
+                .setPositiveButton("Delete", (dialog, which) ->
+                        repository.deleteHike(hike.getId(), rows -> {
+                            loadHikes();
+                            // observation của hike bị xoá theo (cascade), ảnh của chúng thì chưa
+                            repository.pruneObservationPhotos(null);
+                        }))
                 .setNegativeButton("Cancel", null)
                 .show();
     }
 
     @Override
-    public void onObservations(Hike hike) {
+    public void onObservations(HikeSummary hike) {
         Intent i = new Intent(this, ObservationListActivity.class);
         i.putExtra("hikeId", hike.getId());
         i.putExtra("hikeName", hike.getName());
         startActivityForResult(i, REQ_OBS);
     }
 
+    // ===== Import CSV / NDJSON =====
+
+    private void startImport(Uri uri) {
+        String fileName = null;
+        long size = -1;
+        try (Cursor c = getContentResolver().query(uri,
+                new String[]{OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE},
+                null, null, null)) {
+            if (c != null && c.moveToFirst()) {
+                fileName = c.getString(0);
+                if (!c.isNull(1)) size = c.getLong(1);
+            }
+        }
+
+        InputStream in;
+        try {
+            in = getContentResolver().openInputStream(uri);
+        } catch (FileNotFoundException e) {
+            Toast.makeText(this, "Cannot open file", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (in == null) return;
+
+        ProgressBar bar = new ProgressBar(this, null, android.R.attr.progressBarStyleHorizontal);
+        bar.setIndeterminate(size <= 0);
+        bar.setMax(1000);
+        bar.setPadding(48, 32, 48, 0);
+
+        importer = new HikeImporter(dbHelper);
+        AlertDialog dialog = new AlertDialog.Builder(this)
+                .setTitle("Importing " + (fileName == null ? "file" : fileName))
+                .setMessage("Starting...")
+                .setView(bar)
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (d, w) -> importer.cancel())
+                .show();
+
+        importer.start(in, size, HikeFileFormat.fromFileName(fileName), new HikeImporter.Listener() {
+            @Override
+            public void onProgress(long bytesRead, long totalBytes, int hikesImported) {
+                if (totalBytes > 0) {
+                    bar.setProgress((int) (bytesRead * 1000 / totalBytes));
+                }
+                dialog.setMessage(hikesImported + " hikes imported");
+            }
+
+            @Override
+            public void onFinished(ImportResult hikes, ImportResult observations, boolean cancelled) {
+                dialog.dismiss();
+                importer = null;
+                String msg = (cancelled ? "Import cancelled: " : "Import finished: ") +
+                        hikes.getImportedCount() + " hikes, " +
+                        observations.getImportedCount() + " observations imported";
+                int failed = hikes.getFailedCount() + observations.getFailedCount();
+                if (failed > 0) {
+                    ImportResult.Failure first = hikes.getFailedCount() > 0
+                            ? hikes.getFailures().get(0) : observations.getFailures().get(0);
+                    msg += "\n" + failed + " rows failed (first: line " +
+                            first.getIndex() + ", " + first.getReason() + ")";
+                }
+                new AlertDialog.Builder(MainActivity.this)
+                        .setTitle("Import")
+                        .setMessage(msg)
+                        .setPositiveButton("OK", null)
+                        .show();
+                loadHikes();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                dialog.dismiss();
+                importer = null;
+                Toast.makeText(MainActivity.this, "Import failed: " + e.getMessage(),
+                        Toast.LENGTH_LONG).show();
+                loadHikes();
+            }
+        });
+    }
+
+    // ===== Export NDJSON.gz =====
+
+    private void startExport(Uri uri) {
+        OutputStream out;
+        try {
+            out = getContentResolver().openOutputStream(uri, "wt");
+        } catch (FileNotFoundException e) {
+            Toast.makeText(this, "Cannot create file", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (out == null) return;
+
+        ProgressBar bar = new ProgressBar(this, null, android.R.attr.progressBarStyleHorizontal);
+        bar.setMax(1000);
+        bar.setPadding(48, 32, 48, 0);
+
+        exporter = new HikeExporter(dbHelper);
+        AlertDialog dialog = new AlertDialog.Builder(this)
+                .setTitle("Exporting hikes")
+                .setMessage("Starting...")
+                .setView(bar)
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (d, w) -> exporter.cancel())
+                .show();
+
+        exporter.start(out, new HikeExporter.Listener() {
+            @Override
+            public void onProgress(long hikesWritten, long totalHikes) {
+                if (totalHikes > 0) {
+                    bar.setProgress((int) (hikesWritten * 1000 / totalHikes));
+                }
+                dialog.setMessage(hikesWritten + " / " + totalHikes + " hikes");
+            }
+
+            @Override
+            public void onFinished(long hikesWritten, long observationsWritten, boolean cancelled) {
+                dialog.dismiss();
+                exporter = null;
+                Toast.makeText(MainActivity.this,
+                        (cancelled ? "Export cancelled after " : "Exported ") +
+                                hikesWritten + " hikes, " + observationsWritten + " observations",
+                        Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                dialog.dismiss();
+                exporter = null;
+                Toast.makeText(MainActivity.this, "Export failed: " + e.getMessage(),
+                        Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        searchHandler.removeCallbacks(pendingSearch);
+        if (importer != null) importer.cancel();
+        if (exporter != null) exporter.cancel();
+    }
+
     @Override
     protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
-        if (resultCode == RESULT_OK) {
+        if (requestCode == REQ_IMPORT) {
+            if (resultCode == RESULT_OK && data != null && data.getData() != null) {
+                startImport(data.getData());
+            }
+            return;
+        }
+        if (requestCode == REQ_EXPORT) {
+            if (resultCode == RESULT_OK && data != null && data.getData() != null) {
+                startExport(data.getData());
+            }
+            return;
+        }
+        // màn observation có thể thêm/xoá observation mà không trả RESULT_OK -> luôn reload để
+        // số observation trên dòng đúng (diff chỉ bind lại dòng đổi)
+        if (resultCode == RESULT_OK || requestCode == REQ_OBS) {
             loadHikes();
         }
     }
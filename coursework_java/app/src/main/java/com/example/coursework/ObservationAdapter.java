@@ -4,31 +4,58 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
-public class ObservationAdapter extends RecyclerView.Adapter<ObservationAdapter.ObsViewHolder> {
+// ListAdapter: danh sách mới được diff trên background thread (AsyncListDiffer), chỉ dòng
+// thêm/xoá/đổi mới bind lại, vị trí cuộn và animation được giữ.
+// Thumbnail ảnh lấy qua ThumbnailLoader (decode ngoài main thread); dòng bị recycle thì lần load
+// chưa chạy của nó bị huỷ.
+public class ObservationAdapter extends ListAdapter<Observation, ObservationAdapter.ObsViewHolder> {
 
     public interface Listener {
         void onEdit(Observation obs);
         void onDelete(Observation obs);
     }
 
-    private List<Observation> observations;
+    private static final DiffUtil.ItemCallback<Observation> DIFF =
+            new DiffUtil.ItemCallback<Observation>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull Observation a, @NonNull Observation b) {
+                    return a.getId() == b.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull Observation a, @NonNull Observation b) {
+                    return a.equals(b);
+                }
+            };
+
     private Listener listener;
+    private final ThumbnailLoader thumbnails;
 
-    public ObservationAdapter(List<Observation> observations, Listener listener) {
-        this.observations = observations;
+    public ObservationAdapter(Listener listener, ThumbnailLoader thumbnails) {
+        super(DIFF);
         this.listener = listener;
+        this.thumbnails = thumbnails;
+        setHasStableIds(true);
     }
 
     public void setObservations(List<Observation> list) {
-        this.observations = list;
-        notifyDataSetChanged();
+        submitList(list);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
     @NonNull
@@ -41,10 +68,11 @@ public class ObservationAdapter extends RecyclerView.Adapter<ObservationAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ObsViewHolder holder, int position) {
-        Observation o = observations.get(position);
+        Observation o = getItem(position);
         holder.tvTitle.setText(o.getTitle());
-        holder.tvTime.setText(o.getTime());
+        holder.tvTime.setText(HikeDates.formatTime(o.getTimeMillis()));
         holder.tvComment.setText(o.getComment());
+        bindPhoto(holder, o);
 
         holder.btnEdit.setOnClickListener(v -> {
             if (listener != null) listener.onEdit(o);
@@ -55,20 +83,37 @@ public class ObservationAdapter extends RecyclerView.Adapter<ObservationAdapter.
         });
     }
 
+    private void bindPhoto(ObsViewHolder holder, Observation o) {
+        ThumbnailLoader.clear(holder.ivPhoto, holder.photoTask);
+        holder.photoTask = null;
+        if (!o.hasPhoto()) {
+            holder.ivPhoto.setVisibility(View.GONE);
+            return;
+        }
+        holder.ivPhoto.setVisibility(View.VISIBLE);
+        // kích thước thumbnail = kích thước ImageView trong layout (px)
+        int sizePx = holder.ivPhoto.getLayoutParams().width;
+        holder.photoTask = thumbnails.load(o.getPhotoPath(), sizePx, holder.ivPhoto);
+    }
+
     @Override
-    public int getItemCount() {
-        return observations == null ? 0 : observations.size();
+    public void onViewRecycled(@NonNull ObsViewHolder holder) {
+        ThumbnailLoader.clear(holder.ivPhoto, holder.photoTask);
+        holder.photoTask = null;
     }
 
     static class ObsViewHolder extends RecyclerView.ViewHolder {
         TextView tvTitle, tvTime, tvComment;
+        ImageView ivPhoto;
         Button btnEdit, btnDelete;
+        Future<?> photoTask;
 
         ObsViewHolder(@NonNull View itemView) {
             super(itemView);
             tvTitle = itemView.findViewById(R.id.tvObsTitle);
             tvTime = itemView.findViewById(R.id.tvObsTime);
             tvComment = itemView.findViewById(R.id.tvObsComment);
+            ivPhoto = itemView.findViewById(R.id.ivObsPhoto);
             btnEdit = itemView.findViewById(R.id.btnObsEdit);
             btnDelete = itemView.findViewById(R.id.btnObsDelete);
         }
@@ -11,8 +11,6 @@ import android.os.Bundle;
 import android.widget.Button;
 import android.widget.TextView;
 
-import java.util.ArrayList;
-import java.util.List;
 
 public class ObservationListActivity extends AppCompatActivity implements ObservationAdapter.Listener {
 
@@ -22,7 +20,7 @@ public class ObservationListActivity extends AppCompatActivity implements Observ
     private long hikeId;
     private String hikeName;
 
-    private HikeDbHelper dbHelper;
+    private HikeRepository repository;
     private ObservationAdapter adapter;
 
     private TextView tvTitle;
@@ -37,7 +35,7 @@ public class ObservationListActivity extends AppCompatActivity implements Observ
         hikeId = getIntent().getLongExtra("hikeId", -1);
         hikeName = getIntent().getStringExtra("hikeName");
 
-        dbHelper = new HikeDbHelper(this);
+        repository = new HikeRepository(this, this);
 
         tvTitle = findViewById(R.id.tvObsForHike);
         rvObs = findViewById(R.id.rvObservations);
@@ -46,7 +44,7 @@ public class ObservationListActivity extends AppCompatActivity implements Observ
         tvTitle.setText("Observations for: " + hikeName);
 
         rvObs.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new ObservationAdapter(new ArrayList<>(), this);
+        adapter = new ObservationAdapter(this, ThumbnailLoader.getInstance(this));
         rvObs.setAdapter(adapter);
 
         btnAddObs.setOnClickListener(v -> {
@@ -60,8 +58,9 @@ public class ObservationListActivity extends AppCompatActivity implements Observ
     }
 
     private void loadObservations() {
-        List<Observation> list = dbHelper.getObservationsForHike(hikeId);
-        adapter.setObservations(list);
+        repository.getObservationsForHike(hikeId, list -> {
+            if (list != null) adapter.setObservations(list);
+        });
     }
 
     @Override
@@ -77,10 +76,11 @@ public class ObservationListActivity extends AppCompatActivity implements Observ
         new AlertDialog.Builder(this)
                 .setTitle("Delete observation")
                 .setMessage("Are you sure you want to delete this observation?")
-                .setPositiveButton("Delete", (d, w) -> {
-                    dbHelper.deleteObservation(obs.getId());
-                    loadObservations();
-                })
+                .setPositiveButton("Delete", (d, w) ->
+                        repository.deleteObservation(obs.getId(), rows -> {
+                            loadObservations();
+                            if (obs.hasPhoto()) repository.pruneObservationPhotos(null);
+                        }))
                 .setNegativeButton("Cancel", null)
                 .show();
     }
@@ -90,6 +90,8 @@ public class ObservationListActivity extends AppCompatActivity implements Observ
         super.onActivityResult(requestCode, resultCode, data);
         if (resultCode == RESULT_OK) {
             loadObservations();
+            // ảnh cũ của observation vừa sửa có thể không còn được dùng
+            if (requestCode == REQ_EDIT_OBS) repository.pruneObservationPhotos(null);
             setResult(RESULT_OK); // để MainActivity reload nếu cần
         }
     }
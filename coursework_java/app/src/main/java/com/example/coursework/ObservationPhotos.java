@@ -0,0 +1,72 @@
+package com.example.coursework;
+
+import android.content.Context;
+import android.net.Uri;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.UUID;
+
+// Ảnh đính kèm observation: mỗi ảnh là 1 file trong filesDir/DIR, cột photo_path chỉ giữ tên file
+// (không giữ đường dẫn tuyệt đối, để filesDir đổi chỗ khi restore / chuyển máy vẫn đọc được).
+// - File được copy vào lúc chọn ảnh, tên ngẫu nhiên và không bao giờ ghi đè, nên tên file cũng là
+//   key ổn định cho cache thumbnail (ThumbnailLoader).
+// - Xoá observation / hike (cascade) hoặc đổi ảnh không xoá file ngay; prune() dọn các file không
+//   còn dòng nào tham chiếu. Mọi hàm đều đụng đĩa, gọi ngoài main thread.
+final class ObservationPhotos {
+
+    static final String DIR = "observation_photos";
+    // File mới hơn mức này có thể thuộc form đang mở (đã chọn ảnh nhưng chưa Save), prune bỏ qua
+    static final long PRUNE_GRACE_MS = 60 * 60 * 1000L;
+
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    private ObservationPhotos() {}
+
+    static File dir(Context ctx) {
+        File dir = new File(ctx.getFilesDir(), DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + dir);
+        }
+        return dir;
+    }
+
+    static File file(Context ctx, String photoPath) {
+        return new File(dir(ctx), photoPath);
+    }
+
+    // Copy ảnh (content:// từ picker) vào thư mục của app, trả về tên file để lưu vào observation
+    static String importFrom(Context ctx, Uri source) throws IOException {
+        String name = UUID.randomUUID() + ".jpg";
+        File target = new File(dir(ctx), name);
+        boolean ok = false;
+        try (InputStream in = ctx.getContentResolver().openInputStream(source);
+             OutputStream out = new FileOutputStream(target)) {
+            if (in == null) throw new IOException("Cannot open " + source);
+            byte[] buf = new byte[COPY_BUFFER];
+            int n;
+            while ((n = in.read(buf)) != -1) out.write(buf, 0, n);
+            ok = true;
+        } finally {
+            if (!ok) target.delete();
+        }
+        return name;
+    }
+
+    // Xoá file không nằm trong referenced, trả về số file đã xoá
+    static int prune(Context ctx, Set<String> referenced) {
+        File[] files = dir(ctx).listFiles();
+        if (files == null) return 0;
+        long cutoff = System.currentTimeMillis() - PRUNE_GRACE_MS;
+        int deleted = 0;
+        for (File f : files) {
+            if (referenced.contains(f.getName()) || f.lastModified() > cutoff) continue;
+            if (f.delete()) deleted++;
+        }
+        return deleted;
+    }
+}
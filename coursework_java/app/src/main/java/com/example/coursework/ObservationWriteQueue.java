@@ -0,0 +1,200 @@
+package com.example.coursework;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Ghi observation kiểu group commit: insert/update tới trong vòng WINDOW_MS được gom lại và ghi
+// bằng 1 transaction (HikeDbHelper.writeObservations), thay vì mỗi dòng 1 lần commit + fsync.
+// Độ bền:
+// - Future của mỗi lệnh chỉ xong sau khi lô chứa nó đã commit. UI chỉ báo "đã lưu" khi Future xong,
+//   nên mọi thứ đã báo lưu đều nằm trên đĩa; lệnh còn trong hàng đợi chưa được báo với ai.
+// - flush() ghi ngay phần đang chờ và đợi commit xong (chỉ gọi ngoài main thread: lô cần lock
+//   helper, có thể đang bị import / ghi track giữ lâu). Activity ghi observation gọi flushAsync()
+//   trong onPause: lô được đẩy sang thread ghi ngay, không chờ hết cửa sổ, main thread không chờ.
+// - Crash (exception không bắt) thì flushOnUncaughtException() ghi nốt hàng đợi trước khi process
+//   chết. Bị kill -9 giữa cửa sổ gom thì mất phần chưa commit, phần đó cũng chưa được báo lưu.
+// - Sau shutdown() (HikeDbHelper.close()) lệnh mới không được ghi: Future lỗi ngay với
+//   IllegalStateException thay vì không bao giờ xong.
+// Lô được ghi trên 1 thread riêng theo đúng thứ tự gửi vào.
+public final class ObservationWriteQueue {
+
+    private static final String TAG = "ObservationWriteQueue";
+
+    // Cửa sổ gom: đủ ngắn để người dùng không thấy trễ, đủ dài để gom các lần lưu liên tiếp
+    static final long WINDOW_MS = 25;
+    // Đủ số này thì ghi luôn không chờ hết cửa sổ
+    static final int MAX_BATCH = HikeDbHelper.BULK_COMMIT_EVERY;
+    // Chờ tối đa khi flush lúc crash, để không treo process đang chết
+    private static final long CRASH_FLUSH_TIMEOUT_MS = 2000;
+
+    private final HikeDbHelper helper;
+    private final ScheduledExecutorService executor;
+    private volatile Thread writerThread;
+
+    private final Object lock = new Object();
+    private List<Observation> pending = new ArrayList<>();
+    private List<CompletableFuture<Long>> pendingResults = new ArrayList<>();
+    private ScheduledFuture<?> scheduled;
+    private int inFlight;   // số lô đã lấy ra khỏi hàng đợi nhưng chưa commit xong
+
+    ObservationWriteQueue(HikeDbHelper helper) {
+        this.helper = helper;
+        ScheduledThreadPoolExecutor ex = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "hike-obs-writer");
+            writerThread = t;
+            return t;
+        });
+        ex.setRemoveOnCancelPolicy(true);
+        executor = ex;
+    }
+
+    // Kết quả: id mới, -1 nếu lỗi (hike không còn, ...)
+    public CompletableFuture<Long> insert(Observation obs) {
+        if (obs.getId() >= 0) throw new IllegalArgumentException("Observation already has an id");
+        return enqueue(obs);
+    }
+
+    // Kết quả: số dòng đổi (0 = observation không còn), -1 nếu lỗi
+    public CompletableFuture<Long> update(Observation obs) {
+        if (obs.getId() < 0) throw new IllegalArgumentException("Observation has no id");
+        return enqueue(obs);
+    }
+
+    private CompletableFuture<Long> enqueue(Observation obs) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        List<CompletableFuture<Long>> rejected = null;
+        synchronized (lock) {
+            pending.add(obs);
+            pendingResults.add(result);
+            try {
+                if (pending.size() >= MAX_BATCH) {
+                    executor.execute(this::drain);
+                } else if (scheduled == null) {
+                    scheduled = executor.schedule(this::drain, WINDOW_MS, TimeUnit.MILLISECONDS);
+                }
+            } catch (RejectedExecutionException e) {
+                // đã shutdown(): không còn thread nào ghi phần đang chờ
+                rejected = pendingResults;
+                pending = new ArrayList<>();
+                pendingResults = new ArrayList<>();
+            }
+        }
+        if (rejected != null) {
+            IllegalStateException closed = new IllegalStateException("Observation write queue is closed");
+            for (CompletableFuture<Long> r : rejected) r.completeExceptionally(closed);
+        }
+        return result;
+    }
+
+    // Ghi ngay mọi lệnh đã gửi trước lời gọi này và chờ tới khi commit xong. Chặn tới khi có lock
+    // helper nên không gọi trên main thread (dùng flushAsync()).
+    public void flush() {
+        try {
+            awaitFlush(Long.MAX_VALUE);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Đẩy phần đang chờ sang thread ghi ngay, không đợi hết cửa sổ gom và không chờ commit
+    public void flushAsync() {
+        synchronized (lock) {
+            if (pending.isEmpty()) return;
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // đã shutdown(): shutdown() tự ghi nốt phần đang chờ
+            }
+        }
+    }
+
+    private void awaitFlush(long timeoutMs) throws TimeoutException {
+        synchronized (lock) {
+            if (pending.isEmpty() && inFlight == 0) return;
+        }
+        if (Thread.currentThread() == writerThread) {
+            // đang ở thread ghi (vd crash trong lúc ghi): không thể chờ chính mình
+            drain();
+            return;
+        }
+        Future<?> done;
+        try {
+            done = executor.submit(this::drain);
+        } catch (RejectedExecutionException e) {
+            // đã shutdown(): lần drain đã hẹn giờ vẫn chạy nốt, không cần gửi thêm
+            return;
+        }
+        try {
+            done.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Flush failed", e.getCause());
+        }
+    }
+
+    // Ghi nốt hàng đợi rồi dừng thread ghi (HikeDbHelper.close())
+    void shutdown() {
+        flush();
+        executor.shutdown();
+    }
+
+    // Crash ở bất kỳ thread nào: ghi nốt hàng đợi rồi mới chuyển cho handler cũ (handler mặc định
+    // của Android sẽ kill process). Hàng đợi được tra lúc crash qua current (null = không có),
+    // vì HikeDbHelper.close() bỏ hàng đợi cũ và lần ghi sau tạo hàng đợi mới.
+    static void flushOnUncaughtException(Supplier<ObservationWriteQueue> current) {
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((t, e) -> {
+            try {
+                ObservationWriteQueue queue = current.get();
+                if (queue != null) queue.awaitFlush(CRASH_FLUSH_TIMEOUT_MS);
+            } catch (Throwable flushError) {
+                Log.e(TAG, "Could not flush observations before crash", flushError);
+            } finally {
+                if (previous != null) previous.uncaughtException(t, e);
+            }
+        });
+    }
+
+    // Chạy trên thread ghi
+    private void drain() {
+        List<Observation> batch;
+        List<CompletableFuture<Long>> results;
+        synchronized (lock) {
+            if (scheduled != null) {
+                scheduled.cancel(false);
+                scheduled = null;
+            }
+            if (pending.isEmpty()) return;
+            batch = pending;
+            results = pendingResults;
+            pending = new ArrayList<>();
+            pendingResults = new ArrayList<>();
+            inFlight++;
+        }
+        try {
+            long[] ids = helper.writeObservations(batch);
+            for (int i = 0; i < ids.length; i++) results.get(i).complete(ids[i]);
+        } catch (RuntimeException e) {
+            // cả lô lỗi (vd DB không mở được): báo lỗi cho từng lệnh, không nuốt im lặng
+            Log.e(TAG, "Batch of " + batch.size() + " observations failed", e);
+            for (CompletableFuture<Long> r : results) r.completeExceptionally(e);
+        } finally {
+            synchronized (lock) {
+                inFlight--;
+            }
+        }
+    }
+}
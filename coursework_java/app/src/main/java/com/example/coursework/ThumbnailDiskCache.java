@@ -0,0 +1,130 @@
+package com.example.coursework;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Cache thumbnail trên đĩa (thường là cacheDir), tổng dung lượng giới hạn maxBytes.
+// - Mỗi thumbnail 1 file JPEG tên = key; ghi ra file tạm rồi rename nên không đọc phải file dở.
+// - LRU theo lastModified: đọc trúng thì chạm lại mtime; vượt maxBytes thì xoá file cũ nhất tới
+//   khi còn TRIM_TO phần, để không phải quét thư mục sau mỗi lần ghi.
+// - Tổng dung lượng quét 1 lần lúc dùng lần đầu rồi cộng dồn. Hệ thống có thể tự xoá cacheDir
+//   lúc thiếu chỗ: put() thấy thư mục mất thì tạo lại và quét lại từ đầu.
+// - Lock chỉ giữ cho phần sổ sách (size, xoá/ghi file); decode JPEG lúc đọc chạy ngoài lock để
+//   các thread decode không phải chờ nhau.
+// Các hàm đụng đĩa, gọi từ thread decode của ThumbnailLoader.
+final class ThumbnailDiskCache {
+
+    private static final String TAG = "ThumbnailDiskCache";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final float TRIM_TO = 0.75f;
+    private static final int JPEG_QUALITY = 85;
+
+    private final File dir;
+    private final long maxBytes;
+    private long size = -1; // -1 = chưa quét thư mục
+
+    ThumbnailDiskCache(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    // null = miss hoặc file hỏng (file hỏng bị xoá)
+    Bitmap get(String key) {
+        File f = new File(dir, key);
+        if (!f.isFile()) return null;
+        // file bị trim / thay trong lúc decode: rename và delete không đụng tới file đang mở
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inPreferredConfig = ThumbnailLoader.BITMAP_CONFIG;
+        Bitmap bmp = BitmapFactory.decodeFile(f.getPath(), opts);
+        if (bmp == null) {
+            synchronized (this) {
+                ensureSize();
+                remove(f);
+            }
+            return null;
+        }
+        f.setLastModified(System.currentTimeMillis());
+        return bmp;
+    }
+
+    synchronized void put(String key, Bitmap bmp) {
+        // hệ thống đã xoá cacheDir: số đếm cũ không còn đúng, tạo lại thư mục và quét lại
+        if (!dir.isDirectory()) size = -1;
+        ensureSize();
+        File target = new File(dir, key);
+        File tmp = new File(dir, key + TMP_SUFFIX);
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            bmp.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot write thumbnail " + key, e);
+            tmp.delete();
+            return;
+        }
+        if (target.isFile()) remove(target);
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            return;
+        }
+        size += target.length();
+        if (size > maxBytes) trim((long) (maxBytes * TRIM_TO));
+    }
+
+    synchronized long size() {
+        ensureSize();
+        return size;
+    }
+
+    synchronized void clear() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        size = 0;
+    }
+
+    private void ensureSize() {
+        if (size >= 0) return;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + dir);
+        }
+        long total = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                // file tạm sót lại từ lần ghi bị ngắt giữa chừng
+                if (f.getName().endsWith(TMP_SUFFIX)) f.delete();
+                else total += f.length();
+            }
+        }
+        size = total;
+    }
+
+    private void trim(long target) {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        // lastModified đọc 1 lần rồi mới sort, tránh gọi stat lặp lại trong comparator
+        long[] mtimes = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            mtimes[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> mtimes[i]));
+        for (int i = 0; i < order.length && size > target; i++) {
+            remove(files[order[i]]);
+        }
+    }
+
+    private void remove(File f) {
+        long len = f.length();
+        if (f.delete()) size -= len;
+    }
+}
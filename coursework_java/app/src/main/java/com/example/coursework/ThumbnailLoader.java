@@ -0,0 +1,201 @@
+package com.example.coursework;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.media.ThumbnailUtils;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Thumbnail vuông cho ảnh observation, dùng chung cả app (singleton theo application context).
+// Thứ tự tìm: LRU trong RAM -> ThumbnailDiskCache -> decode file gốc.
+// - Decode chạy trên pool DECODER_THREADS thread ưu tiên thấp, không bao giờ trên main thread.
+//   Ảnh gốc được đọc với inSampleSize (chỉ đọc kích thước trước) nên ảnh 12MP không bao giờ nằm
+//   nguyên trong RAM, sau đó cắt giữa về đúng sizePx.
+// - LRU trong RAM tính theo byte của bitmap (1/MEMORY_FRACTION heap của app), thả bớt khi hệ thống
+//   báo thiếu bộ nhớ (onTrimMemory). Đĩa giới hạn DISK_CACHE_BYTES.
+// - ImageView được gắn key đang chờ (tag R.id.thumbnailKey); view đã bị RecyclerView bind sang dòng
+//   khác thì kết quả cũ không được set vào.
+final class ThumbnailLoader implements ComponentCallbacks2 {
+
+    private static final String TAG = "ThumbnailLoader";
+    private static final int DECODER_THREADS = 2;
+    private static final int MEMORY_FRACTION = 8;
+    static final long DISK_CACHE_BYTES = 32L * 1024 * 1024;
+    static final String DISK_CACHE_DIR = "thumbnails";
+    // ảnh chụp không có alpha, 565 tốn nửa bộ nhớ so với ARGB_8888 (cả decode gốc lẫn đọc từ đĩa)
+    static final Bitmap.Config BITMAP_CONFIG = Bitmap.Config.RGB_565;
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+    private static volatile ThumbnailLoader instance;
+
+    private final Context appContext;
+    private final LruCache<String, Bitmap> memory;
+    private final ThumbnailDiskCache disk;
+    private final ExecutorService decoders;
+
+    static ThumbnailLoader getInstance(Context ctx) {
+        ThumbnailLoader l = instance;
+        if (l == null) {
+            synchronized (ThumbnailLoader.class) {
+                l = instance;
+                if (l == null) {
+                    l = new ThumbnailLoader(ctx.getApplicationContext());
+                    instance = l;
+                }
+            }
+        }
+        return l;
+    }
+
+    private ThumbnailLoader(Context appContext) {
+        this.appContext = appContext;
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE,
+                Runtime.getRuntime().maxMemory() / MEMORY_FRACTION);
+        memory = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+        disk = new ThumbnailDiskCache(new File(appContext.getCacheDir(), DISK_CACHE_DIR),
+                DISK_CACHE_BYTES);
+        AtomicInteger n = new AtomicInteger();
+        decoders = Executors.newFixedThreadPool(DECODER_THREADS, r -> {
+            Thread t = new Thread(r, "thumbnail-decoder-" + n.incrementAndGet());
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        appContext.registerComponentCallbacks(this);
+    }
+
+    // Hiển thị ảnh photoPath vào view. Trúng RAM thì set ngay và trả về null, còn lại trả về
+    // Future của lần decode để caller huỷ khi view được bind sang dòng khác (xem clear()).
+    Future<?> load(String photoPath, int sizePx, ImageView view) {
+        String key = key(photoPath, sizePx);
+        view.setTag(R.id.thumbnailKey, key);
+        Bitmap cached = memory.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return null;
+        }
+        view.setImageDrawable(null);
+        return decoders.submit(() -> {
+            Bitmap bmp = loadBlocking(photoPath, sizePx);
+            if (bmp == null) return;
+            MAIN.post(() -> {
+                if (key.equals(view.getTag(R.id.thumbnailKey))) view.setImageBitmap(bmp);
+            });
+        });
+    }
+
+    // Task chưa chạy thì bỏ; task đang decode vẫn chạy xong để kết quả vào cache cho lần sau
+    static void clear(ImageView view, Future<?> task) {
+        if (task != null) task.cancel(false);
+        view.setTag(R.id.thumbnailKey, null);
+        view.setImageDrawable(null);
+    }
+
+    // null = file ảnh không còn / không decode được
+    Bitmap loadBlocking(String photoPath, int sizePx) {
+        String key = key(photoPath, sizePx);
+        Bitmap bmp = memory.get(key);
+        if (bmp != null) return bmp;
+        bmp = disk.get(key);
+        if (bmp == null) {
+            bmp = decode(ObservationPhotos.file(appContext, photoPath), sizePx);
+            if (bmp == null) return null;
+            disk.put(key, bmp);
+        }
+        memory.put(key, bmp);
+        return bmp;
+    }
+
+    private static String key(String photoPath, int sizePx) {
+        return photoPath + "_" + sizePx;
+    }
+
+    static Bitmap decode(File file, int sizePx) {
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), opts);
+        if (opts.outWidth <= 0 || opts.outHeight <= 0) {
+            Log.w(TAG, "Cannot read image " + file);
+            return null;
+        }
+        opts.inJustDecodeBounds = false;
+        opts.inSampleSize = sampleSize(opts.outWidth, opts.outHeight, sizePx);
+        opts.inPreferredConfig = BITMAP_CONFIG;
+        Bitmap src = BitmapFactory.decodeFile(file.getPath(), opts);
+        if (src == null) return null;
+        Bitmap thumb = ThumbnailUtils.extractThumbnail(src, sizePx, sizePx,
+                ThumbnailUtils.OPTIONS_RECYCLE_INPUT);
+        return rotate(thumb, exifRotation(file));
+    }
+
+    // Lũy thừa 2 lớn nhất mà cạnh ngắn sau khi chia vẫn >= target (cắt giữa không bị vỡ ảnh)
+    static int sampleSize(int width, int height, int target) {
+        int sample = 1;
+        while (width / (sample * 2) >= target && height / (sample * 2) >= target) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private static int exifRotation(File file) {
+        try {
+            int o = new ExifInterface(file.getPath()).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (o) {
+                case ExifInterface.ORIENTATION_ROTATE_90: return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180: return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270: return 270;
+                default: return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static Bitmap rotate(Bitmap bmp, int degrees) {
+        if (degrees == 0) return bmp;
+        Matrix m = new Matrix();
+        m.postRotate(degrees);
+        Bitmap rotated = Bitmap.createBitmap(bmp, 0, 0, bmp.getWidth(), bmp.getHeight(), m, true);
+        if (rotated != bmp) bmp.recycle();
+        return rotated;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            memory.evictAll();
+        } else if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            memory.trimToSize(memory.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        memory.evictAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {}
+}
@@ -0,0 +1,37 @@
+// Model + logic thuần Java (không phụ thuộc Android) để test/benchmark trên JVM thường.
+// Test JVM (src/test, JUnit 4): ./gradlew :hike-core:test
+// Benchmark: ./gradlew :hike-core:jmh  (kết quả ở build/results/jmh/results.json)
+// Bộ nhớ List<Hike> vs HikeColumnSnapshot: ./gradlew :hike-core:jmhFootprint
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    // Android đã có sẵn org.json, chỉ cần lúc compile
+    compileOnly(libs.json)
+    testImplementation(libs.junit)
+    jmhImplementation(libs.json)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+    // dataset 1M hike cần nhiều heap hơn mặc định
+    jvmArgs.set(listOf("-Xms2g", "-Xmx2g"))
+    resultFormat.set("JSON")
+}
+
+tasks.register<JavaExec>("jmhFootprint") {
+    description = "So sánh bộ nhớ giữ lại của List<Hike> và HikeColumnSnapshot"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.example.coursework.HikeFootprint")
+    jvmArgs("-Xms2g", "-Xmx2g")
+}
@@ -0,0 +1,84 @@
+package com.example.coursework;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cùng 1 phép lọc / tổng hợp / sắp xếp trên List<Hike> và trên HikeColumnSnapshot.
+// Bộ nhớ của 2 cách: xem HikeFootprint (./gradlew :hike-core:jmhFootprint).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HikeColumnBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private List<Hike> hikes;
+    private HikeColumnSnapshot columns;
+
+    @Setup
+    public void setUp() {
+        hikes = HikeDatasets.hikes(size, 42);
+        columns = HikeColumnSnapshot.of(hikes);
+    }
+
+    // Hike "Hard", dài 5..15 km
+    @Benchmark
+    public List<Hike> listFilter() {
+        List<Hike> out = new ArrayList<>();
+        for (Hike h : hikes) {
+            if ("Hard".equals(h.getDifficulty()) &&
+                    h.getDistanceKm() >= 5 && h.getDistanceKm() <= 15) out.add(h);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public BitSet columnFilter() {
+        BitSet rows = columns.withDifficulty("Hard");
+        rows.and(columns.distanceBetween(5, 15));
+        return rows;
+    }
+
+    @Benchmark
+    public double[] listTotalsByDifficulty() {
+        double[] totals = new double[HikeValidator.DIFFICULTIES.length];
+        for (Hike h : hikes) {
+            for (int d = 0; d < totals.length; d++) {
+                if (HikeValidator.DIFFICULTIES[d].equals(h.getDifficulty())) {
+                    totals[d] += h.getDistanceKm();
+                    break;
+                }
+            }
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public List<HikeStatsBucket> columnTotalsByDifficulty() {
+        return columns.totalsByDifficulty(columns.all());
+    }
+
+    @Benchmark
+    public List<Hike> listDisplayOrder() {
+        List<Hike> copy = new ArrayList<>(hikes);
+        copy.sort(Hike.DISPLAY_ORDER);
+        return copy;
+    }
+
+    @Benchmark
+    public int[] columnDisplayOrder() {
+        return columns.displayOrder(columns.all());
+    }
+}
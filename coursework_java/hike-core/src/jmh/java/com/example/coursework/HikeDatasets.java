@@ -0,0 +1,57 @@
+package com.example.coursework;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Dữ liệu giả cho benchmark: cố định theo seed để các lần chạy so sánh được với nhau
+final class HikeDatasets {
+
+    private static final String[] NAME_WORDS = {
+            "Núi", "Bà Đen", "Lake", "Trail", "Fansipan", "Ridge", "Đèo", "Hải Vân", "Forest",
+            "Loop", "Summit", "Thác", "Bạc", "Canyon", "Pass", "Langbiang", "Valley", "Peak"};
+    private static final String[] LOCATIONS = {
+            "Sa Pa", "Lào Cai", "Đà Lạt", "Tây Ninh", "Huế", "Đà Nẵng", "Hà Giang", "Ninh Bình",
+            "Cao Bằng", "Lâm Đồng", "Kon Tum", "Quảng Bình"};
+    private static final String[] TERRAINS = {null, "Forest", "Rock", "Mud", "Sand", "Snow"};
+    private static final long FIRST_DAY = HikeDates.dateOf(2015, 1, 1);
+    private static final int DAYS = 365 * 10;
+
+    private HikeDatasets() {}
+
+    static List<Hike> hikes(int size, long seed) {
+        Random r = new Random(seed);
+        List<Hike> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = NAME_WORDS[r.nextInt(NAME_WORDS.length)] + " " +
+                    NAME_WORDS[r.nextInt(NAME_WORDS.length)] + " " + (i % 1000);
+            String description = r.nextInt(4) == 0 ? null :
+                    "Day " + i + " along the " + NAME_WORDS[r.nextInt(NAME_WORDS.length)] +
+                            " \"route\", bring water\tand a jacket.";
+            out.add(new Hike(i + 1, name, LOCATIONS[r.nextInt(LOCATIONS.length)],
+                    FIRST_DAY + r.nextInt(DAYS),
+                    HikeValidator.DIFFICULTIES[r.nextInt(HikeValidator.DIFFICULTIES.length)],
+                    Math.round(r.nextDouble() * 300) / 10.0, Math.round(r.nextDouble() * 120) / 10.0,
+                    r.nextInt(3000), r.nextBoolean(), 1 + r.nextInt(12),
+                    TERRAINS[r.nextInt(TERRAINS.length)], description));
+        }
+        return out;
+    }
+
+    // 0..2 observation cho mỗi hike, cùng thứ tự với hikes
+    static List<List<Observation>> observations(List<Hike> hikes, long seed) {
+        Random r = new Random(seed);
+        List<List<Observation>> out = new ArrayList<>(hikes.size());
+        for (Hike h : hikes) {
+            int n = r.nextInt(3);
+            List<Observation> obs = new ArrayList<>(n);
+            long base = h.getDateEpochDay() * 86_400_000L + 8 * 3_600_000L;
+            for (int i = 0; i < n; i++) {
+                obs.add(new Observation(h.getId(), "Bird " + i, base + i * 1_800_000L,
+                        i == 0 ? "Seen near the \"lake\"" : null));
+            }
+            out.add(obs);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.coursework;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Lọc (HikeQuery.matches, cùng điều kiện với filter tên / filter nâng cao của MainActivity)
+// và sắp xếp theo thứ tự hiển thị trên danh sách trong bộ nhớ.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HikeFilterBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private List<Hike> hikes;
+    private HikeQuery byName;
+    private HikeQuery advanced;
+
+    @Setup
+    public void setUp() {
+        hikes = HikeDatasets.hikes(size, 42);
+        byName = new HikeQuery().nameContains("ba den");
+        advanced = new HikeQuery().locationContains("lam dong").maxDistanceKm(15.0);
+    }
+
+    @Benchmark
+    public List<Hike> filterByName() {
+        return byName.filter(hikes);
+    }
+
+    @Benchmark
+    public List<Hike> filterAdvanced() {
+        return advanced.filter(hikes);
+    }
+
+    @Benchmark
+    public List<Hike> sortDisplayOrder() {
+        List<Hike> copy = new ArrayList<>(hikes);
+        copy.sort(Hike.DISPLAY_ORDER);
+        return copy;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.coursework;
+
+import java.util.List;
+
+// Bộ nhớ giữ lại (heap đã dùng sau GC) của List<Hike> so với HikeColumnSnapshot cùng dữ liệu.
+// JMH không đo được bộ nhớ giữ lại nên chạy riêng: ./gradlew :hike-core:jmhFootprint
+// Số đo qua Runtime nên chỉ gần đúng (vài trăm KB), đủ để so 2 cách ở dataset lớn.
+public final class HikeFootprint {
+
+    private HikeFootprint() {}
+
+    public static void main(String[] args) {
+        int[] sizes = {10_000, 100_000, 1_000_000};
+        System.out.printf("%10s %14s %14s %14s%n", "size", "List<Hike> MB", "columns MB",
+                "estimated MB");
+        for (int size : sizes) {
+            long base = usedAfterGc();
+            List<Hike> hikes = HikeDatasets.hikes(size, 42);
+            long listBytes = usedAfterGc() - base;
+
+            HikeColumnSnapshot columns = HikeColumnSnapshot.of(hikes);
+            hikes = null;
+            long columnBytes = usedAfterGc() - base;
+
+            System.out.printf("%10d %14.1f %14.1f %14.1f%n", size, mb(listBytes), mb(columnBytes),
+                    mb(columns.estimatedBytes()));
+            if (columns.size() != size) throw new AssertionError();
+        }
+    }
+
+    private static long usedAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.coursework;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Ghi / đọc NDJSON (format export/import) cho cả dataset; không tính IO và gzip
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HikeNdjsonBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private List<Hike> hikes;
+    private List<List<Observation>> observations;
+    private List<String> lines;
+
+    @Setup
+    public void setUp() throws IOException {
+        hikes = HikeDatasets.hikes(size, 42);
+        observations = HikeDatasets.observations(hikes, 7);
+        lines = new ArrayList<>(size);
+        HikeNdjsonWriter writer = new HikeNdjsonWriter();
+        for (int i = 0; i < size; i++) {
+            StringWriter line = new StringWriter();
+            writer.write(line, hikes.get(i), observations.get(i));
+            lines.add(line.toString());
+        }
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+        CountingWriter out = new CountingWriter();
+        HikeNdjsonWriter writer = new HikeNdjsonWriter();
+        for (int i = 0; i < size; i++) {
+            writer.write(out, hikes.get(i), observations.get(i));
+        }
+        return out.count;
+    }
+
+    @Benchmark
+    public void deserialize(Blackhole bh) throws Exception {
+        for (String line : lines) {
+            bh.consume(HikeNdjsonReader.parseHike(line));
+        }
+    }
+
+    // Bỏ dữ liệu, chỉ đếm ký tự, để đo phần encode chứ không đo bộ nhớ của output
+    private static final class CountingWriter extends Writer {
+        long count;
+
+        @Override public void write(char[] buf, int off, int len) { count += len; }
+        @Override public void flush() {}
+        @Override public void close() {}
+    }
+}
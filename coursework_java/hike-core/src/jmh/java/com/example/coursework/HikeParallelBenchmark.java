@@ -0,0 +1,61 @@
+package com.example.coursework;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Tuần tự vs HikeParallel trên cùng dữ liệu. Tăng tốc phụ thuộc số core của máy chạy benchmark
+// (HikeParallel.pool() lấy availableProcessors); size nhỏ để kiểm tra SEQUENTIAL_THRESHOLD.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HikeParallelBenchmark {
+
+    @Param({"10000", "500000", "1000000"})
+    public int size;
+
+    private List<Hike> hikes;
+    private HikeColumnSnapshot columns;
+    private BitSet allRows;
+    private HikeQuery advanced;
+
+    @Setup
+    public void setUp() {
+        hikes = HikeDatasets.hikes(size, 42);
+        columns = HikeColumnSnapshot.of(hikes);
+        allRows = columns.all();
+        // cùng dạng với filter nâng cao của MainActivity
+        advanced = new HikeQuery().locationContains("lam dong").maxDistanceKm(15.0);
+        // tạo pool trước, không tính vào lần đo đầu
+        HikeParallel.pool();
+    }
+
+    @Benchmark
+    public List<Hike> filterSequential() {
+        return advanced.filter(hikes);
+    }
+
+    @Benchmark
+    public List<Hike> filterParallel() {
+        return advanced.filterParallel(hikes);
+    }
+
+    @Benchmark
+    public List<HikeStatsBucket> totalsSequential() {
+        return columns.totalsByTerrain(allRows);
+    }
+
+    @Benchmark
+    public List<HikeStatsBucket> totalsParallel() {
+        return columns.totalsByTerrainParallel(allRows);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.coursework;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Đọc CSV (RFC 4180) từng record một, hỗ trợ field trong dấu "..." có xuống dòng.
+// List và StringBuilder được dùng lại giữa các record để không tạo rác.
+class CsvReader {
+
+    private final Reader in;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder sb = new StringBuilder();
+    private int pushback = -2;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // Trả về field của record tiếp theo (list được dùng lại), hoặc null khi hết file
+    List<String> next() throws IOException {
+        fields.clear();
+        sb.setLength(0);
+        int ch = read();
+        if (ch == -1) return null;
+
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        while (true) {
+            if (quoted) {
+                if (ch == -1) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (ch == '"') {
+                    int nextCh = read();
+                    if (nextCh == '"') {
+                        sb.append('"');
+                    } else {
+                        quoted = false;
+                        unread(nextCh);
+                    }
+                } else {
+                    sb.append((char) ch);
+                }
+            } else if (ch == '"' && !fieldStarted) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (ch == ',') {
+                fields.add(sb.toString());
+                sb.setLength(0);
+                fieldStarted = false;
+            } else if (ch == '\n' || ch == '\r' || ch == -1) {
+                if (ch == '\r') {
+                    int nextCh = read();
+                    if (nextCh != '\n') unread(nextCh);
+                }
+                fields.add(sb.toString());
+                return fields;
+            } else {
+                sb.append((char) ch);
+                fieldStarted = true;
+            }
+            ch = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.coursework;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Khung lat/lon (độ) để lọc thô bằng index, rồi tính khoảng cách thật bằng distanceKm().
+// Khung không bao giờ vắt qua kinh tuyến 180: around() tách thành 2 khung khi cần.
+public final class GeoBounds {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public final double minLat, minLon, maxLat, maxLon;
+
+    public GeoBounds(double minLat, double minLon, double maxLat, double maxLon) {
+        this.minLat = minLat;
+        this.minLon = minLon;
+        this.maxLat = maxLat;
+        this.maxLon = maxLon;
+    }
+
+    public boolean contains(double lat, double lon) {
+        return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+    }
+
+    public double centerLat() { return (minLat + maxLat) / 2; }
+    public double centerLon() { return (minLon + maxLon) / 2; }
+
+    // Các khung bao trọn vòng tròn bán kính radiusKm quanh (lat, lon)
+    public static List<GeoBounds> around(double lat, double lon, double radiusKm) {
+        List<GeoBounds> out = new ArrayList<>(2);
+        double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double minLat = lat - dLat, maxLat = lat + dLat;
+        if (minLat <= -90 || maxLat >= 90) {
+            // chứa cực -> mọi kinh độ
+            out.add(new GeoBounds(Math.max(minLat, -90), -180, Math.min(maxLat, 90), 180));
+            return out;
+        }
+        // vĩ độ xa xích đạo nhất của khung quyết định độ rộng kinh độ
+        double cos = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double dLon = Math.toDegrees(radiusKm / (EARTH_RADIUS_KM * cos));
+        if (dLon >= 180) {
+            out.add(new GeoBounds(minLat, -180, maxLat, 180));
+            return out;
+        }
+        double minLon = lon - dLon, maxLon = lon + dLon;
+        if (minLon < -180) {
+            out.add(new GeoBounds(minLat, minLon + 360, maxLat, 180));
+            out.add(new GeoBounds(minLat, -180, maxLat, maxLon));
+        } else if (maxLon > 180) {
+            out.add(new GeoBounds(minLat, minLon, maxLat, 180));
+            out.add(new GeoBounds(minLat, -180, maxLat, maxLon - 360));
+        } else {
+            out.add(new GeoBounds(minLat, minLon, maxLat, maxLon));
+        }
+        return out;
+    }
+
+    // Khoảng cách đường tròn lớn (haversine), km
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
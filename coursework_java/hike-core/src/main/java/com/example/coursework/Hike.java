@@ -0,0 +1,149 @@
+package com.example.coursework;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+public class Hike {
+
+    // Thứ tự hiển thị của danh sách: (date, _id), giống ORDER BY của HikePager
+    public static final Comparator<Hike> DISPLAY_ORDER = (a, b) -> {
+        int cmp = Long.compare(a.dateEpochDay, b.dateEpochDay);
+        return cmp != 0 ? cmp : Long.compare(a.id, b.id);
+    };
+
+    private long id;
+    private String name;
+    private String location;
+    private long dateEpochDay;  // số ngày từ 1970-01-01, hiển thị qua HikeDates.formatDate()
+    private String difficulty;  // Easy, Moderate, Hard, Expert
+    private double distanceKm;
+    private double durationHours;
+    private int elevationM;
+    private boolean parking;
+    private int groupSize;      // NEW - số người tham gia
+    private String terrain;     // NEW - địa hình
+    private String description; // ghi chú
+    private Double latitude;    // toạ độ (độ, WGS84); null = chưa gắn vị trí
+    private Double longitude;
+
+    public Hike(long id,
+                String name,
+                String location,
+                long dateEpochDay,
+                String difficulty,
+                double distanceKm,
+                double durationHours,
+                int elevationM,
+                boolean parking,
+                int groupSize,
+                String terrain,
+                String description) {
+
+        this(id, name, location, dateEpochDay, difficulty, distanceKm, durationHours, elevationM,
+                parking, groupSize, terrain, description, null, null);
+    }
+
+    public Hike(long id,
+                String name,
+                String location,
+                long dateEpochDay,
+                String difficulty,
+                double distanceKm,
+                double durationHours,
+                int elevationM,
+                boolean parking,
+                int groupSize,
+                String terrain,
+                String description,
+                Double latitude,
+                Double longitude) {
+
+        this.id = id;
+        this.name = name;
+        this.location = location;
+        this.dateEpochDay = dateEpochDay;
+        this.difficulty = difficulty;
+        this.distanceKm = distanceKm;
+        this.durationHours = durationHours;
+        this.elevationM = elevationM;
+        this.parking = parking;
+        this.groupSize = groupSize;
+        this.terrain = terrain;
+        this.description = description;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public Hike(String name,
+                String location,
+                long dateEpochDay,
+                String difficulty,
+                double distanceKm,
+                double durationHours,
+                int elevationM,
+                boolean parking,
+                int groupSize,
+                String terrain,
+                String description) {
+
+        this(-1, name, location, dateEpochDay, difficulty,
+                distanceKm, durationHours, elevationM,
+                parking, groupSize, terrain, description);
+    }
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public String getLocation() { return location; }
+    public long getDateEpochDay() { return dateEpochDay; }
+    public String getDifficulty() { return difficulty; }
+    public double getDistanceKm() { return distanceKm; }
+    public double getDurationHours() { return durationHours; }
+    public int getElevationM() { return elevationM; }
+    public boolean hasParking() { return parking; }
+    public int getGroupSize() { return groupSize; }
+    public String getTerrain() { return terrain; }
+    public String getDescription() { return description; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
+    // Bản sao với toạ độ khác (form sửa / import dựng Hike không có toạ độ rồi gắn sau)
+    public Hike withCoordinates(Double latitude, Double longitude) {
+        return new Hike(id, name, location, dateEpochDay, difficulty, distanceKm, durationHours,
+                elevationM, parking, groupSize, terrain, description, latitude, longitude);
+    }
+
+    // So sánh theo nội dung (dùng khi diff danh sách để biết dòng nào cần bind lại)
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Hike)) return false;
+        Hike h = (Hike) o;
+        return id == h.id &&
+                dateEpochDay == h.dateEpochDay &&
+                Double.compare(distanceKm, h.distanceKm) == 0 &&
+                Double.compare(durationHours, h.durationHours) == 0 &&
+                elevationM == h.elevationM &&
+                parking == h.parking &&
+                groupSize == h.groupSize &&
+                Objects.equals(name, h.name) &&
+                Objects.equals(location, h.location) &&
+                Objects.equals(difficulty, h.difficulty) &&
+                Objects.equals(terrain, h.terrain) &&
+                Objects.equals(description, h.description) &&
+                Objects.equals(latitude, h.latitude) &&
+                Objects.equals(longitude, h.longitude);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, location, dateEpochDay, difficulty, distanceKm,
+                durationHours, elevationM, parking, groupSize, terrain, description, latitude,
+                longitude);
+    }
+}
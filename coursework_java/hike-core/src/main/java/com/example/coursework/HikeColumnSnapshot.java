@@ -0,0 +1,349 @@
+package com.example.coursework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ảnh chụp chỉ đọc của bảng hikes dạng cột cho thống kê trong bộ nhớ trên logbook lớn:
+// mỗi cột là 1 mảng primitive (dòng i = phần tử i của mọi mảng), difficulty/terrain lưu mã
+// short trỏ vào từ điển nên không giữ String / object Hike nào cho từng dòng.
+// - Lọc trả về BitSet các dòng khớp; kết hợp điều kiện bằng and/or/andNot của BitSet.
+// - Sắp xếp trả về mảng chỉ số dòng, tổng hợp nhận BitSet các dòng cần tính.
+// Không có name/location/description: cần thì load Hike theo ids.
+public final class HikeColumnSnapshot {
+
+    private final int size;
+    private final long[] ids;
+    private final long[] dates;            // epoch day
+    private final double[] distances;
+    private final double[] durations;
+    private final int[] elevations;
+    private final short[] difficultyCodes;
+    private final short[] terrainCodes;
+    private final String[] difficultyDict; // mã -> giá trị
+    private final String[] terrainDict;    // terrain không ghi (null) cũng là 1 mã
+    private final boolean idsAscending;
+
+    private HikeColumnSnapshot(Builder b) {
+        size = b.size;
+        ids = Arrays.copyOf(b.ids, size);
+        dates = Arrays.copyOf(b.dates, size);
+        distances = Arrays.copyOf(b.distances, size);
+        durations = Arrays.copyOf(b.durations, size);
+        elevations = Arrays.copyOf(b.elevations, size);
+        difficultyCodes = Arrays.copyOf(b.difficultyCodes, size);
+        terrainCodes = Arrays.copyOf(b.terrainCodes, size);
+        difficultyDict = b.difficulties.values();
+        terrainDict = b.terrains.values();
+        boolean ascending = true;
+        for (int i = 1; i < size && ascending; i++) ascending = ids[i] > ids[i - 1];
+        idsAscending = ascending;
+    }
+
+    public static HikeColumnSnapshot of(List<Hike> hikes) {
+        Builder b = new Builder(hikes.size());
+        for (Hike h : hikes) b.add(h);
+        return b.build();
+    }
+
+    public int size() { return size; }
+    public long id(int row) { return ids[row]; }
+    public long dateEpochDay(int row) { return dates[row]; }
+    public double distanceKm(int row) { return distances[row]; }
+    public double durationHours(int row) { return durations[row]; }
+    public int elevationM(int row) { return elevations[row]; }
+    public String difficulty(int row) { return difficultyDict[difficultyCodes[row]]; }
+    public String terrain(int row) { return terrainDict[terrainCodes[row]]; }
+
+    // Số byte của các mảng (header mảng + phần tử), không tính object này
+    public long estimatedBytes() {
+        long bytes = 7 * 16L + size * (8L + 8 + 8 + 8 + 4 + 2 + 2);
+        for (String s : difficultyDict) bytes += s == null ? 0 : 40 + s.length();
+        for (String s : terrainDict) bytes += s == null ? 0 : 40 + s.length();
+        return bytes;
+    }
+
+    // ===== lọc =====
+
+    public BitSet all() {
+        BitSet out = new BitSet(size);
+        out.set(0, size);
+        return out;
+    }
+
+    public BitSet distanceBetween(double minKm, double maxKm) {
+        BitSet out = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            double d = distances[i];
+            if (d >= minKm && d <= maxKm) out.set(i);
+        }
+        return out;
+    }
+
+    public BitSet durationBetween(double minHours, double maxHours) {
+        BitSet out = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            double d = durations[i];
+            if (d >= minHours && d <= maxHours) out.set(i);
+        }
+        return out;
+    }
+
+    public BitSet elevationBetween(int minM, int maxM) {
+        BitSet out = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            int e = elevations[i];
+            if (e >= minM && e <= maxM) out.set(i);
+        }
+        return out;
+    }
+
+    // from, to là epoch day, tính cả 2 đầu
+    public BitSet dateBetween(long from, long to) {
+        BitSet out = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            long d = dates[i];
+            if (d >= from && d <= to) out.set(i);
+        }
+        return out;
+    }
+
+    // So sánh mã chứ không so String; giá trị không có trong từ điển -> rỗng
+    public BitSet withDifficulty(String difficulty) {
+        return withCode(difficultyCodes, indexOf(difficultyDict, difficulty));
+    }
+
+    // null = hike không ghi terrain
+    public BitSet withTerrain(String terrain) {
+        return withCode(terrainCodes, indexOf(terrainDict, terrain));
+    }
+
+    private BitSet withCode(short[] codes, int code) {
+        BitSet out = new BitSet(size);
+        if (code < 0) return out;
+        for (int i = 0; i < size; i++) {
+            if (codes[i] == code) out.set(i);
+        }
+        return out;
+    }
+
+    private static int indexOf(String[] dict, String value) {
+        for (int i = 0; i < dict.length; i++) {
+            if (value == null ? dict[i] == null : value.equals(dict[i])) return i;
+        }
+        return -1;
+    }
+
+    // ===== sắp xếp =====
+
+    // Các dòng của rows theo thứ tự hiển thị (date, _id), giống Hike.DISPLAY_ORDER
+    public int[] displayOrder(BitSet rows) {
+        int n = rows.cardinality();
+        // sắp theo key (date, row) gói vào 1 long: date là epoch day (dư 32 bit), row < 2^31.
+        // _id tăng cùng chiều với thứ tự dòng khi snapshot được dựng theo thứ tự _id
+        long[] keys = new long[n];
+        int k = 0;
+        for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+            keys[k++] = (dates[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] out = new int[n];
+        for (int j = 0; j < n; j++) out[j] = (int) keys[j];
+        if (!idsAscending) fixTies(out);
+        return out;
+    }
+
+    // Snapshot không dựng theo _id: sắp lại theo _id trong từng nhóm cùng date
+    private void fixTies(int[] order) {
+        int start = 0;
+        while (start < order.length) {
+            int end = start + 1;
+            while (end < order.length && dates[order[end]] == dates[order[start]]) end++;
+            if (end - start > 1) {
+                Integer[] group = new Integer[end - start];
+                for (int j = start; j < end; j++) group[j - start] = order[j];
+                Arrays.sort(group, (a, b) -> Long.compare(ids[a], ids[b]));
+                for (int j = start; j < end; j++) order[j] = group[j - start];
+            }
+            start = end;
+        }
+    }
+
+    // ===== tổng hợp =====
+
+    public double totalDistanceKm(BitSet rows) {
+        double sum = 0;
+        for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) sum += distances[i];
+        return sum;
+    }
+
+    public double totalDurationHours(BitSet rows) {
+        double sum = 0;
+        for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) sum += durations[i];
+        return sum;
+    }
+
+    public long totalElevationM(BitSet rows) {
+        long sum = 0;
+        for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) sum += elevations[i];
+        return sum;
+    }
+
+    // Cùng dạng với dashboard (HikeStats): dimension "difficulty", bỏ nhóm không có dòng nào
+    public List<HikeStatsBucket> totalsByDifficulty(BitSet rows) {
+        return totalsBy(HikeColumns.COL_DIFFICULTY, difficultyCodes, difficultyDict, rows, false);
+    }
+
+    // dimension "terrain", terrain không ghi -> bucket '' như HikeStats
+    public List<HikeStatsBucket> totalsByTerrain(BitSet rows) {
+        return totalsBy(HikeColumns.COL_TERRAIN, terrainCodes, terrainDict, rows, false);
+    }
+
+    // Như totalsBy* nhưng chia dòng cho các core (HikeParallel); cùng input thì luôn ra cùng
+    // kết quả (kể cả tổng double) nhưng có thể lệch bit cuối so với bản tuần tự
+    public List<HikeStatsBucket> totalsByDifficultyParallel(BitSet rows) {
+        return totalsBy(HikeColumns.COL_DIFFICULTY, difficultyCodes, difficultyDict, rows, true);
+    }
+
+    public List<HikeStatsBucket> totalsByTerrainParallel(BitSet rows) {
+        return totalsBy(HikeColumns.COL_TERRAIN, terrainCodes, terrainDict, rows, true);
+    }
+
+    private List<HikeStatsBucket> totalsBy(String dimension, short[] codes, String[] dict,
+                                           BitSet rows, boolean parallel) {
+        Totals t = parallel
+                ? HikeParallel.reduce(size, (from, to) -> totals(codes, dict.length, rows, from, to),
+                        Totals::add)
+                : totals(codes, dict.length, rows, 0, size);
+        List<HikeStatsBucket> out = new ArrayList<>();
+        for (int c = 0; c < dict.length; c++) {
+            if (t.count[c] == 0) continue;
+            out.add(new HikeStatsBucket(dimension, dict[c] == null ? "" : dict[c], t.count[c],
+                    t.distance[c], t.duration[c], t.elevation[c]));
+        }
+        return out;
+    }
+
+    // Tổng theo mã của các dòng thuộc rows trong [from, to)
+    private Totals totals(short[] codes, int dictSize, BitSet rows, int from, int to) {
+        Totals t = new Totals(dictSize);
+        for (int i = rows.nextSetBit(from); i >= 0 && i < to; i = rows.nextSetBit(i + 1)) {
+            int c = codes[i];
+            t.count[c]++;
+            t.distance[c] += distances[i];
+            t.duration[c] += durations[i];
+            t.elevation[c] += elevations[i];
+        }
+        return t;
+    }
+
+    private static final class Totals {
+        final int[] count;
+        final double[] distance;
+        final double[] duration;
+        final long[] elevation;
+
+        Totals(int n) {
+            count = new int[n];
+            distance = new double[n];
+            duration = new double[n];
+            elevation = new long[n];
+        }
+
+        Totals add(Totals o) {
+            for (int c = 0; c < count.length; c++) {
+                count[c] += o.count[c];
+                distance[c] += o.distance[c];
+                duration[c] += o.duration[c];
+                elevation[c] += o.elevation[c];
+            }
+            return this;
+        }
+    }
+
+    // ===== dựng =====
+
+    // Thêm lần lượt từng dòng (thường theo thứ tự _id), mảng tự nới; build() cắt vừa size
+    public static final class Builder {
+        private int size;
+        private long[] ids;
+        private long[] dates;
+        private double[] distances;
+        private double[] durations;
+        private int[] elevations;
+        private short[] difficultyCodes;
+        private short[] terrainCodes;
+        private final Dictionary difficulties = new Dictionary();
+        private final Dictionary terrains = new Dictionary();
+
+        public Builder(int expectedSize) {
+            int cap = Math.max(16, expectedSize);
+            ids = new long[cap];
+            dates = new long[cap];
+            distances = new double[cap];
+            durations = new double[cap];
+            elevations = new int[cap];
+            difficultyCodes = new short[cap];
+            terrainCodes = new short[cap];
+        }
+
+        public Builder add(Hike h) {
+            return add(h.getId(), h.getDateEpochDay(), h.getDifficulty(), h.getTerrain(),
+                    h.getDistanceKm(), h.getDurationHours(), h.getElevationM());
+        }
+
+        public Builder add(long id, long dateEpochDay, String difficulty, String terrain,
+                           double distanceKm, double durationHours, int elevationM) {
+            if (size == ids.length) grow();
+            ids[size] = id;
+            dates[size] = dateEpochDay;
+            distances[size] = distanceKm;
+            durations[size] = durationHours;
+            elevations[size] = elevationM;
+            difficultyCodes[size] = difficulties.code(difficulty);
+            terrainCodes[size] = terrains.code(terrain);
+            size++;
+            return this;
+        }
+
+        private void grow() {
+            int cap = ids.length * 2;
+            ids = Arrays.copyOf(ids, cap);
+            dates = Arrays.copyOf(dates, cap);
+            distances = Arrays.copyOf(distances, cap);
+            durations = Arrays.copyOf(durations, cap);
+            elevations = Arrays.copyOf(elevations, cap);
+            difficultyCodes = Arrays.copyOf(difficultyCodes, cap);
+            terrainCodes = Arrays.copyOf(terrainCodes, cap);
+        }
+
+        public HikeColumnSnapshot build() {
+            return new HikeColumnSnapshot(this);
+        }
+    }
+
+    // Giá trị -> mã theo thứ tự gặp lần đầu (null cũng là 1 giá trị)
+    private static final class Dictionary {
+        private final Map<String, Short> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        short code(String value) {
+            Short code = codes.get(value);
+            if (code != null) return code;
+            if (values.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct values: " + values.size());
+            }
+            code = (short) values.size();
+            codes.put(value, code);
+            values.add(value);
+            return code;
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.coursework;
+
+// Tên bảng/cột SQLite, dùng chung cho app (HikeDbHelper, migration) và code thuần Java
+// (HikeQuery, row mapper). HikeDbHelper giữ lại các hằng cùng tên trỏ về đây.
+public final class HikeColumns {
+
+    // ----- Hikes -----
+    public static final String TABLE_HIKES = "hikes";
+
+    public static final String COL_ID = "_id";
+    public static final String COL_NAME = "name";
+    public static final String COL_LOCATION = "location";
+    public static final String COL_DATE = "date";
+    public static final String COL_DIFFICULTY = "difficulty";
+    public static final String COL_DISTANCE = "distance_km";
+    public static final String COL_DURATION = "duration_h";
+    public static final String COL_ELEVATION = "elevation_m";
+    public static final String COL_PARKING = "parking"; // 0/1
+    public static final String COL_GROUP_SIZE = "group_size";
+    public static final String COL_TERRAIN = "terrain";
+    public static final String COL_DESC = "description";
+    // Bản chuẩn hoá (lowercase, bỏ dấu) để filter/search bằng SQL, xem HikeQuery.normalize()
+    public static final String COL_NAME_NORM = "name_norm";
+    public static final String COL_LOCATION_NORM = "location_norm";
+    // Toạ độ (REAL, độ), cả 2 cùng null hoặc cùng có giá trị
+    public static final String COL_LATITUDE = "latitude";
+    public static final String COL_LONGITUDE = "longitude";
+
+    // ----- Observations -----
+    public static final String TABLE_OBS = "observations";
+    public static final String COL_OBS_ID = "_id";
+    public static final String COL_OBS_HIKE_ID = "hike_id";
+    public static final String COL_OBS_TITLE = "title";
+    public static final String COL_OBS_TIME = "time";
+    public static final String COL_OBS_COMMENT = "comment";
+    public static final String COL_OBS_PHOTO = "photo_path";
+
+    private HikeColumns() {}
+}
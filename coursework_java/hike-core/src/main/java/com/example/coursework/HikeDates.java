@@ -0,0 +1,59 @@
+package com.example.coursework;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
+// Chuyển đổi ngày/giờ giữa dạng lưu trong DB và dạng hiển thị.
+// DB: ngày hike = epoch day (số ngày từ 1970-01-01), giờ observation = epoch millis.
+// Text "MM/dd/yyyy" và "yyyy-MM-dd HH:mm" chỉ dùng ở UI và file import/export.
+public final class HikeDates {
+
+    // Nhận cả dạng không pad "1/5/2025" (format cũ của DatePicker)
+    private static final DateTimeFormatter DATE_PARSE =
+            DateTimeFormatter.ofPattern("M/d/uuuu").withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/uuuu");
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm").withResolverStyle(ResolverStyle.STRICT);
+
+    private HikeDates() {}
+
+    public static String formatDate(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).format(DATE_FORMAT);
+    }
+
+    // null nếu không phải ngày hợp lệ
+    public static Long parseDate(String text) {
+        if (text == null) return null;
+        try {
+            return LocalDate.parse(text.trim(), DATE_PARSE).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public static long dateOf(int year, int month, int dayOfMonth) {
+        return LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    // Giờ hiển thị theo múi giờ của máy
+    public static String formatTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault())
+                .format(TIME_FORMAT);
+    }
+
+    // null nếu không đúng "yyyy-MM-dd HH:mm"
+    public static Long parseTime(String text) {
+        if (text == null) return null;
+        try {
+            return LocalDateTime.parse(text.trim(), TIME_FORMAT)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
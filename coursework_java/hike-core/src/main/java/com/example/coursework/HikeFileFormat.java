@@ -0,0 +1,58 @@
+package com.example.coursework;
+
+import java.util.Locale;
+
+// Tên field trong file import/export.
+// NDJSON: mỗi dòng 1 hike, observations lồng trong mảng "observations". "time" của observation là
+// epoch millis (số); file cũ ghi chuỗi "yyyy-MM-dd HH:mm" vẫn đọc được.
+// CSV: có header, cột "record" = "hike" hoặc "obs"; dòng obs thuộc về dòng hike ngay trước nó.
+public final class HikeFileFormat {
+
+    public enum Type { CSV, NDJSON }
+
+    // ----- NDJSON keys -----
+    public static final String KEY_NAME = "name";
+    public static final String KEY_LOCATION = "location";
+    public static final String KEY_DATE = "date";
+    public static final String KEY_DIFFICULTY = "difficulty";
+    public static final String KEY_DISTANCE = "distanceKm";
+    public static final String KEY_DURATION = "durationHours";
+    public static final String KEY_ELEVATION = "elevationM";
+    public static final String KEY_PARKING = "parking";
+    public static final String KEY_GROUP_SIZE = "groupSize";
+    public static final String KEY_TERRAIN = "terrain";
+    public static final String KEY_DESC = "description";
+    public static final String KEY_LATITUDE = "latitude";     // không bắt buộc
+    public static final String KEY_LONGITUDE = "longitude";
+    public static final String KEY_OBSERVATIONS = "observations";
+    public static final String KEY_OBS_TITLE = "title";
+    public static final String KEY_OBS_TIME = "time";
+    public static final String KEY_OBS_COMMENT = "comment";
+
+    // ----- CSV: cột hike dùng tên cột trong DB, cột obs thêm tiền tố obs_ -----
+    public static final String CSV_RECORD = "record";
+    public static final String CSV_RECORD_HIKE = "hike";
+    public static final String CSV_RECORD_OBS = "obs";
+    public static final String CSV_OBS_TITLE = "obs_title";
+    public static final String CSV_OBS_TIME = "obs_time";
+    public static final String CSV_OBS_COMMENT = "obs_comment";
+
+    private HikeFileFormat() {}
+
+    // Đoán định dạng theo đuôi file (bỏ qua .gz), mặc định NDJSON
+    public static Type fromFileName(String fileName) {
+        if (fileName == null) return Type.NDJSON;
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".gz")) lower = lower.substring(0, lower.length() - 3);
+        if (lower.endsWith(".csv")) {
+            return Type.CSV;
+        }
+        return Type.NDJSON;
+    }
+
+    public static boolean parseBoolean(String s) {
+        if (s == null) return false;
+        s = s.trim();
+        return s.equalsIgnoreCase("true") || s.equals("1") || s.equalsIgnoreCase("yes");
+    }
+}
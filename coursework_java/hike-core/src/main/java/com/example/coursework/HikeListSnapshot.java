@@ -0,0 +1,121 @@
+package com.example.coursework;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Bản chụp nhị phân các dòng đầu danh sách hike (đúng các field item_hike hiển thị, xem HikeSummary),
+// để lúc mở app vẽ ngay màn hình đầu mà không chờ query. Format (big-endian):
+//   header: magic "HLS1", version, số dòng, CRC32 của phần thân (4 int)
+//   mỗi dòng: id, dateEpochDay, lastObservationTime (NO_TIME = null) (long);
+//             distanceKm, durationHours (double); elevationM, observationCount (int);
+//             name, location, difficulty (int độ dài byte UTF-8, -1 = null, rồi các byte)
+// Đọc thẳng từ ByteBuffer (byte của file, hoặc buffer bất kỳ), không qua stream. File hỏng / khác version thì
+// decode trả về null, caller bỏ qua và chờ query thật.
+public final class HikeListSnapshot {
+
+    static final int MAGIC = 0x484C5331;   // "HLS1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private HikeListSnapshot() {}
+
+    public static byte[] encode(List<HikeSummary> rows) {
+        byte[][] strings = new byte[rows.size() * 3][];
+        int size = HEADER_BYTES;
+        for (int i = 0; i < rows.size(); i++) {
+            HikeSummary h = rows.get(i);
+            strings[i * 3] = utf8(h.getName());
+            strings[i * 3 + 1] = utf8(h.getLocation());
+            strings[i * 3 + 2] = utf8(h.getDifficulty());
+            size += 3 * 8 + 2 * 8 + 2 * 4 + 3 * 4;
+            for (int s = 0; s < 3; s++) {
+                if (strings[i * 3 + s] != null) size += strings[i * 3 + s].length;
+            }
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.position(HEADER_BYTES);
+        for (int i = 0; i < rows.size(); i++) {
+            HikeSummary h = rows.get(i);
+            buf.putLong(h.getId());
+            buf.putLong(h.getDateEpochDay());
+            Long last = h.getLastObservationTime();
+            buf.putLong(last == null ? NO_TIME : last);
+            buf.putDouble(h.getDistanceKm());
+            buf.putDouble(h.getDurationHours());
+            buf.putInt(h.getElevationM());
+            buf.putInt(h.getObservationCount());
+            for (int s = 0; s < 3; s++) putString(buf, strings[i * 3 + s]);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), HEADER_BYTES, size - HEADER_BYTES);
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, VERSION);
+        buf.putInt(8, rows.size());
+        buf.putInt(12, (int) crc.getValue());
+        return buf.array();
+    }
+
+    // Đọc từ vị trí hiện tại tới limit của buf; null nếu không phải snapshot hợp lệ
+    public static List<HikeSummary> decode(ByteBuffer buf) {
+        ByteBuffer in = buf.slice();
+        if (in.remaining() < HEADER_BYTES) return null;
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+        int count = in.getInt();
+        int expectedCrc = in.getInt();
+        if (count < 0) return null;
+
+        CRC32 crc = new CRC32();
+        crc.update(in.duplicate());
+        if ((int) crc.getValue() != expectedCrc) return null;
+
+        List<HikeSummary> rows = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                long id = in.getLong();
+                long date = in.getLong();
+                long last = in.getLong();
+                double distance = in.getDouble();
+                double duration = in.getDouble();
+                int elevation = in.getInt();
+                int observations = in.getInt();
+                String name = getString(in);
+                String location = getString(in);
+                String difficulty = getString(in);
+                rows.add(new HikeSummary(id, name, location, date, difficulty, distance, duration,
+                        elevation, observations, last == NO_TIME ? null : last));
+            }
+        } catch (RuntimeException e) {
+            // CRC khớp nhưng nội dung sai (không nên xảy ra): coi như không có snapshot
+            return null;
+        }
+        return rows;
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buf, byte[] bytes) {
+        if (bytes == null) {
+            buf.putInt(-1);
+            return;
+        }
+        buf.putInt(bytes.length);
+        buf.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len < 0) return null;
+        if (len > in.remaining()) throw new IllegalArgumentException("Truncated string");
+        byte[] bytes = new byte[len];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.coursework;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// Đọc 1 record NDJSON (format của HikeNdjsonWriter) thành Hike đã validate.
+// org.json có sẵn trên Android; module này chỉ compile với nó (compileOnly), benchmark trên JVM
+// tự thêm thư viện org.json vào classpath.
+public final class HikeNdjsonReader {
+
+    private HikeNdjsonReader() {}
+
+    // Observations (nếu có) nằm trong mảng HikeFileFormat.KEY_OBSERVATIONS, caller tự đọc
+    public static Hike parseHike(JSONObject o) throws HikeValidator.ValidationException {
+        Hike hike = HikeValidator.validate(-1,
+                optString(o, HikeFileFormat.KEY_NAME),
+                optString(o, HikeFileFormat.KEY_LOCATION),
+                optString(o, HikeFileFormat.KEY_DATE),
+                optString(o, HikeFileFormat.KEY_DIFFICULTY),
+                optString(o, HikeFileFormat.KEY_DISTANCE),
+                optString(o, HikeFileFormat.KEY_DURATION),
+                optString(o, HikeFileFormat.KEY_ELEVATION),
+                optString(o, HikeFileFormat.KEY_GROUP_SIZE),
+                HikeFileFormat.parseBoolean(optString(o, HikeFileFormat.KEY_PARKING)),
+                optString(o, HikeFileFormat.KEY_TERRAIN),
+                optString(o, HikeFileFormat.KEY_DESC));
+        return HikeValidator.withCoordinates(hike, optString(o, HikeFileFormat.KEY_LATITUDE),
+                optString(o, HikeFileFormat.KEY_LONGITUDE));
+    }
+
+    public static Hike parseHike(String line) throws JSONException, HikeValidator.ValidationException {
+        return parseHike(new JSONObject(line));
+    }
+
+    // optString() của org.json trả về "null" cho giá trị JSON null
+    public static String optString(JSONObject o, String key) {
+        return o.isNull(key) ? null : o.optString(key);
+    }
+}
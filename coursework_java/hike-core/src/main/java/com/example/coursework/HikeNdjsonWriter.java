@@ -0,0 +1,136 @@
+package com.example.coursework;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+// Ghi 1 hike (+ observations lồng bên trong) thành 1 dòng NDJSON theo HikeFileFormat.
+// Dùng lại 1 StringBuilder/char[] cho mọi dòng nên không tạo String cho mỗi record;
+// HikeExporter gọi thẳng beginHike/addObservation từ cursor, không dựng object Hike.
+// Không thread-safe: mỗi luồng ghi dùng 1 writer riêng.
+// JSON không biểu diễn được NaN/Infinity: số thực không hữu hạn ghi thành null (dòng đó bị validate
+// từ chối lúc import thay vì cả dòng là JSON hỏng), toạ độ không hữu hạn thì bỏ hẳn.
+// Thời điểm observation ghi đúng epoch millis như trong DB để export -> import giữ nguyên giây/ms.
+public final class HikeNdjsonWriter {
+
+    private final StringBuilder sb = new StringBuilder(1024);
+    private char[] chars = new char[1024];
+    private boolean hasObservations;
+
+    public void beginHike(String name, String location, long dateEpochDay, String difficulty,
+                          double distanceKm, double durationHours, int elevationM,
+                          boolean parking, int groupSize, String terrain, String description) {
+        sb.setLength(0);
+        hasObservations = false;
+        sb.append('{');
+        appendString(HikeFileFormat.KEY_NAME, name);
+        sb.append(',');
+        appendString(HikeFileFormat.KEY_LOCATION, location);
+        sb.append(',');
+        appendString(HikeFileFormat.KEY_DATE, HikeDates.formatDate(dateEpochDay));
+        sb.append(',');
+        appendString(HikeFileFormat.KEY_DIFFICULTY, difficulty);
+        sb.append(',');
+        appendDouble(HikeFileFormat.KEY_DISTANCE, distanceKm);
+        sb.append(',');
+        appendDouble(HikeFileFormat.KEY_DURATION, durationHours);
+        sb.append(',');
+        appendKey(HikeFileFormat.KEY_ELEVATION).append(elevationM).append(',');
+        appendKey(HikeFileFormat.KEY_PARKING).append(parking).append(',');
+        appendKey(HikeFileFormat.KEY_GROUP_SIZE).append(groupSize).append(',');
+        appendString(HikeFileFormat.KEY_TERRAIN, terrain);
+        sb.append(',');
+        appendString(HikeFileFormat.KEY_DESC, description);
+    }
+
+    // Toạ độ (nếu hike có): gọi sau beginHike, trước addObservation
+    public void addCoordinates(double latitude, double longitude) {
+        if (!Double.isFinite(latitude) || !Double.isFinite(longitude)) return;
+        sb.append(',');
+        appendKey(HikeFileFormat.KEY_LATITUDE).append(latitude).append(',');
+        appendKey(HikeFileFormat.KEY_LONGITUDE).append(longitude);
+    }
+
+    public void addObservation(String title, long timeMillis, String comment) {
+        sb.append(',');
+        if (!hasObservations) {
+            appendKey(HikeFileFormat.KEY_OBSERVATIONS).append('[');
+            hasObservations = true;
+        }
+        sb.append('{');
+        appendString(HikeFileFormat.KEY_OBS_TITLE, title);
+        sb.append(',');
+        appendKey(HikeFileFormat.KEY_OBS_TIME).append(timeMillis);
+        sb.append(',');
+        appendString(HikeFileFormat.KEY_OBS_COMMENT, comment);
+        sb.append('}');
+    }
+
+    // Đóng record và ghi cả dòng (kèm '\n') ra w
+    public void endHike(Writer w) throws IOException {
+        if (hasObservations) sb.append(']');
+        sb.append("}\n");
+        // copy StringBuilder sang char[] dùng lại rồi ghi, tránh tạo String cho mỗi dòng
+        int len = sb.length();
+        if (chars.length < len) {
+            chars = new char[Math.max(len, chars.length * 2)];
+        }
+        sb.getChars(0, len, chars, 0);
+        w.write(chars, 0, len);
+    }
+
+    public void write(Writer w, Hike h, List<Observation> observations) throws IOException {
+        beginHike(h.getName(), h.getLocation(), h.getDateEpochDay(), h.getDifficulty(),
+                h.getDistanceKm(), h.getDurationHours(), h.getElevationM(), h.hasParking(),
+                h.getGroupSize(), h.getTerrain(), h.getDescription());
+        if (h.hasCoordinates()) addCoordinates(h.getLatitude(), h.getLongitude());
+        if (observations != null) {
+            for (Observation o : observations) {
+                addObservation(o.getTitle(), o.getTimeMillis(), o.getComment());
+            }
+        }
+        endHike(w);
+    }
+
+    private StringBuilder appendKey(String key) {
+        sb.append('"').append(key).append("\":");
+        return sb;
+    }
+
+    private void appendDouble(String key, double value) {
+        appendKey(key);
+        if (Double.isFinite(value)) {
+            sb.append(value);
+        } else {
+            sb.append("null");
+        }
+    }
+
+    private void appendString(String key, String value) {
+        appendKey(key);
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append("\\u00");
+                        sb.append(Character.forDigit(c >> 4, 16));
+                        sb.append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.coursework;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+// Chia khoảng [0, size) cho ForkJoinPool (số thread = số core của máy) rồi gộp kết quả.
+// - Dưới SEQUENTIAL_THRESHOLD phần tử thì chạy thẳng trên thread gọi, không qua pool.
+// - Điểm chia chỉ phụ thuộc size (chia đôi tới khi <= threshold), không phụ thuộc số thread hay
+//   thread nào chạy trước, và combine luôn là (trái, phải) -> kết quả giữ thứ tự và giống hệt
+//   nhau giữa các lần chạy, kể cả tổng double.
+public final class HikeParallel {
+
+    // Nhỏ hơn mức này thì chi phí fork/join lớn hơn phần lợi (đo bằng HikeParallelBenchmark)
+    public static final int SEQUENTIAL_THRESHOLD = 16_384;
+
+    private static volatile ForkJoinPool pool;
+
+    private HikeParallel() {}
+
+    // Tính trên 1 đoạn [from, to) liên tục, tuần tự
+    public interface RangeFunction<R> {
+        R apply(int from, int to);
+    }
+
+    public static ForkJoinPool pool() {
+        ForkJoinPool p = pool;
+        if (p == null) {
+            synchronized (HikeParallel.class) {
+                p = pool;
+                if (p == null) {
+                    p = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    // leaf tính từng đoạn, combine(trái, phải) gộp 2 đoạn kề nhau theo đúng thứ tự
+    public static <R> R reduce(int size, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+        if (size <= SEQUENTIAL_THRESHOLD) return leaf.apply(0, size);
+        return pool().invoke(new RangeTask<>(0, size, leaf, combine));
+    }
+
+    // không bao giờ serialize: leaf/combine là lambda
+    @SuppressWarnings("serial")
+    private static final class RangeTask<R> extends RecursiveTask<R> {
+        private final int from, to;
+        private final RangeFunction<R> leaf;
+        private final BinaryOperator<R> combine;
+
+        RangeTask(int from, int to, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.combine = combine;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) return leaf.apply(from, to);
+            int mid = (from + to) >>> 1;
+            RangeTask<R> left = new RangeTask<>(from, mid, leaf, combine);
+            left.fork();
+            R right = new RangeTask<>(mid, to, leaf, combine).compute();
+            return combine.apply(left.join(), right);
+        }
+    }
+}
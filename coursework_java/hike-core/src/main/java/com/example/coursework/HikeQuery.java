@@ -0,0 +1,163 @@
+package com.example.coursework;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Builder cho điều kiện lọc hike -> WHERE có tham số, chạy thẳng trong SQLite.
+// So khớp text dùng cột name_norm / location_norm (lowercase, bỏ dấu) nên không phải
+// lowercase từng dòng trong Java. Các cột date, distance_km, name_norm đều có index.
+public class HikeQuery {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private String nameContains;
+    private String namePrefix;
+    private String locationContains;
+    private Double maxDistanceKm;
+    private Long dateEpochDay;
+
+    public HikeQuery nameContains(String text) {
+        this.nameContains = emptyToNull(normalize(text));
+        return this;
+    }
+
+    // prefix dùng được index idx_hikes_name_norm (range scan)
+    public HikeQuery nameStartsWith(String text) {
+        this.namePrefix = emptyToNull(normalize(text));
+        return this;
+    }
+
+    public HikeQuery locationContains(String text) {
+        this.locationContains = emptyToNull(normalize(text));
+        return this;
+    }
+
+    public HikeQuery maxDistanceKm(Double km) {
+        this.maxDistanceKm = km;
+        return this;
+    }
+
+    // epoch day, null = không lọc theo ngày
+    public HikeQuery onDate(Long epochDay) {
+        this.dateEpochDay = epochDay;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return nameContains == null && namePrefix == null && locationContains == null &&
+                maxDistanceKm == null && dateEpochDay == null;
+    }
+
+    // null khi không có điều kiện nào
+    public String getSelection() {
+        List<String> conds = new ArrayList<>();
+        buildInto(conds, null);
+        return conds.isEmpty() ? null : join(conds);
+    }
+
+    public String[] getSelectionArgs() {
+        List<String> args = new ArrayList<>();
+        buildInto(new ArrayList<>(), args);
+        return args.isEmpty() ? null : args.toArray(new String[0]);
+    }
+
+    private void buildInto(List<String> conds, List<String> args) {
+        if (dateEpochDay != null) {
+            conds.add(HikeColumns.COL_DATE + " = ?");
+            add(args, String.valueOf(dateEpochDay));
+        }
+        if (maxDistanceKm != null) {
+            conds.add(HikeColumns.COL_DISTANCE + " <= ?");
+            add(args, String.valueOf(maxDistanceKm));
+        }
+        if (namePrefix != null) {
+            // name_norm >= 'abc' AND name_norm < 'abc' + U+FFFF
+            conds.add(HikeColumns.COL_NAME_NORM + " >= ? AND " +
+                    HikeColumns.COL_NAME_NORM + " < ?");
+            add(args, namePrefix);
+            add(args, namePrefix + '\uffff');
+        }
+        if (nameContains != null) {
+            conds.add("instr(" + HikeColumns.COL_NAME_NORM + ", ?) > 0");
+            add(args, nameContains);
+        }
+        if (locationContains != null) {
+            conds.add("instr(" + HikeColumns.COL_LOCATION_NORM + ", ?) > 0");
+            add(args, locationContains);
+        }
+    }
+
+    // Cùng điều kiện với getSelection() nhưng chạy trên object trong bộ nhớ (không cần SQLite).
+    // Tên/địa điểm được chuẩn hoá mỗi lần gọi vì Hike không giữ cột *_norm.
+    public boolean matches(Hike h) {
+        if (dateEpochDay != null && h.getDateEpochDay() != dateEpochDay) return false;
+        if (maxDistanceKm != null && !(h.getDistanceKm() <= maxDistanceKm)) return false;
+        if (namePrefix != null || nameContains != null) {
+            String name = normalize(h.getName());
+            if (name == null) return false;
+            if (namePrefix != null && !name.startsWith(namePrefix)) return false;
+            if (nameContains != null && !name.contains(nameContains)) return false;
+        }
+        if (locationContains != null) {
+            String location = normalize(h.getLocation());
+            if (location == null || !location.contains(locationContains)) return false;
+        }
+        return true;
+    }
+
+    // Các hike khớp, giữ nguyên thứ tự của input
+    public List<Hike> filter(List<Hike> hikes) {
+        List<Hike> out = new ArrayList<>();
+        for (Hike h : hikes) {
+            if (matches(h)) out.add(h);
+        }
+        return out;
+    }
+
+    // Như filter nhưng chia hikes cho các core (HikeParallel); kết quả giống hệt filter.
+    // hikes nên là ArrayList (truy cập theo index); ít hơn HikeParallel.SEQUENTIAL_THRESHOLD
+    // phần tử thì chạy tuần tự.
+    public List<Hike> filterParallel(List<Hike> hikes) {
+        return HikeParallel.reduce(hikes.size(), (from, to) -> {
+            List<Hike> out = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                Hike h = hikes.get(i);
+                if (matches(h)) out.add(h);
+            }
+            return out;
+        }, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    private static void add(List<String> args, String value) {
+        if (args != null) args.add(value);
+    }
+
+    private static String join(List<String> conds) {
+        StringBuilder sb = new StringBuilder();
+        for (String c : conds) {
+            if (sb.length() > 0) sb.append(" AND ");
+            sb.append('(').append(c).append(')');
+        }
+        return sb.toString();
+    }
+
+    private static String emptyToNull(String s) {
+        return s == null || s.isEmpty() ? null : s;
+    }
+
+    // Chuẩn hoá để so khớp: bỏ dấu tiếng Việt/Latin, đ -> d, lowercase, trim.
+    // Giá trị này được lưu sẵn trong name_norm / location_norm khi insert/update.
+    public static String normalize(String s) {
+        if (s == null) return null;
+        String n = Normalizer.normalize(s, Normalizer.Form.NFD);
+        n = COMBINING_MARKS.matcher(n).replaceAll("");
+        n = n.replace('đ', 'd').replace('Đ', 'D');
+        return n.toLowerCase(Locale.ROOT).trim();
+    }
+}
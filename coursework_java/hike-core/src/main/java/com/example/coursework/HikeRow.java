@@ -0,0 +1,14 @@
+package com.example.coursework;
+
+// 1 dòng kết quả query, đọc theo index cột. Trên Android là Cursor (xem CursorRow);
+// tách ra interface để row mapper chạy được trên JVM thường (test, benchmark).
+public interface HikeRow {
+    // -1 nếu không có cột này
+    int getColumnIndex(String column);
+
+    boolean isNull(int column);
+    long getLong(int column);
+    int getInt(int column);
+    double getDouble(int column);
+    String getString(int column);
+}
@@ -0,0 +1,52 @@
+package com.example.coursework;
+
+// Đọc 1 dòng bảng hikes thành Hike đầy đủ (màn chi tiết / sửa). Index cột được tra 1 lần khi tạo
+// mapper (cho cả cursor), không gọi getColumnIndexOrThrow cho từng cột ở từng dòng.
+public final class HikeRowMapper implements RowMapper<Hike> {
+
+    // Mọi cột của Hike; không lấy name_norm/location_norm (chỉ dùng để lọc trong SQL)
+    public static final String[] PROJECTION = {
+            HikeColumns.COL_ID, HikeColumns.COL_NAME, HikeColumns.COL_LOCATION,
+            HikeColumns.COL_DATE, HikeColumns.COL_DIFFICULTY, HikeColumns.COL_DISTANCE,
+            HikeColumns.COL_DURATION, HikeColumns.COL_ELEVATION, HikeColumns.COL_PARKING,
+            HikeColumns.COL_GROUP_SIZE, HikeColumns.COL_TERRAIN, HikeColumns.COL_DESC,
+            HikeColumns.COL_LATITUDE, HikeColumns.COL_LONGITUDE};
+
+    private final int id, name, location, date, difficulty, distance, duration,
+            elevation, parking, groupSize, terrain, desc, latitude, longitude;
+
+    // row: dòng bất kỳ của cursor (chỉ dùng để tra index cột)
+    public HikeRowMapper(HikeRow row) {
+        id = require(row, HikeColumns.COL_ID);
+        name = require(row, HikeColumns.COL_NAME);
+        location = require(row, HikeColumns.COL_LOCATION);
+        date = require(row, HikeColumns.COL_DATE);
+        difficulty = require(row, HikeColumns.COL_DIFFICULTY);
+        distance = require(row, HikeColumns.COL_DISTANCE);
+        duration = require(row, HikeColumns.COL_DURATION);
+        elevation = require(row, HikeColumns.COL_ELEVATION);
+        parking = require(row, HikeColumns.COL_PARKING);
+        groupSize = require(row, HikeColumns.COL_GROUP_SIZE);
+        terrain = require(row, HikeColumns.COL_TERRAIN);
+        desc = require(row, HikeColumns.COL_DESC);
+        latitude = require(row, HikeColumns.COL_LATITUDE);
+        longitude = require(row, HikeColumns.COL_LONGITUDE);
+    }
+
+    @Override
+    public Hike map(HikeRow row) {
+        return new Hike(row.getLong(id), row.getString(name), row.getString(location),
+                row.getLong(date), row.getString(difficulty),
+                row.getDouble(distance), row.getDouble(duration), row.getInt(elevation),
+                row.getInt(parking) == 1, row.getInt(groupSize),
+                row.getString(terrain), row.getString(desc),
+                row.isNull(latitude) ? null : row.getDouble(latitude),
+                row.isNull(longitude) ? null : row.getDouble(longitude));
+    }
+
+    static int require(HikeRow row, String column) {
+        int index = row.getColumnIndex(column);
+        if (index < 0) throw new IllegalArgumentException("Missing column " + column);
+        return index;
+    }
+}
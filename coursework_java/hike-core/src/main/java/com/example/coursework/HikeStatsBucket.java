@@ -0,0 +1,29 @@
+package com.example.coursework;
+
+// 1 dòng của dashboard thống kê: 1 nhóm trong 1 dimension (xem HikeStats.DIM_*)
+public class HikeStatsBucket {
+
+    private final String dimension;
+    private final String bucket;            // độ khó, địa hình ('' = không ghi) hoặc "yyyy-MM"
+    private final int hikeCount;
+    private final double totalDistanceKm;
+    private final double totalDurationHours;
+    private final long totalElevationM;
+
+    public HikeStatsBucket(String dimension, String bucket, int hikeCount,
+                           double totalDistanceKm, double totalDurationHours, long totalElevationM) {
+        this.dimension = dimension;
+        this.bucket = bucket;
+        this.hikeCount = hikeCount;
+        this.totalDistanceKm = totalDistanceKm;
+        this.totalDurationHours = totalDurationHours;
+        this.totalElevationM = totalElevationM;
+    }
+
+    public String getDimension() { return dimension; }
+    public String getBucket() { return bucket; }
+    public int getHikeCount() { return hikeCount; }
+    public double getTotalDistanceKm() { return totalDistanceKm; }
+    public double getTotalDurationHours() { return totalDurationHours; }
+    public long getTotalElevationM() { return totalElevationM; }
+}
@@ -0,0 +1,70 @@
+package com.example.coursework;
+
+import java.util.Objects;
+
+// Dòng của danh sách hike (item_hike): chỉ các field được hiển thị, không có description/terrain
+// (có thể rất dài) và các cột phụ -> query list đọc và giữ ít dữ liệu hơn nhiều so với Hike.
+// Màn chi tiết / sửa load Hike đầy đủ theo id.
+// Kèm số observation và thời điểm observation mới nhất, tính trong cùng query của page.
+public class HikeSummary {
+    private final long id;
+    private final String name;
+    private final String location;
+    private final long dateEpochDay;
+    private final String difficulty;
+    private final double distanceKm;
+    private final double durationHours;
+    private final int elevationM;
+    private final int observationCount;
+    private final Long lastObservationTime;  // epoch millis, null nếu chưa có observation
+
+    public HikeSummary(long id, String name, String location, long dateEpochDay,
+                       String difficulty, double distanceKm, double durationHours, int elevationM,
+                       int observationCount, Long lastObservationTime) {
+        this.id = id;
+        this.name = name;
+        this.location = location;
+        this.dateEpochDay = dateEpochDay;
+        this.difficulty = difficulty;
+        this.distanceKm = distanceKm;
+        this.durationHours = durationHours;
+        this.elevationM = elevationM;
+        this.observationCount = observationCount;
+        this.lastObservationTime = lastObservationTime;
+    }
+
+    public long getId() { return id; }
+    public String getName() { return name; }
+    public String getLocation() { return location; }
+    public long getDateEpochDay() { return dateEpochDay; }
+    public String getDifficulty() { return difficulty; }
+    public double getDistanceKm() { return distanceKm; }
+    public double getDurationHours() { return durationHours; }
+    public int getElevationM() { return elevationM; }
+    public int getObservationCount() { return observationCount; }
+    public Long getLastObservationTime() { return lastObservationTime; }
+
+    // So sánh theo nội dung (diff danh sách)
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HikeSummary)) return false;
+        HikeSummary h = (HikeSummary) o;
+        return id == h.id &&
+                dateEpochDay == h.dateEpochDay &&
+                Double.compare(distanceKm, h.distanceKm) == 0 &&
+                Double.compare(durationHours, h.durationHours) == 0 &&
+                elevationM == h.elevationM &&
+                observationCount == h.observationCount &&
+                Objects.equals(lastObservationTime, h.lastObservationTime) &&
+                Objects.equals(name, h.name) &&
+                Objects.equals(location, h.location) &&
+                Objects.equals(difficulty, h.difficulty);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, location, dateEpochDay, difficulty, distanceKm,
+                durationHours, elevationM, observationCount, lastObservationTime);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.coursework;
+
+// Mapper cho danh sách: query với PROJECTION (không SELECT *) cộng 2 cột tổng hợp từ observations
+// (COL_OBS_COUNT, COL_LAST_OBS_TIME) rồi map thành HikeSummary
+public final class HikeSummaryMapper implements RowMapper<HikeSummary> {
+
+    // tên cột (alias) của 2 giá trị tổng hợp trong query danh sách
+    public static final String COL_OBS_COUNT = "obs_count";
+    public static final String COL_LAST_OBS_TIME = "last_obs_time";
+
+    public static final String[] PROJECTION = {
+            HikeColumns.COL_ID, HikeColumns.COL_NAME, HikeColumns.COL_LOCATION,
+            HikeColumns.COL_DATE, HikeColumns.COL_DIFFICULTY, HikeColumns.COL_DISTANCE,
+            HikeColumns.COL_DURATION, HikeColumns.COL_ELEVATION};
+
+    private final int id, name, location, date, difficulty, distance, duration, elevation,
+            obsCount, lastObsTime;
+
+    public HikeSummaryMapper(HikeRow row) {
+        id = HikeRowMapper.require(row, HikeColumns.COL_ID);
+        name = HikeRowMapper.require(row, HikeColumns.COL_NAME);
+        location = HikeRowMapper.require(row, HikeColumns.COL_LOCATION);
+        date = HikeRowMapper.require(row, HikeColumns.COL_DATE);
+        difficulty = HikeRowMapper.require(row, HikeColumns.COL_DIFFICULTY);
+        distance = HikeRowMapper.require(row, HikeColumns.COL_DISTANCE);
+        duration = HikeRowMapper.require(row, HikeColumns.COL_DURATION);
+        elevation = HikeRowMapper.require(row, HikeColumns.COL_ELEVATION);
+        obsCount = HikeRowMapper.require(row, COL_OBS_COUNT);
+        lastObsTime = HikeRowMapper.require(row, COL_LAST_OBS_TIME);
+    }
+
+    @Override
+    public HikeSummary map(HikeRow row) {
+        return new HikeSummary(row.getLong(id), row.getString(name), row.getString(location),
+                row.getLong(date), row.getString(difficulty), row.getDouble(distance),
+                row.getDouble(duration), row.getInt(elevation), row.getInt(obsCount),
+                row.isNull(lastObsTime) ? null : row.getLong(lastObsTime));
+    }
+}
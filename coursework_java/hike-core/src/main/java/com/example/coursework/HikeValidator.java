@@ -0,0 +1,111 @@
+package com.example.coursework;
+
+// Rule validate hike dùng chung cho form (AddEditHikeActivity) và import file (HikeImporter)
+public final class HikeValidator {
+
+    public static final String[] DIFFICULTIES = {"Easy", "Moderate", "Hard", "Expert"};
+
+    public static final String MSG_REQUIRED = "Please fill all required fields (*)";
+    public static final String MSG_NUMBERS =
+            "Distance, duration, elevation and group size must be numbers";
+    public static final String MSG_DIFFICULTY = "Difficulty must be Easy, Moderate, Hard or Expert";
+    public static final String MSG_DATE = "Date must be MM/dd/yyyy";
+    public static final String MSG_COORDINATES =
+            "Latitude (-90..90) and longitude (-180..180) must both be numbers, or both empty";
+
+    public static class ValidationException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public ValidationException(String message) {
+            super(message);
+        }
+    }
+
+    private HikeValidator() {}
+
+    // Input là text thô (từ EditText hoặc từ file), trả về Hike hợp lệ hoặc ném ValidationException
+    public static Hike validate(long id,
+                                String name,
+                                String location,
+                                String date,
+                                String difficulty,
+                                String distanceStr,
+                                String durationStr,
+                                String elevationStr,
+                                String groupStr,
+                                boolean parking,
+                                String terrain,
+                                String description) throws ValidationException {
+        name = trim(name);
+        location = trim(location);
+        date = trim(date);
+        distanceStr = trim(distanceStr);
+        durationStr = trim(durationStr);
+        elevationStr = trim(elevationStr);
+        groupStr = trim(groupStr);
+
+        if (name.isEmpty() ||
+                location.isEmpty() ||
+                date.isEmpty() ||
+                distanceStr.isEmpty() ||
+                durationStr.isEmpty() ||
+                elevationStr.isEmpty() ||
+                groupStr.isEmpty()) {
+            throw new ValidationException(MSG_REQUIRED);
+        }
+
+        double distance, duration;
+        int elevation, groupSize;
+        try {
+            distance = Double.parseDouble(distanceStr);
+            duration = Double.parseDouble(durationStr);
+            elevation = Integer.parseInt(elevationStr);
+            groupSize = Integer.parseInt(groupStr);
+        } catch (NumberFormatException ex) {
+            throw new ValidationException(MSG_NUMBERS);
+        }
+
+        Long epochDay = HikeDates.parseDate(date);
+        if (epochDay == null) {
+            throw new ValidationException(MSG_DATE);
+        }
+
+        if (!isKnownDifficulty(difficulty)) {
+            throw new ValidationException(MSG_DIFFICULTY);
+        }
+
+        return new Hike(id, name, location, epochDay, difficulty,
+                distance, duration, elevation, parking,
+                groupSize, trim(terrain), trim(description));
+    }
+
+    // Toạ độ không bắt buộc: cả 2 rỗng -> hike giữ nguyên (không có toạ độ)
+    public static Hike withCoordinates(Hike hike, String latitudeStr, String longitudeStr)
+            throws ValidationException {
+        latitudeStr = trim(latitudeStr);
+        longitudeStr = trim(longitudeStr);
+        if (latitudeStr.isEmpty() && longitudeStr.isEmpty()) return hike;
+        double lat, lon;
+        try {
+            lat = Double.parseDouble(latitudeStr);
+            lon = Double.parseDouble(longitudeStr);
+        } catch (NumberFormatException ex) {
+            throw new ValidationException(MSG_COORDINATES);
+        }
+        if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+            throw new ValidationException(MSG_COORDINATES);
+        }
+        return hike.withCoordinates(lat, lon);
+    }
+
+    public static boolean isKnownDifficulty(String difficulty) {
+        for (String d : DIFFICULTIES) {
+            if (d.equals(difficulty)) return true;
+        }
+        return false;
+    }
+
+    private static String trim(String s) {
+        return s == null ? "" : s.trim();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.coursework;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Kết quả của một lần bulk insert: số dòng đã import và các dòng bị lỗi
+public class ImportResult {
+
+    public static class Failure {
+        private final int index;      // vị trí dòng trong danh sách đầu vào
+        private final String reason;
+
+        public Failure(int index, String reason) {
+            this.index = index;
+            this.reason = reason;
+        }
+
+        public int getIndex() { return index; }
+        public String getReason() { return reason; }
+    }
+
+    private int importedCount;
+    private final List<Failure> failures = new ArrayList<>();
+
+    void addImported() {
+        importedCount++;
+    }
+
+    void addFailure(int index, String reason) {
+        failures.add(new Failure(index, reason));
+    }
+
+    public int getImportedCount() { return importedCount; }
+    public int getFailedCount() { return failures.size(); }
+    public List<Failure> getFailures() { return failures; }
+}
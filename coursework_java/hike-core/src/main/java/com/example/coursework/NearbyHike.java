@@ -0,0 +1,16 @@
+package com.example.coursework;
+
+// 1 kết quả tìm theo vị trí: hike và khoảng cách (km) từ điểm tìm
+public class NearbyHike {
+
+    private final Hike hike;
+    private final double distanceKm;
+
+    public NearbyHike(Hike hike, double distanceKm) {
+        this.hike = hike;
+        this.distanceKm = distanceKm;
+    }
+
+    public Hike getHike() { return hike; }
+    public double getDistanceKm() { return distanceKm; }
+}
@@ -0,0 +1,62 @@
+package com.example.coursework;
+
+import java.util.Objects;
+
+public class Observation {
+    private long id;
+    private long hikeId;
+    private String title;
+    private long timeMillis; // epoch millis, hiển thị qua HikeDates.formatTime()
+    private String comment;  // optional
+    // tên file ảnh trong thư mục ảnh của app (ObservationPhotos), null = không có ảnh
+    private String photoPath;
+
+    public Observation(long id, long hikeId, String title, long timeMillis, String comment,
+                       String photoPath) {
+        this.id = id;
+        this.hikeId = hikeId;
+        this.title = title;
+        this.timeMillis = timeMillis;
+        this.comment = comment;
+        this.photoPath = photoPath;
+    }
+
+    public Observation(long id, long hikeId, String title, long timeMillis, String comment) {
+        this(id, hikeId, title, timeMillis, comment, null);
+    }
+
+    public Observation(long hikeId, String title, long timeMillis, String comment) {
+        this(-1, hikeId, title, timeMillis, comment);
+    }
+
+    public long getId() { return id; }
+    public long getHikeId() { return hikeId; }
+    public String getTitle() { return title; }
+    public long getTimeMillis() { return timeMillis; }
+    public String getComment() { return comment; }
+    public String getPhotoPath() { return photoPath; }
+
+    public boolean hasPhoto() {
+        return photoPath != null && !photoPath.isEmpty();
+    }
+
+    public void setId(long id) { this.id = id; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Observation)) return false;
+        Observation other = (Observation) o;
+        return id == other.id &&
+                hikeId == other.hikeId &&
+                timeMillis == other.timeMillis &&
+                Objects.equals(title, other.title) &&
+                Objects.equals(comment, other.comment) &&
+                Objects.equals(photoPath, other.photoPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, hikeId, title, timeMillis, comment, photoPath);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.coursework;
+
+// Đọc 1 dòng bảng observations thành Observation, index cột tra 1 lần (xem HikeRowMapper)
+public final class ObservationRowMapper implements RowMapper<Observation> {
+
+    private final int id, hikeId, title, time, comment, photo;
+
+    public ObservationRowMapper(HikeRow row) {
+        id = HikeRowMapper.require(row, HikeColumns.COL_OBS_ID);
+        hikeId = HikeRowMapper.require(row, HikeColumns.COL_OBS_HIKE_ID);
+        title = HikeRowMapper.require(row, HikeColumns.COL_OBS_TITLE);
+        time = HikeRowMapper.require(row, HikeColumns.COL_OBS_TIME);
+        comment = HikeRowMapper.require(row, HikeColumns.COL_OBS_COMMENT);
+        photo = HikeRowMapper.require(row, HikeColumns.COL_OBS_PHOTO);
+    }
+
+    @Override
+    public Observation map(HikeRow row) {
+        return new Observation(row.getLong(id), row.getLong(hikeId), row.getString(title),
+                row.getLong(time), row.getString(comment), row.getString(photo));
+    }
+}
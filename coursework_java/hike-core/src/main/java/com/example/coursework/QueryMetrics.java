@@ -0,0 +1,239 @@
+package com.example.coursework;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Đo latency theo từng thao tác DB (mỗi thao tác là 1 hằng của enum E).
+// - record() không tạo object nào: số lần, tổng/max thời gian, số dòng và histogram nằm chung trong
+//   1 AtomicLongArray cấp sẵn, thao tác là ordinal của enum, SQL là String caller đã có sẵn.
+// - Histogram log2 theo micro giây: ô i chứa [2^i, 2^(i+1)) us (ô 0 gồm cả < 1 us), ô cuối gom mọi
+//   thứ từ 2^(BUCKETS-1) us (~0.5 s) trở lên. Percentile đọc ra là cận trên của ô, sai tối đa 2 lần.
+// - Lần chạy chậm hơn slowThresholdNs được chép vào vòng slowSamples mẫu cấp sẵn (ghi đè mẫu cũ
+//   nhất), kèm SQL; chỉ nhánh này mới lấy lock.
+// Đọc qua snapshot(): bản chụp không nhất quán tuyệt đối giữa các ô khi vẫn đang ghi, đủ cho báo cáo.
+public final class QueryMetrics<E extends Enum<E>> {
+
+    public static final int BUCKETS = 20;
+
+    private static final int COUNT = 0;
+    private static final int TOTAL_NS = 1;
+    private static final int MAX_NS = 2;
+    private static final int ROWS = 3;
+    private static final int HIST = 4;
+    private static final int STRIDE = HIST + BUCKETS;
+
+    private final E[] ops;
+    private final AtomicLongArray data;
+    private final long slowThresholdNs;
+
+    private final Object slowLock = new Object();
+    private final MutableSample[] slow;
+    private int slowNext;
+    private long slowTotal;
+
+    public QueryMetrics(Class<E> type, long slowThresholdNs, int slowSamples) {
+        this.ops = type.getEnumConstants();
+        this.data = new AtomicLongArray(ops.length * STRIDE);
+        this.slowThresholdNs = slowThresholdNs;
+        this.slow = new MutableSample[slowSamples];
+        for (int i = 0; i < slowSamples; i++) slow[i] = new MutableSample();
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    // rows: số dòng đọc ra / bị ghi; sql: câu lệnh để kèm mẫu chậm (null nếu không có)
+    public void record(E op, long startNs, long rows, String sql) {
+        long ns = System.nanoTime() - startNs;
+        int base = op.ordinal() * STRIDE;
+        data.incrementAndGet(base + COUNT);
+        data.addAndGet(base + TOTAL_NS, ns);
+        data.addAndGet(base + ROWS, rows);
+        data.incrementAndGet(base + HIST + bucketOf(ns));
+        long max;
+        while (ns > (max = data.get(base + MAX_NS))) {
+            if (data.compareAndSet(base + MAX_NS, max, ns)) break;
+        }
+        if (ns >= slowThresholdNs) recordSlow(op, ns, rows, sql);
+    }
+
+    private void recordSlow(E op, long ns, long rows, String sql) {
+        synchronized (slowLock) {
+            MutableSample s = slow[slowNext];
+            s.op = op;
+            s.durationNs = ns;
+            s.rows = rows;
+            s.sql = sql;
+            s.wallTimeMillis = System.currentTimeMillis();
+            slowNext = (slowNext + 1) % slow.length;
+            slowTotal++;
+        }
+    }
+
+    static int bucketOf(long ns) {
+        long us = ns / 1000;
+        int b = 63 - Long.numberOfLeadingZeros(us | 1);
+        return Math.min(b, BUCKETS - 1);
+    }
+
+    public long slowThresholdNs() {
+        return slowThresholdNs;
+    }
+
+    public void reset() {
+        for (int i = 0; i < data.length(); i++) data.set(i, 0);
+        synchronized (slowLock) {
+            for (MutableSample s : slow) s.op = null;
+            slowNext = 0;
+            slowTotal = 0;
+        }
+    }
+
+    public Snapshot snapshot() {
+        List<OpStats> stats = new ArrayList<>();
+        for (E op : ops) {
+            int base = op.ordinal() * STRIDE;
+            long count = data.get(base + COUNT);
+            if (count == 0) continue;
+            long[] hist = new long[BUCKETS];
+            for (int b = 0; b < BUCKETS; b++) hist[b] = data.get(base + HIST + b);
+            stats.add(new OpStats(op.name(), count, data.get(base + TOTAL_NS),
+                    data.get(base + MAX_NS), data.get(base + ROWS), hist));
+        }
+        List<SlowSample> samples = new ArrayList<>();
+        long slowCount;
+        synchronized (slowLock) {
+            slowCount = slowTotal;
+            // từ mới nhất về cũ nhất
+            for (int i = 1; i <= slow.length; i++) {
+                MutableSample s = slow[(slowNext - i + slow.length) % slow.length];
+                if (s.op == null) break;
+                samples.add(new SlowSample(s.op.name(), s.durationNs, s.rows, s.sql,
+                        s.wallTimeMillis));
+            }
+        }
+        return new Snapshot(System.currentTimeMillis(), slowThresholdNs, stats, samples, slowCount);
+    }
+
+    private static final class MutableSample {
+        Enum<?> op;
+        long durationNs;
+        long rows;
+        String sql;
+        long wallTimeMillis;
+    }
+
+    public static final class OpStats {
+        public final String op;
+        public final long count;
+        public final long totalNs;
+        public final long maxNs;
+        public final long rows;
+        private final long[] histogram;
+
+        OpStats(String op, long count, long totalNs, long maxNs, long rows, long[] histogram) {
+            this.op = op;
+            this.count = count;
+            this.totalNs = totalNs;
+            this.maxNs = maxNs;
+            this.rows = rows;
+            this.histogram = histogram;
+        }
+
+        public double meanMicros() {
+            return totalNs / 1e3 / count;
+        }
+
+        // q trong (0, 1]; trả về cận trên của ô histogram chứa percentile đó (micro giây)
+        public long percentileMicros(double q) {
+            long target = (long) Math.ceil(q * count);
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += histogram[b];
+                if (seen >= target) return b == BUCKETS - 1 ? maxNs / 1000 : 1L << (b + 1);
+            }
+            return maxNs / 1000;
+        }
+
+        public long bucketCount(int bucket) {
+            return histogram[bucket];
+        }
+    }
+
+    public static final class SlowSample {
+        public final String op;
+        public final long durationNs;
+        public final long rows;
+        public final String sql;
+        public final long wallTimeMillis;
+
+        SlowSample(String op, long durationNs, long rows, String sql, long wallTimeMillis) {
+            this.op = op;
+            this.durationNs = durationNs;
+            this.rows = rows;
+            this.sql = sql;
+            this.wallTimeMillis = wallTimeMillis;
+        }
+    }
+
+    public static final class Snapshot {
+        public final long takenAtMillis;
+        public final long slowThresholdNs;
+        public final List<OpStats> ops;
+        public final List<SlowSample> slowSamples;   // mới nhất trước
+        public final long slowCount;                 // tổng số lần chậm, kể cả mẫu đã bị ghi đè
+
+        Snapshot(long takenAtMillis, long slowThresholdNs, List<OpStats> ops,
+                 List<SlowSample> slowSamples, long slowCount) {
+            this.takenAtMillis = takenAtMillis;
+            this.slowThresholdNs = slowThresholdNs;
+            this.ops = Collections.unmodifiableList(ops);
+            this.slowSamples = Collections.unmodifiableList(slowSamples);
+            this.slowCount = slowCount;
+        }
+
+        public JSONObject toJson() throws JSONException {
+            JSONObject root = new JSONObject();
+            root.put("takenAt", takenAtMillis);
+            root.put("slowThresholdUs", slowThresholdNs / 1000);
+            JSONArray ops = new JSONArray();
+            for (OpStats s : this.ops) {
+                JSONObject o = new JSONObject();
+                o.put("op", s.op);
+                o.put("count", s.count);
+                o.put("rows", s.rows);
+                o.put("meanUs", Math.round(s.meanMicros()));
+                o.put("p50Us", s.percentileMicros(0.50));
+                o.put("p95Us", s.percentileMicros(0.95));
+                o.put("p99Us", s.percentileMicros(0.99));
+                o.put("maxUs", s.maxNs / 1000);
+                // ô i = [2^i, 2^(i+1)) us
+                JSONArray hist = new JSONArray();
+                for (int b = 0; b < BUCKETS; b++) hist.put(s.histogram[b]);
+                o.put("histogramLog2Us", hist);
+                ops.put(o);
+            }
+            root.put("ops", ops);
+            root.put("slowCount", slowCount);
+            JSONArray slow = new JSONArray();
+            for (SlowSample s : slowSamples) {
+                JSONObject o = new JSONObject();
+                o.put("op", s.op);
+                o.put("durationUs", s.durationNs / 1000);
+                o.put("rows", s.rows);
+                o.put("sql", s.sql == null ? JSONObject.NULL : s.sql);
+                o.put("at", s.wallTimeMillis);
+                slow.put(o);
+            }
+            root.put("slowSamples", slow);
+            return root;
+        }
+    }
+}
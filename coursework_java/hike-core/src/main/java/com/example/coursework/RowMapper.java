@@ -0,0 +1,6 @@
+package com.example.coursework;
+
+// Đọc 1 dòng thành object; mapper tra index cột 1 lần lúc tạo (từ cursor), rồi dùng cho mọi dòng
+public interface RowMapper<T> {
+    T map(HikeRow row);
+}
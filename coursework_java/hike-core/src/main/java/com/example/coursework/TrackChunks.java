@@ -0,0 +1,131 @@
+package com.example.coursework;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Format nhị phân của 1 chunk track: varint số điểm, rồi mỗi điểm là 4 số zigzag-varint
+// (lat E6, lon E6, elevation dm, time ms) tính chênh lệch so với điểm trước trong chunk
+// (điểm đầu so với 0). Điểm GPS liên tiếp gần nhau nên phần lớn delta chỉ tốn 1-2 byte,
+// ~6-8 byte/điểm thay vì 32 byte của 4 số nguyên. Mỗi chunk giải mã độc lập.
+public final class TrackChunks {
+
+    static final double COORD_SCALE = 1e6;
+    static final double ELEVATION_SCALE = 10;
+
+    private TrackChunks() {}
+
+    static long toE6(double degrees) {
+        return Math.round(degrees * COORD_SCALE);
+    }
+
+    static long toDm(double meters) {
+        return Math.round(meters * ELEVATION_SCALE);
+    }
+
+    // ===== ghi =====
+
+    // Buffer byte tự nới, dùng lại giữa các chunk
+    static final class Encoder {
+        private byte[] buf = new byte[4096];
+        private int len;
+        private int count;
+        private long lat, lon, ele, time;
+
+        void reset() {
+            len = 0;
+            count = 0;
+            lat = lon = ele = time = 0;
+        }
+
+        void add(long latE6, long lonE6, long eleDm, long timeMs) {
+            writeSigned(latE6 - lat);
+            writeSigned(lonE6 - lon);
+            writeSigned(eleDm - ele);
+            writeSigned(timeMs - time);
+            lat = latE6;
+            lon = lonE6;
+            ele = eleDm;
+            time = timeMs;
+            count++;
+        }
+
+        int count() { return count; }
+
+        // Chunk hoàn chỉnh: số điểm ở đầu rồi tới phần thân đã ghi
+        byte[] toChunk() {
+            byte[] header = new byte[10];
+            int h = putVarint(header, 0, count);
+            byte[] out = new byte[h + len];
+            System.arraycopy(header, 0, out, 0, h);
+            System.arraycopy(buf, 0, out, h, len);
+            return out;
+        }
+
+        private void writeSigned(long v) {
+            if (len + 10 > buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+            len = putVarint(buf, len, (v << 1) ^ (v >> 63));
+        }
+    }
+
+    private static int putVarint(byte[] buf, int pos, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+        return pos;
+    }
+
+    // ===== đọc =====
+
+    // Giải mã lần lượt từng điểm khi next(), không dựng list cho cả chunk
+    public static Iterator<TrackPoint> decode(byte[] chunk) {
+        return new Decoder(chunk);
+    }
+
+    private static final class Decoder implements Iterator<TrackPoint> {
+        private final byte[] data;
+        private int pos;
+        private long remaining;
+        private long lat, lon, ele, time;
+
+        Decoder(byte[] data) {
+            this.data = data;
+            remaining = readVarint();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public TrackPoint next() {
+            if (remaining <= 0) throw new NoSuchElementException();
+            lat += readSigned();
+            lon += readSigned();
+            ele += readSigned();
+            time += readSigned();
+            remaining--;
+            return new TrackPoint(lat / COORD_SCALE, lon / COORD_SCALE, ele / ELEVATION_SCALE, time);
+        }
+
+        private long readSigned() {
+            long v = readVarint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        private long readVarint() {
+            long v = 0;
+            int shift = 0;
+            while (true) {
+                if (pos >= data.length) throw new IllegalStateException("Truncated track chunk");
+                byte b = data[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return v;
+                shift += 7;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.coursework;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Đọc lười cả track: chỉ giữ 1 chunk đã giải mã tại 1 thời điểm, chunk tiếp theo lấy từ
+// ChunkSource khi chunk hiện tại hết điểm.
+public final class TrackIterator implements Iterator<TrackPoint> {
+
+    public interface ChunkSource {
+        // chunk kế tiếp theo thứ tự seq, null khi hết
+        byte[] next();
+    }
+
+    private final ChunkSource source;
+    private Iterator<TrackPoint> current = Collections.emptyIterator();
+    private boolean exhausted;
+
+    public TrackIterator(ChunkSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (exhausted) return false;
+            byte[] chunk = source.next();
+            if (chunk == null) {
+                exhausted = true;
+                return false;
+            }
+            current = TrackChunks.decode(chunk);
+        }
+        return true;
+    }
+
+    @Override
+    public TrackPoint next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.coursework;
+
+// 1 điểm GPS của track. Lưu dạng fixed-point (xem TrackChunks) nên khi đọc lại
+// lat/lon làm tròn tới 1e-6 độ (~0.1 m), elevation tới 0.1 m.
+public class TrackPoint {
+
+    private final double latitude;
+    private final double longitude;
+    private final double elevationM;
+    private final long timeMillis;
+
+    public TrackPoint(double latitude, double longitude, double elevationM, long timeMillis) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.elevationM = elevationM;
+        this.timeMillis = timeMillis;
+    }
+
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public double getElevationM() { return elevationM; }
+    public long getTimeMillis() { return timeMillis; }
+}
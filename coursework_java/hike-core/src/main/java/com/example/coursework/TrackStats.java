@@ -0,0 +1,60 @@
+package com.example.coursework;
+
+// Quãng đường và độ cao leo được của track, cộng dồn từng điểm trong 1 lượt (không giữ điểm).
+// Độ cao GPS nhiễu vài mét nên chỉ tính leo khi đã lên quá GAIN_THRESHOLD_M so với điểm thấp
+// nhất kể từ lần tính trước (hysteresis), không cộng mọi delta dương.
+public final class TrackStats {
+
+    public static final double GAIN_THRESHOLD_M = 3.0;
+
+    private double distanceKm;
+    private double elevationGainM;
+    private long pointCount;
+
+    private boolean hasLast;
+    private double lastLat, lastLon;
+    private double reference;  // mốc độ cao để so với GAIN_THRESHOLD_M
+
+    public void add(double lat, double lon, double elevationM) {
+        if (hasLast) {
+            distanceKm += GeoBounds.distanceKm(lastLat, lastLon, lat, lon);
+            if (elevationM < reference) {
+                reference = elevationM;
+            } else if (elevationM - reference >= GAIN_THRESHOLD_M) {
+                elevationGainM += elevationM - reference;
+                reference = elevationM;
+            }
+        } else {
+            reference = elevationM;
+            hasLast = true;
+        }
+        lastLat = lat;
+        lastLon = lon;
+        pointCount++;
+    }
+
+    public void add(TrackPoint p) {
+        add(p.getLatitude(), p.getLongitude(), p.getElevationM());
+    }
+
+    // Nối tiếp lượt trước mà điểm cuối là p: như add(p) nhưng mốc hysteresis lấy theo lượt trước
+    // (getGainReferenceM() lúc đó) thay vì độ cao của p, để đoạn leo dở dang chưa tới ngưỡng vẫn
+    // được tính khi leo tiếp. NaN = không biết mốc, dùng độ cao của p.
+    public void resumeAfter(TrackPoint p, double gainReferenceM) {
+        add(p);
+        if (!Double.isNaN(gainReferenceM)) reference = gainReferenceM;
+    }
+
+    public double getDistanceKm() { return distanceKm; }
+    public double getElevationGainM() { return elevationGainM; }
+    public long getPointCount() { return pointCount; }
+    // mốc độ cao hiện tại của hysteresis (NaN nếu chưa có điểm nào)
+    public double getGainReferenceM() { return hasLast ? reference : Double.NaN; }
+
+    // 1 lượt qua cả track
+    public static TrackStats of(Iterable<TrackPoint> points) {
+        TrackStats s = new TrackStats();
+        for (TrackPoint p : points) s.add(p);
+        return s;
+    }
+}
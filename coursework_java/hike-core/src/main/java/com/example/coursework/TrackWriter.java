@@ -0,0 +1,90 @@
+package com.example.coursework;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Ghi track theo luồng: append() chỉ encode vào buffer, đủ pointsPerChunk điểm thì giao 1 chunk
+// (TrackChunks) cho ChunkSink. flush() đẩy phần dở dang ra luôn (vd. khi app vào nền);
+// close() = flush() + ChunkSink.close(). Thống kê (TrackStats) được cộng dồn ngay khi append.
+// Không thread-safe: mỗi track 1 writer, dùng từ 1 luồng.
+public final class TrackWriter implements Closeable {
+
+    public static final int DEFAULT_POINTS_PER_CHUNK = 512;
+
+    public interface ChunkSink {
+        // distanceKm / elevationGainM: phần thống kê của riêng chunk này; gainReferenceM: mốc
+        // hysteresis sau điểm cuối của chunk (lưu lại để ghi tiếp, xem TrackStats.resumeAfter)
+        void write(int seq, int pointCount, long firstTimeMillis, long lastTimeMillis,
+                   double distanceKm, double elevationGainM, double gainReferenceM,
+                   byte[] chunk) throws IOException;
+
+        default void close() throws IOException {}
+    }
+
+    private final ChunkSink sink;
+    private final int pointsPerChunk;
+    private final TrackChunks.Encoder encoder = new TrackChunks.Encoder();
+    private final TrackStats stats = new TrackStats();
+    private int seq;
+    private long firstTime, lastTime;
+    private double flushedDistanceKm, flushedGainM;
+    private boolean closed;
+
+    public TrackWriter(ChunkSink sink) {
+        this(sink, 0, null, Double.NaN, DEFAULT_POINTS_PER_CHUNK);
+    }
+
+    // Ghi tiếp track đã có: firstSeq = seq của chunk kế tiếp, previous = điểm cuối đã lưu
+    // (để đoạn nối giữa 2 lần ghi vẫn được tính vào quãng đường), gainReferenceM = mốc hysteresis
+    // đã lưu cùng chunk cuối (NaN nếu không có), để độ cao leo giống hệt khi ghi 1 lần liền
+    public TrackWriter(ChunkSink sink, int firstSeq, TrackPoint previous, double gainReferenceM,
+                       int pointsPerChunk) {
+        if (pointsPerChunk <= 0) throw new IllegalArgumentException("pointsPerChunk " + pointsPerChunk);
+        this.sink = sink;
+        this.seq = firstSeq;
+        this.pointsPerChunk = pointsPerChunk;
+        if (previous != null) stats.resumeAfter(previous, gainReferenceM);
+    }
+
+    public void append(TrackPoint p) throws IOException {
+        append(p.getLatitude(), p.getLongitude(), p.getElevationM(), p.getTimeMillis());
+    }
+
+    public void append(double lat, double lon, double elevationM, long timeMillis) throws IOException {
+        if (closed) throw new IllegalStateException("Track writer closed");
+        if (encoder.count() == 0) firstTime = timeMillis;
+        lastTime = timeMillis;
+        long latE6 = TrackChunks.toE6(lat), lonE6 = TrackChunks.toE6(lon);
+        long eleDm = TrackChunks.toDm(elevationM);
+        encoder.add(latE6, lonE6, eleDm, timeMillis);
+        // thống kê trên giá trị đã làm tròn, giống hệt khi đọc lại từ chunk
+        stats.add(latE6 / TrackChunks.COORD_SCALE, lonE6 / TrackChunks.COORD_SCALE,
+                eleDm / TrackChunks.ELEVATION_SCALE);
+        if (encoder.count() >= pointsPerChunk) flush();
+    }
+
+    public void flush() throws IOException {
+        if (encoder.count() == 0) return;
+        double distance = stats.getDistanceKm() - flushedDistanceKm;
+        double gain = stats.getElevationGainM() - flushedGainM;
+        sink.write(seq, encoder.count(), firstTime, lastTime, distance, gain,
+                stats.getGainReferenceM(), encoder.toChunk());
+        seq++;
+        flushedDistanceKm = stats.getDistanceKm();
+        flushedGainM = stats.getElevationGainM();
+        encoder.reset();
+    }
+
+    // Thống kê của những điểm ghi qua writer này (cộng cả đoạn nối với previous)
+    public TrackStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        flush();
+        closed = true;
+        sink.close();
+    }
+}
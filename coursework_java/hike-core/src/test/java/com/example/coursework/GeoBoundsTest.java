@@ -0,0 +1,88 @@
+package com.example.coursework;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * GeoBounds.around: khung không bao giờ vắt qua kinh tuyến 180 (tách thành 2), vùng chứa cực lấy mọi
+ * kinh độ, và mọi điểm trong bán kính đều nằm trong ít nhất 1 khung.
+ */
+public class GeoBoundsTest {
+
+    @Test
+    public void splitsAtAntimeridian() {
+        List<GeoBounds> east = GeoBounds.around(10, 179.9, 50);
+        assertEquals(2, east.size());
+        assertEquals(180, east.get(0).maxLon, 0);
+        assertEquals(-180, east.get(1).minLon, 0);
+        assertTrue(covers(east, 10, -179.9));
+        assertTrue(covers(east, 10, 179.5));
+
+        List<GeoBounds> west = GeoBounds.around(-10, -179.9, 50);
+        assertEquals(2, west.size());
+        assertTrue(covers(west, -10, 179.9));
+        assertTrue(covers(west, -10, -179.5));
+
+        for (GeoBounds b : east) assertValid(b);
+        for (GeoBounds b : west) assertValid(b);
+    }
+
+    @Test
+    public void poleTakesEveryLongitude() {
+        for (double lat : new double[]{89.9, -89.9}) {
+            List<GeoBounds> boxes = GeoBounds.around(lat, 45, 50);
+            assertEquals(1, boxes.size());
+            GeoBounds b = boxes.get(0);
+            assertValid(b);
+            assertEquals(-180, b.minLon, 0);
+            assertEquals(180, b.maxLon, 0);
+            // điểm bên kia cực, cùng vĩ độ
+            assertTrue(b.contains(lat, -135));
+        }
+    }
+
+    @Test
+    public void noSplitAwayFromEdges() {
+        List<GeoBounds> boxes = GeoBounds.around(21.03, 105.85, 10);
+        assertEquals(1, boxes.size());
+        assertTrue(boxes.get(0).contains(21.03, 105.85));
+    }
+
+    @Test
+    public void everyPointWithinRadiusIsCovered() {
+        Random r = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            double lat = r.nextDouble() * 178 - 89;
+            double lon = r.nextDouble() * 360 - 180;
+            double radius = 1 + r.nextDouble() * 500;
+            List<GeoBounds> boxes = GeoBounds.around(lat, lon, radius);
+            for (GeoBounds b : boxes) assertValid(b);
+            // điểm ngẫu nhiên quanh tâm, chỉ giữ điểm thật sự trong bán kính
+            for (int j = 0; j < 20; j++) {
+                double pLat = Math.max(-90, Math.min(90, lat + (r.nextDouble() * 2 - 1) * 5));
+                double pLon = lon + (r.nextDouble() * 2 - 1) * 10;
+                if (pLon > 180) pLon -= 360;
+                if (pLon < -180) pLon += 360;
+                if (GeoBounds.distanceKm(lat, lon, pLat, pLon) > radius) continue;
+                assertTrue("(" + pLat + ", " + pLon + ") within " + radius + " km of (" + lat +
+                        ", " + lon + ")", covers(boxes, pLat, pLon));
+            }
+        }
+    }
+
+    private static boolean covers(List<GeoBounds> boxes, double lat, double lon) {
+        for (GeoBounds b : boxes) {
+            if (b.contains(lat, lon)) return true;
+        }
+        return false;
+    }
+
+    private static void assertValid(GeoBounds b) {
+        assertTrue(b.minLat >= -90 && b.maxLat <= 90 && b.minLat <= b.maxLat);
+        assertTrue(b.minLon >= -180 && b.maxLon <= 180 && b.minLon <= b.maxLon);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.coursework;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * HikeListSnapshot: encode rồi decode giữ nguyên mọi field (kể cả null, chuỗi tiếng Việt), và mọi
+ * dạng file hỏng (CRC sai, bị cắt, khác magic / version) đều decode ra null thay vì ném lỗi.
+ */
+public class HikeListSnapshotTest {
+
+    private static List<HikeSummary> sampleRows() {
+        long day = HikeDates.dateOf(2025, 11, 22);
+        return Arrays.asList(
+                new HikeSummary(1, "Núi Bà Đen", "Tây Ninh", day, "Moderate", 12.5, 4.25, 986,
+                        3, 1_700_000_000_000L),
+                new HikeSummary(2, null, null, day - 1, null, 0, 0, 0, 0, null),
+                new HikeSummary(Long.MAX_VALUE, "Đèo Hải Vân 🌄", "", Long.MIN_VALUE + 1, "Expert",
+                        Double.MAX_VALUE, Double.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                        0L));
+    }
+
+    @Test
+    public void roundTripKeepsEveryField() {
+        List<HikeSummary> rows = sampleRows();
+        List<HikeSummary> decoded = HikeListSnapshot.decode(ByteBuffer.wrap(HikeListSnapshot.encode(rows)));
+        assertEquals(rows, decoded);
+        assertNull(decoded.get(1).getName());
+        assertNull(decoded.get(1).getLastObservationTime());
+        assertEquals(Long.valueOf(0L), decoded.get(2).getLastObservationTime());
+    }
+
+    @Test
+    public void emptyList() {
+        byte[] bytes = HikeListSnapshot.encode(Collections.emptyList());
+        assertEquals(HikeListSnapshot.HEADER_BYTES, bytes.length);
+        assertEquals(Collections.emptyList(), HikeListSnapshot.decode(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    public void decodesFromBufferPosition() {
+        byte[] bytes = HikeListSnapshot.encode(sampleRows());
+        ByteBuffer buf = ByteBuffer.allocate(bytes.length + 7);
+        buf.position(7);
+        buf.put(bytes);
+        buf.position(7);
+        assertEquals(sampleRows(), HikeListSnapshot.decode(buf));
+    }
+
+    @Test
+    public void corruptSnapshotsDecodeToNull() {
+        byte[] good = HikeListSnapshot.encode(sampleRows());
+
+        // đổi 1 bit bất kỳ trong phần thân -> CRC sai
+        for (int i = HikeListSnapshot.HEADER_BYTES; i < good.length; i += 5) {
+            byte[] bad = good.clone();
+            bad[i] ^= 0x10;
+            assertNull("flip at " + i, HikeListSnapshot.decode(ByteBuffer.wrap(bad)));
+        }
+        // bị cắt ở mọi độ dài
+        for (int len = 0; len < good.length; len++) {
+            assertNull("truncated to " + len,
+                    HikeListSnapshot.decode(ByteBuffer.wrap(Arrays.copyOf(good, len))));
+        }
+        // magic, version, số dòng, CRC trong header
+        for (int field = 0; field < 4; field++) {
+            byte[] bad = good.clone();
+            ByteBuffer.wrap(bad).putInt(field * 4, ByteBuffer.wrap(good).getInt(field * 4) + 1);
+            assertNull("header field " + field, HikeListSnapshot.decode(ByteBuffer.wrap(bad)));
+        }
+        // số dòng âm
+        byte[] negative = good.clone();
+        ByteBuffer.wrap(negative).putInt(8, -1);
+        assertNull(HikeListSnapshot.decode(ByteBuffer.wrap(negative)));
+    }
+
+    // Cách HikeListSnapshotFile.read dùng: đọc cả file rồi decode
+    @Test
+    public void decodesFileBytes() throws Exception {
+        List<HikeSummary> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new HikeSummary(i + 1, "Hike " + i, "Sa Pa", HikeDates.dateOf(2024, 1, 1) + i,
+                    "Easy", i * 1.5, i * 0.5, i * 100, i, i % 2 == 0 ? null : 1_700_000_000_000L + i));
+        }
+        File file = File.createTempFile("hike_list", ".snapshot");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(HikeListSnapshot.encode(rows));
+            }
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            assertEquals(rows, HikeListSnapshot.decode(ByteBuffer.wrap(bytes)));
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.coursework;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bản song song (HikeParallel) của filter và tổng theo nhóm: kết quả giống bản tuần tự và giống hệt
+ * nhau từng bit giữa các lần chạy, trên dataset lớn hơn SEQUENTIAL_THRESHOLD để thật sự chia việc.
+ */
+public class HikeParallelTest {
+
+    private static final int SIZE = HikeParallel.SEQUENTIAL_THRESHOLD * 5 + 123;
+    private static final int RUNS = 5;
+    private static final String[] NAMES = {"Núi Bà Đen", "Lake Trail", "Fansipan", "Đèo Hải Vân",
+            "Forest Loop", "Thác Bạc", "Langbiang Peak"};
+    private static final String[] LOCATIONS = {"Sa Pa", "Đà Lạt", "Huế", "Hà Giang", "Ninh Bình"};
+    private static final String[] TERRAINS = {null, "Forest", "Rock", "Mud", "Snow"};
+
+    private static List<Hike> hikes;
+    private static HikeColumnSnapshot snapshot;
+
+    @BeforeClass
+    public static void setUp() {
+        Random r = new Random(42);
+        long firstDay = HikeDates.dateOf(2015, 1, 1);
+        hikes = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            hikes.add(new Hike(i + 1, NAMES[r.nextInt(NAMES.length)] + " " + (i % 100),
+                    LOCATIONS[r.nextInt(LOCATIONS.length)], firstDay + r.nextInt(3650),
+                    HikeValidator.DIFFICULTIES[r.nextInt(HikeValidator.DIFFICULTIES.length)],
+                    r.nextDouble() * 30, r.nextDouble() * 12, r.nextInt(3000), r.nextBoolean(),
+                    1 + r.nextInt(12), TERRAINS[r.nextInt(TERRAINS.length)], null));
+        }
+        snapshot = HikeColumnSnapshot.of(hikes);
+    }
+
+    @Test
+    public void filterParallelMatchesFilter() {
+        HikeQuery[] queries = {
+                new HikeQuery(),
+                new HikeQuery().nameContains("nui"),
+                new HikeQuery().locationContains("da lat").maxDistanceKm(10.0),
+                new HikeQuery().nameContains("no such hike")};
+        for (HikeQuery q : queries) {
+            List<Hike> expected = q.filter(hikes);
+            for (int run = 0; run < RUNS; run++) {
+                List<Hike> actual = q.filterParallel(hikes);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertSame(expected.get(i), actual.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void totalsParallelMatchSequentialAndAreDeterministic() {
+        BitSet every = snapshot.all();
+        BitSet sparse = snapshot.distanceBetween(5, 12);
+        for (BitSet rows : new BitSet[]{every, sparse}) {
+            checkTotals(snapshot.totalsByDifficulty(rows), snapshot.totalsByDifficultyParallel(rows),
+                    () -> snapshot.totalsByDifficultyParallel(rows));
+            checkTotals(snapshot.totalsByTerrain(rows), snapshot.totalsByTerrainParallel(rows),
+                    () -> snapshot.totalsByTerrainParallel(rows));
+        }
+    }
+
+    private interface Totals {
+        List<HikeStatsBucket> compute();
+    }
+
+    private static void checkTotals(List<HikeStatsBucket> sequential, List<HikeStatsBucket> first,
+                                    Totals parallel) {
+        // so với tuần tự: đếm / số nguyên khớp tuyệt đối, tổng double chỉ lệch do thứ tự cộng
+        assertEquals(sequential.size(), first.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            HikeStatsBucket s = sequential.get(i), p = first.get(i);
+            assertEquals(s.getBucket(), p.getBucket());
+            assertEquals(s.getHikeCount(), p.getHikeCount());
+            assertEquals(s.getTotalElevationM(), p.getTotalElevationM());
+            assertEquals(s.getTotalDistanceKm(), p.getTotalDistanceKm(),
+                    1e-9 * Math.abs(s.getTotalDistanceKm()));
+            assertEquals(s.getTotalDurationHours(), p.getTotalDurationHours(),
+                    1e-9 * Math.abs(s.getTotalDurationHours()));
+        }
+        // giữa các lần chạy song song: giống hệt từng bit
+        for (int run = 1; run < RUNS; run++) {
+            List<HikeStatsBucket> again = parallel.compute();
+            assertEquals(first.size(), again.size());
+            for (int i = 0; i < first.size(); i++) {
+                HikeStatsBucket a = first.get(i), b = again.get(i);
+                assertEquals(a.getBucket(), b.getBucket());
+                assertEquals(a.getHikeCount(), b.getHikeCount());
+                assertEquals(a.getTotalElevationM(), b.getTotalElevationM());
+                assertEquals(Double.doubleToRawLongBits(a.getTotalDistanceKm()),
+                        Double.doubleToRawLongBits(b.getTotalDistanceKm()));
+                assertEquals(Double.doubleToRawLongBits(a.getTotalDurationHours()),
+                        Double.doubleToRawLongBits(b.getTotalDurationHours()));
+            }
+        }
+    }
+}
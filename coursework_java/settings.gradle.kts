@@ -21,4 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "Coursework"
 include(":app")
+include(":hike-core")
  
\ No newline at end of file